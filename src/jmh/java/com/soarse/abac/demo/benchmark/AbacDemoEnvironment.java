@@ -0,0 +1,120 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.demo.AbacDemoApplication;
+import com.soarse.abac.service.PolicyService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.jooq.DSLContext;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Application started against a local embedded PostgreSQL and filled with a table of the requested size.
+ */
+@State(Scope.Benchmark)
+public class AbacDemoEnvironment {
+
+    /**
+     * Number of rows in the employee table
+     */
+    @Param("1000")
+    public int employeeCount;
+
+    /**
+     * Number of rows in the publication table
+     */
+    @Param("10000")
+    public int publicationCount;
+
+    /**
+     * Enforcement of the ABAC filters, by the conditions of the services or by the row-level security of the database
+     */
+    @Param({"CONDITION", "ROW_SECURITY"})
+    public Enforcement enforcement;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private BenchmarkResources resources;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+
+        postgres = EmbeddedPostgres.builder().start();
+
+        context = new SpringApplicationBuilder(AbacDemoApplication.class, BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username", "postgres",
+                        "spring.datasource.password", "postgres",
+                        "abac-demo.row-security.enabled", String.valueOf(enforcement == Enforcement.ROW_SECURITY),
+                        "logging.level.com.soarse", "WARN"))
+                .run();
+
+        resources = new BenchmarkResources(getBean(ObjectMapper.class));
+
+        new BenchmarkDataLoader(getBean(DSLContext.class), getBean(DataSource.class)).load(employeeCount, publicationCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+
+        context.close();
+        postgres.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+
+        return context.getBean(type);
+    }
+
+    public BenchmarkResources getResources() {
+
+        return resources;
+    }
+
+    /**
+     * Makes the persona the current user and grants it the policies used in the integration tests.
+     */
+    public void setPersona(Persona persona) {
+
+        var configuration = getBean(BenchmarkConfiguration.class);
+        var policySource = configuration.getPolicySource();
+
+        policySource.clear();
+        persona.grantPolicies(policySource, resources);
+
+        configuration.getUserAttributeSource().setUserAttributes(resources.readJsonObject(persona.getUserPath()));
+        getBean(PolicyService.class).evictCache();
+    }
+
+    /**
+     * Runs the action in a transaction, which is rolled back, so that write benchmarks do not change the table size.
+     */
+    public <T> T rollingBack(Supplier<T> action) {
+
+        return new TransactionTemplate(getBean(PlatformTransactionManager.class)).execute(status -> {
+            status.setRollbackOnly();
+            return action.get();
+        });
+    }
+
+    public enum Enforcement {
+
+        CONDITION, ROW_SECURITY
+    }
+}
@@ -0,0 +1,43 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.abac.service.PolicySource;
+import com.soarse.formula.context.source.UserAttributeSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Replaces the policy and user attribute sources with in-memory ones controlled by the benchmarks.
+ * <p>
+ * The beans are wrapped by the caching sources of the application, so the benchmarks control the sources through this configuration.
+ */
+@Configuration
+public class BenchmarkConfiguration {
+
+    private final BenchmarkPolicySource policySource = new BenchmarkPolicySource();
+    private final BenchmarkUserAttributeSource userAttributeSource = new BenchmarkUserAttributeSource();
+
+    @Bean
+    @Primary
+    public PolicySource benchmarkPolicySource() {
+
+        return policySource;
+    }
+
+    @Bean
+    @Primary
+    public UserAttributeSource benchmarkUserAttributeSource() {
+
+        return userAttributeSource;
+    }
+
+    public BenchmarkPolicySource getPolicySource() {
+
+        return policySource;
+    }
+
+    public BenchmarkUserAttributeSource getUserAttributeSource() {
+
+        return userAttributeSource;
+    }
+}
@@ -0,0 +1,55 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.abac.demo.dataset.SyntheticDatasetGenerator;
+import com.soarse.abac.demo.dataset.SyntheticDatasetSpec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.JSONB;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+
+/**
+ * Fills the tables with the personas and synthetic employees and publications of the requested size.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BenchmarkDataLoader {
+
+    private final DSLContext dsl;
+    private final DataSource dataSource;
+
+    /**
+     * Truncates the tables, restores the personas and adds synthetic rows up to the given sizes.
+     */
+    public void load(int employeeCount, int publicationCount) {
+
+        dsl.truncate(PUBLICATION).cascade().execute();
+        dsl.truncate(EMPLOYEE).cascade().execute();
+
+        // The personas must exist, since publications refer to them as authors
+        for (var persona : Persona.values()) {
+            dsl.insertInto(EMPLOYEE)
+                    .set(EMPLOYEE.ID, persona.getId())
+                    .set(EMPLOYEE.NAME, persona.name())
+                    .set(EMPLOYEE.BRANCH, persona.getBranch())
+                    .set(EMPLOYEE.ROLES, JSONB.valueOf("[]"))
+                    .set(EMPLOYEE.SKILLS, JSONB.valueOf("[]"))
+                    .execute();
+        }
+
+        var spec = SyntheticDatasetSpec.builder()
+                .employeeCount(Math.max(employeeCount - Persona.values().length, 0))
+                .publicationCount(publicationCount)
+                .existingAuthorIds(Arrays.stream(Persona.values()).map(Persona::getId).toList())
+                .build();
+
+        new SyntheticDatasetGenerator(dataSource).generate(spec);
+
+        log.info("Loaded {} employees and {} publications", employeeCount, publicationCount);
+    }
+}
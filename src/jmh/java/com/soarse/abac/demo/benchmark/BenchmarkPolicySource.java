@@ -0,0 +1,65 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * In-memory policy source, which is filled by the benchmark according to the selected persona.
+ */
+public class BenchmarkPolicySource implements PolicySource {
+
+    private volatile List<Policy> universalPolicies = emptyList();
+    private final Map<String, List<Policy>> actionPolicies = new ConcurrentHashMap<>();
+    private final Map<ActionEffect, Map<TableEntityId, List<Policy>>> entityPolicies = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Policy> getUniversalPolicies() {
+
+        return universalPolicies;
+    }
+
+    @Override
+    public List<Policy> getActionPolicies(String actionId) {
+
+        return actionPolicies.getOrDefault(actionId, emptyList());
+    }
+
+    @Override
+    public List<Policy> getEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        return entityPolicies.getOrDefault(effect, Map.of()).getOrDefault(entityId, emptyList());
+    }
+
+    public void setUniversalPolicies(List<Policy> policies) {
+
+        universalPolicies = List.copyOf(policies);
+    }
+
+    public void setActionPolicies(String actionId, List<Policy> policies) {
+
+        actionPolicies.put(actionId, List.copyOf(policies));
+    }
+
+    public void setEntityPolicies(ActionEffect effect, TableEntityId entityId, List<Policy> policies) {
+
+        entityPolicies.computeIfAbsent(effect, key -> new ConcurrentHashMap<>()).put(entityId, List.copyOf(policies));
+    }
+
+    /**
+     * Removes all policies, so that access is denied by default.
+     */
+    public void clear() {
+
+        universalPolicies = emptyList();
+        actionPolicies.clear();
+        entityPolicies.clear();
+    }
+}
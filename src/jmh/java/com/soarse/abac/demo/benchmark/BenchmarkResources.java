@@ -0,0 +1,82 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.stream;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads users, policies and formulas shared with the integration tests from the classpath.
+ */
+@RequiredArgsConstructor
+public class BenchmarkResources {
+
+    private static final TypeReference<HashMap<String, Formula>> FORMULA_MAP_TYPE_REFERENCE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper mapper;
+
+    @SneakyThrows
+    public String readDocument(String path) {
+
+        try (var stream = open(path)) {
+            return new String(stream.readAllBytes(), UTF_8);
+        }
+    }
+
+    @SneakyThrows
+    public ObjectNode readJsonObject(String path) {
+
+        try (var stream = open(path)) {
+            return (ObjectNode) mapper.readTree(stream);
+        }
+    }
+
+    @SneakyThrows
+    public Policy readPolicy(String path) {
+
+        try (var stream = open(path)) {
+            return mapper.readValue(stream, Policy.class);
+        }
+    }
+
+    public List<Policy> readPolicies(String... paths) {
+
+        return stream(paths)
+                .map(this::readPolicy)
+                .toList();
+    }
+
+    @SneakyThrows
+    public Formula readFormula(String path) {
+
+        try (var stream = open(path)) {
+            return mapper.readValue(stream, Formula.class);
+        }
+    }
+
+    @SneakyThrows
+    public Map<String, Formula> readFormulas(String path) {
+
+        try (var stream = open(path)) {
+            return mapper.readValue(stream, FORMULA_MAP_TYPE_REFERENCE);
+        }
+    }
+
+    private InputStream open(String path) {
+
+        return requireNonNull(BenchmarkResources.class.getResourceAsStream(path), "Resource not found: %s".formatted(path));
+    }
+}
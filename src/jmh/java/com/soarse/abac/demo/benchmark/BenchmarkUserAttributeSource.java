@@ -0,0 +1,23 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.formula.context.source.UserAttributeSource;
+
+/**
+ * User attribute source returning the attributes of the persona selected by the benchmark.
+ */
+public class BenchmarkUserAttributeSource implements UserAttributeSource {
+
+    private volatile ObjectNode userAttributes;
+
+    @Override
+    public ObjectNode getUserAttributes() {
+
+        return userAttributes;
+    }
+
+    public void setUserAttributes(ObjectNode userAttributes) {
+
+        this.userAttributes = userAttributes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.computation.CompiledFormula;
+import com.soarse.abac.demo.computation.FormulaCompiler;
+import com.soarse.abac.demo.formula.BulkComputableFieldInjector;
+import com.soarse.abac.demo.user.UserAttributes;
+import com.soarse.formula.Formula;
+import com.soarse.formula.service.computations.ComputableFieldInjectionService;
+import com.soarse.formula.service.computations.ComputationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of the computation of formula values and computable fields.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate next to the throughput.
+ * The computable field injection queries the database for its {@code FETCH_ALL}, the in-memory computation does not.
+ * The bulk injection queries the database once per branch of the documents.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ComputationFormulaBenchmark {
+
+    private ComputationService computationService;
+    private ComputableFieldInjectionService computableFieldInjectionService;
+    private BulkComputableFieldInjector bulkComputableFieldInjector;
+
+    private Formula salaryBySkill;
+    private CompiledFormula compiledSalaryBySkill;
+    private Map<String, Formula> salaryDivergence;
+    private ObjectNode employeeDocument;
+    private UserAttributes userAttributes;
+
+    @Setup(Level.Trial)
+    public void setUp(AbacDemoEnvironment environment) {
+
+        // Formulas depend on the attributes of the chief editor
+        environment.setPersona(Persona.CHIEF_EDITOR);
+
+        computationService = environment.getBean(ComputationService.class);
+        computableFieldInjectionService = environment.getBean(ComputableFieldInjectionService.class);
+        bulkComputableFieldInjector = environment.getBean(BulkComputableFieldInjector.class);
+
+        var resources = environment.getResources();
+
+        salaryBySkill = resources.readFormula("/formula/property/salaryBySkill.json");
+        salaryDivergence = resources.readFormulas("/formula/property/salaryDivergencePropertyFormula.json");
+        employeeDocument = resources.readJsonObject("/user/chiefeditor.json");
+        userAttributes = UserAttributes.of(employeeDocument);
+
+        compiledSalaryBySkill = environment.getBean(FormulaCompiler.class).compile(salaryBySkill).orElseThrow();
+    }
+
+    @Benchmark
+    public BigDecimal computeValue() {
+
+        return computationService.computeValue(salaryBySkill, BigDecimal.class);
+    }
+
+    @Benchmark
+    public BigDecimal computeCompiledValue() {
+
+        // The document of the chief editor holds the attributes of the persona
+        return compiledSalaryBySkill.computeValue(userAttributes, JsonNodeFactory.instance.objectNode(), BigDecimal.class);
+    }
+
+    @Benchmark
+    public ObjectNode injectComputableFields() {
+
+        // The injection modifies the document, so each invocation gets its own copy
+        var document = employeeDocument.deepCopy();
+
+        computableFieldInjectionService.injectComputableFields(document, salaryDivergence);
+
+        return document;
+    }
+
+    @Benchmark
+    public List<ObjectNode> injectComputableFieldsInBulk() {
+
+        // A thousand employees of both branches
+        var documents = IntStream.range(0, 1000)
+                .mapToObj(index -> employeeDocument.deepCopy().put("branch", index % 2 == 0 ? "NY" : "LA"))
+                .toList();
+
+        bulkComputableFieldInjector.injectComputableFields(documents, salaryDivergence);
+
+        return documents;
+    }
+}
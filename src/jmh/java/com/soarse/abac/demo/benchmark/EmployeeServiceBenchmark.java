@@ -0,0 +1,59 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import com.soarse.formula.Formula;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles of the employee permission points for each persona allowed to read employees.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmployeeServiceBenchmark {
+
+    @Param({"ADMIN", "CHIEF_EDITOR", "ACCOUNTANT"})
+    public Persona persona;
+
+    private EmployeeService employeeService;
+    private Formula filter;
+
+    @Setup(Level.Trial)
+    public void setUp(AbacDemoEnvironment environment) {
+
+        environment.setPersona(persona);
+
+        employeeService = environment.getBean(EmployeeService.class);
+        filter = environment.getResources().readFormula("/formula/filter/salaryAndBranchFilter.json");
+    }
+
+    @Benchmark
+    public List<Employee> fetchAll() {
+
+        return employeeService.fetchAll();
+    }
+
+    @Benchmark
+    public List<Employee> fetchAllByFilter() {
+
+        return employeeService.fetchAllByFilter(filter);
+    }
+}
@@ -0,0 +1,112 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.demo.condition.FilterConditionCache;
+import com.soarse.abac.demo.formula.FormulaParser;
+import com.soarse.formula.Formula;
+import com.soarse.formula.service.FiltrationFormulaService;
+import lombok.SneakyThrows;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the translation of client filters into jOOQ conditions without executing the queries.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate next to the throughput.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FiltrationFormulaBenchmark {
+
+    @Param({"/formula/filter/themeAndStatusFilter.json", "/formula/filter/userBranchAndPublicationDateFilter.json"})
+    public String filterPath;
+
+    private DSLContext dsl;
+    private ObjectMapper mapper;
+    private FiltrationFormulaService filtrationFormulaService;
+    private FilterConditionCache filterConditionCache;
+    private FormulaParser formulaParser;
+
+    private String filterJson;
+    private Formula filter;
+
+    @Setup(Level.Trial)
+    public void setUp(AbacDemoEnvironment environment) {
+
+        // Filters depend on the attributes of the admin
+        environment.setPersona(Persona.ADMIN);
+
+        dsl = environment.getBean(DSLContext.class);
+        mapper = environment.getBean(ObjectMapper.class);
+        filtrationFormulaService = environment.getBean(FiltrationFormulaService.class);
+        filterConditionCache = environment.getBean(FilterConditionCache.class);
+        formulaParser = environment.getBean(FormulaParser.class);
+
+        filterJson = environment.getResources().readDocument(filterPath);
+        filter = environment.getResources().readFormula(filterPath);
+    }
+
+    /**
+     * Translation of an already parsed filter into a condition.
+     */
+    @Benchmark
+    public Condition toCondition() {
+
+        return filtrationFormulaService.toCondition(filter);
+    }
+
+    /**
+     * Translation of a filter into the SQL text, as it happens before each query.
+     */
+    @Benchmark
+    public String toSql() {
+
+        return dsl.render(filtrationFormulaService.toCondition(filter));
+    }
+
+    /**
+     * Parsing of a filter received from the client followed by its translation into a condition.
+     */
+    @Benchmark
+    @SneakyThrows
+    public Condition parseAndToCondition() {
+
+        return filtrationFormulaService.toCondition(mapper.readValue(filterJson, Formula.class));
+    }
+
+    /**
+     * Lookup of an already translated filter in the cache, as it happens in the services.
+     */
+    @Benchmark
+    public Condition cachedToCondition() {
+
+        return filterConditionCache.toCondition(filter);
+    }
+
+    /**
+     * Parsing of a popular filter received from the client through the parsed formula cache, followed by the cached translation.
+     */
+    @Benchmark
+    public Condition cachedParseAndToCondition() {
+
+        return filterConditionCache.toCondition(formulaParser.parse(filterJson));
+    }
+}
@@ -0,0 +1,89 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static com.soarse.abac.model.action.ActionEffect.WRITE;
+
+/**
+ * Users of the Logos Media Holding together with the policies the integration tests grant them.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Persona {
+
+    ADMIN("/user/admin.json", "NY", "00000000-0000-0000-0000-000000000001", "Economics") {
+        @Override
+        void grantPolicies(BenchmarkPolicySource source, BenchmarkResources resources) {
+
+            source.setUniversalPolicies(resources.readPolicies(
+                    "/policy/universal/adminActionPolicy.json",
+                    "/policy/universal/adminDataPolicy.json"));
+        }
+    },
+
+    CHIEF_EDITOR("/user/chiefeditor.json", "LA", "00000000-0000-0000-0000-000000000004", "Economics") {
+        @Override
+        void grantPolicies(BenchmarkPolicySource source, BenchmarkResources resources) {
+
+            source.setEntityPolicies(READ, EMPLOYEE_TABLE_ID, resources.readPolicies("/policy/employee/editorEmployeeReadPolicy.json"));
+            source.setEntityPolicies(WRITE, EMPLOYEE_TABLE_ID, resources.readPolicies("/policy/employee/editorEmployeeWritePolicy.json"));
+            source.setEntityPolicies(READ, PUBLICATION_TABLE_ID, resources.readPolicies("/policy/publication/editorPublicationReadPolicy.json"));
+            source.setEntityPolicies(WRITE, PUBLICATION_TABLE_ID, resources.readPolicies("/policy/publication/editorPublicationWritePolicy.json"));
+        }
+    },
+
+    ACCOUNTANT("/user/accountant.json", "NY", "00000000-0000-0000-0000-000000000002", "Taxes") {
+        @Override
+        void grantPolicies(BenchmarkPolicySource source, BenchmarkResources resources) {
+
+            source.setEntityPolicies(READ, EMPLOYEE_TABLE_ID, resources.readPolicies("/policy/employee/accountantEmployeeReadPolicy.json"));
+        }
+    },
+
+    JOURNALIST("/user/journalist.json", "NY", "00000000-0000-0000-0000-000000000003", "Education") {
+        @Override
+        void grantPolicies(BenchmarkPolicySource source, BenchmarkResources resources) {
+
+            source.setEntityPolicies(READ, PUBLICATION_TABLE_ID, resources.readPolicies("/policy/publication/journalistPublicationReadPolicy.json"));
+            source.setEntityPolicies(WRITE, PUBLICATION_TABLE_ID, resources.readPolicies("/policy/publication/journalistPublicationWritePolicy.json"));
+        }
+    };
+
+    public static final TableEntityId EMPLOYEE_TABLE_ID = new TableEntityId("abac-demo", "abac_demo", "employee");
+    public static final TableEntityId PUBLICATION_TABLE_ID = new TableEntityId("abac-demo", "abac_demo", "publication");
+
+    /**
+     * Path to the user attributes
+     */
+    private final String userPath;
+
+    /**
+     * Branch the persona works in
+     */
+    private final String branch;
+
+    /**
+     * Employee ID of the persona
+     */
+    private final String employeeId;
+
+    /**
+     * Theme the persona is allowed to write about
+     */
+    private final String theme;
+
+    public UUID getId() {
+
+        return UUID.fromString(employeeId);
+    }
+
+    /**
+     * Registers the policies granted to the persona in the integration tests.
+     */
+    abstract void grantPolicies(BenchmarkPolicySource source, BenchmarkResources resources);
+}
@@ -0,0 +1,101 @@
+package com.soarse.abac.demo.benchmark;
+
+import com.soarse.abac.demo.model.Publication;
+import com.soarse.abac.demo.service.PublicationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency percentiles of the publication permission points for each persona allowed to work with publications.
+ * <p>
+ * Write benchmarks are rolled back, so the table keeps its size during the measurement.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PublicationServiceBenchmark {
+
+    private static final LocalDate FIRST_PUBLICATION_DATE = LocalDate.of(2200, 1, 1);
+
+    @Param({"ADMIN", "CHIEF_EDITOR", "JOURNALIST"})
+    public Persona persona;
+
+    private AbacDemoEnvironment environment;
+    private PublicationService publicationService;
+
+    private List<UUID> visibleIds;
+    private UUID targetId;
+    private Publication draft;
+    private final AtomicInteger dayOffset = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp(AbacDemoEnvironment environment) {
+
+        this.environment = environment;
+
+        environment.setPersona(persona);
+
+        publicationService = environment.getBean(PublicationService.class);
+
+        // A publication, which the persona is allowed to modify
+        draft = Publication.builder()
+                .branch(persona.getBranch())
+                .theme(persona.getTheme())
+                .authorId(persona.getId())
+                .status("In progress")
+                .title("Benchmark publication")
+                .build();
+
+        targetId = publicationService.create(draft).getId();
+
+        visibleIds = publicationService.fetchAll().stream()
+                .map(Publication::getId)
+                .toList();
+    }
+
+    @Benchmark
+    public Publication fetchOne() {
+
+        return publicationService.fetchOne(visibleIds.get(ThreadLocalRandom.current().nextInt(visibleIds.size())));
+    }
+
+    @Benchmark
+    public Publication create() {
+
+        return environment.rollingBack(() -> publicationService.create(draft));
+    }
+
+    @Benchmark
+    public Publication update() {
+
+        return environment.rollingBack(() -> publicationService.update(targetId, draft));
+    }
+
+    @Benchmark
+    public Publication setPublicationDate() {
+
+        var publicationDate = FIRST_PUBLICATION_DATE.plusDays(dayOffset.incrementAndGet() % 100_000);
+
+        return environment.rollingBack(() -> publicationService.setPublicationDate(targetId, publicationDate));
+    }
+}
@@ -0,0 +1,15 @@
+package com.soarse.abac.demo.aggregate;
+
+import org.jooq.Table;
+import org.jooq.TableField;
+
+/**
+ * Aggregate of a table column, which the database keeps up to date in a single-row aggregate table.
+ *
+ * @param table          Aggregated table
+ * @param field          Aggregated column or {@code null}, if the rows are counted regardless of the column
+ * @param operation      Formula function, whose result over all values of the column the aggregate holds, e.g. {@code SUM}
+ * @param aggregateField Column of the aggregate table, which holds the result
+ */
+public record MaintainedAggregate(Table<?> table, TableField<?, ?> field, String operation, TableField<?, ?> aggregateField) {
+}
@@ -0,0 +1,110 @@
+package com.soarse.abac.demo.aggregate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.policy.PolicyRewriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+import static com.soarse.abac.demo.aggregate.MaintainedAggregates.ALL;
+
+/**
+ * Replaces the aggregates over whole tables in the policies with the maintained aggregates.
+ * <p>
+ * A rule like {@code SUM(FETCH_ALL(employee, salary)) <= 1200000} reads every row of the table on each check.
+ * The rewritten rule {@code SUM(FETCH_ALL(employee_aggregate, salary_sum)) <= 1200000} reads a single row,
+ * which the database updates in the same transaction as the table.
+ * The counted rows {@code SIZE(FETCH_ALL(...))} become a sum of the maintained row count.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "abac-demo.maintained-aggregates.enabled", matchIfMissing = true)
+public class MaintainedAggregateRewriter implements PolicyRewriter {
+
+    private static final String FETCH_ALL = "FETCH_ALL";
+    private static final String SUM = "SUM";
+
+    @Override
+    public JsonNode rewrite(JsonNode policy) {
+
+        if (!containsFetchAll(policy)) {
+            return policy;
+        }
+
+        var rewritten = policy.deepCopy();
+        rewriteNode(rewritten);
+
+        return rewritten.equals(policy) ? policy : rewritten;
+    }
+
+    private void rewriteNode(JsonNode node) {
+
+        if (node.isObject()) {
+            findAggregate(node).ifPresent(aggregate -> replace((ObjectNode) node, aggregate));
+        }
+
+        node.forEach(this::rewriteNode);
+    }
+
+    /**
+     * Finds the maintained aggregate equal to the function node, i.e. an aggregate function over all values of a column.
+     */
+    private Optional<MaintainedAggregate> findAggregate(JsonNode node) {
+
+        var operands = node.path("operands");
+
+        if (!"FUNCTION".equals(node.path("category").asText()) || operands.size() != 1) {
+            return Optional.empty();
+        }
+
+        var fetchAll = operands.get(0);
+        var fetchAllOperands = fetchAll.path("operands");
+
+        if (!FETCH_ALL.equals(fetchAll.path("operation").asText()) || fetchAllOperands.size() != 2) {
+            return Optional.empty();
+        }
+
+        var dataset = fetchAllOperands.get(0).path("id");
+        var field = fetchAllOperands.get(1).path("field");
+
+        return ALL.stream()
+                .filter(aggregate -> aggregate.operation().equals(node.path("operation").asText()))
+                .filter(aggregate -> aggregate.table().getSchema().getName().equals(dataset.path("schema").asText())
+                        && aggregate.table().getName().equals(dataset.path("table").asText()))
+                .filter(aggregate -> aggregate.field() == null || aggregate.field().getName().equals(field.path("field").asText()))
+                .findFirst();
+    }
+
+    private void replace(ObjectNode function, MaintainedAggregate aggregate) {
+
+        var aggregateTable = aggregate.aggregateField().getTable();
+
+        log.debug("Replacing {}(FETCH_ALL({}.{})) with the maintained aggregate {}",
+                aggregate.operation(), aggregate.table().getName(), aggregate.field(), aggregate.aggregateField());
+
+        var fetchAll = (ObjectNode) function.path("operands").get(0);
+        var fetchAllOperands = (ArrayNode) fetchAll.path("operands");
+
+        ((ObjectNode) fetchAllOperands.get(0).path("id")).put("table", aggregateTable.getName());
+
+        var attribute = (ObjectNode) fetchAllOperands.get(1);
+        attribute.put("type", "INTEGER");
+        ((ObjectNode) attribute.path("field"))
+                .put("table", aggregateTable.getName())
+                .put("field", aggregate.aggregateField().getName());
+
+        fetchAll.put("type", "INTEGER");
+
+        // The single row of the aggregate table holds the result, the sum of a single value is the value itself
+        function.put("operation", SUM);
+    }
+
+    private boolean containsFetchAll(JsonNode policy) {
+
+        return policy.toString().contains(FETCH_ALL);
+    }
+}
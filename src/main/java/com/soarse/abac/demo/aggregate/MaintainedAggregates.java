@@ -0,0 +1,27 @@
+package com.soarse.abac.demo.aggregate;
+
+import java.util.List;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE_AGGREGATE;
+
+/**
+ * Aggregates maintained by the triggers of the database migrations.
+ */
+public final class MaintainedAggregates {
+
+    /**
+     * Total salary of all employees
+     */
+    public static final MaintainedAggregate EMPLOYEE_SALARY_SUM = new MaintainedAggregate(EMPLOYEE, EMPLOYEE.SALARY, "SUM", EMPLOYEE_AGGREGATE.SALARY_SUM);
+
+    /**
+     * Number of all employees
+     */
+    public static final MaintainedAggregate EMPLOYEE_COUNT = new MaintainedAggregate(EMPLOYEE, null, "SIZE", EMPLOYEE_AGGREGATE.ROW_COUNT);
+
+    public static final List<MaintainedAggregate> ALL = List.of(EMPLOYEE_SALARY_SUM, EMPLOYEE_COUNT);
+
+    private MaintainedAggregates() {
+    }
+}
@@ -0,0 +1,280 @@
+package com.soarse.abac.demo.batch;
+
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.model.BatchMode;
+import com.soarse.abac.demo.model.BatchResult;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.RowN;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.jooq.TableRecord;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static com.soarse.abac.demo.model.BatchMode.ALL_OR_NOTHING;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.val;
+import static org.jooq.impl.DSL.values;
+
+/**
+ * Modifies many rows with multi-row statements and checks the write filters once for the whole batch.
+ * <p>
+ * The write filters are evaluated against the state of the table after the modification, so the rules over the
+ * whole table, e.g. the payroll limit, see all rows of the batch at once. Rejected rows are reverted and the rest
+ * is checked again, until no more rows are rejected. Only the columns given by the service are written, so
+ * a column with its own permission point, e.g. the publication date, cannot be changed by a batch.
+ * Must be called within a transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchWriter {
+
+    private static final String SOURCE = "source";
+
+    private final DSLContext dsl;
+    private final AbacDemoProperties properties;
+    private final ApplicablePolicyService applicablePolicyService;
+
+    /**
+     * Inserts the records, whose IDs must already be set.
+     *
+     * @param table         Table
+     * @param idField       Unique ID of a row
+     * @param fields        Columns written besides the ID, the other columns get their defaults
+     * @param records       Records of the new rows
+     * @param abacCondition Condition of the rows, which the user is allowed to write
+     * @param mode          Handling of the rejected rows
+     * @param pointId       Permission point ID, e.g. {@code EmployeeService.createAll}
+     */
+    public <R extends TableRecord<R>> BatchResult<R> createAll(Table<R> table, TableField<R, UUID> idField, List<TableField<R, ?>> fields,
+                                                                List<R> records, Condition abacCondition, BatchMode mode, String pointId) {
+
+        var byId = index(records, idField);
+        var columns = columns(idField, fields);
+
+        chunks(records).forEach(chunk -> insert(table, columns, chunk));
+
+        var rejected = rejectUntilStable(table, idField, byId.keySet(), abacCondition, mode, "Creation", pointId,
+                ids -> chunks(List.copyOf(ids)).forEach(chunk -> dsl.deleteFrom(table).where(idField.in(chunk)).execute()));
+
+        return toResult(byId, rejected);
+    }
+
+    /**
+     * Updates the rows with the IDs of the records to the values of the records.
+     * The user must be allowed to write the rows both before and after the update.
+     *
+     * @param table         Table
+     * @param idField       Unique ID of a row
+     * @param fields        Columns written besides the ID, the other columns keep their values
+     * @param records       Records with the new values of the rows
+     * @param abacCondition Condition of the rows, which the user is allowed to write
+     * @param mode          Handling of the rejected rows
+     * @param pointId       Permission point ID, e.g. {@code EmployeeService.updateAll}
+     */
+    public <R extends TableRecord<R>> BatchResult<R> updateAll(Table<R> table, TableField<R, UUID> idField, List<TableField<R, ?>> fields,
+                                                                List<R> records, Condition abacCondition, BatchMode mode, String pointId) {
+
+        var byId = index(records, idField);
+        var columns = columns(idField, fields);
+
+        // Keep the current values to revert the rejected rows
+        var previousRecords = new HashMap<UUID, R>();
+        chunks(List.copyOf(byId.keySet())).forEach(chunk ->
+                dsl.selectFrom(table).where(idField.in(chunk)).fetch().forEach(record -> previousRecords.put(record.get(idField), record)));
+
+        // Rows, which do not exist or are not writable by the user, are rejected before the update
+        var rejected = reject(table, idField, byId.keySet(), abacCondition, mode, "Update", pointId);
+
+        var updated = new ArrayList<R>();
+        byId.forEach((id, record) -> {
+            if (!rejected.contains(id)) {
+                updated.add(record);
+            }
+        });
+
+        chunks(updated).forEach(chunk -> update(table, idField, columns, chunk));
+
+        rejected.addAll(rejectUntilStable(table, idField, index(updated, idField).keySet(), abacCondition, mode, "Update", pointId,
+                ids -> chunks(ids.stream().map(previousRecords::get).toList()).forEach(chunk -> update(table, idField, columns, chunk))));
+
+        return toResult(byId, rejected);
+    }
+
+    /**
+     * Deletes the rows with the IDs. The user must be allowed to write the rows before the deletion.
+     *
+     * @param table         Table
+     * @param idField       Unique ID of a row
+     * @param ids           IDs of the deleted rows
+     * @param abacCondition Condition of the rows, which the user is allowed to write
+     * @param mode          Handling of the rejected rows
+     * @param pointId       Permission point ID, e.g. {@code EmployeeService.deleteAll}
+     */
+    public <R extends TableRecord<R>> BatchResult<UUID> deleteAll(Table<R> table, TableField<R, UUID> idField, Collection<UUID> ids,
+                                                                   Condition abacCondition, BatchMode mode, String pointId) {
+
+        var rejected = reject(table, idField, new HashSet<>(ids), abacCondition, mode, "Deletion", pointId);
+
+        var deleted = ids.stream()
+                .distinct()
+                .filter(id -> !rejected.contains(id))
+                .toList();
+
+        chunks(deleted).forEach(chunk -> dsl.deleteFrom(table).where(idField.in(chunk)).execute());
+
+        return new BatchResult<>(deleted, List.copyOf(rejected));
+    }
+
+    /**
+     * Checks the rows repeatedly and reverts the rejected ones, since reverting a row may affect the rules over the whole table.
+     *
+     * @return IDs of the rejected rows
+     */
+    private Set<UUID> rejectUntilStable(Table<?> table, TableField<?, UUID> idField, Set<UUID> ids, Condition abacCondition,
+                                        BatchMode mode, String operation, String pointId, Consumer<Set<UUID>> revert) {
+
+        var remaining = new HashSet<>(ids);
+        var rejected = new HashSet<UUID>();
+
+        while (!remaining.isEmpty()) {
+            var newlyRejected = reject(table, idField, remaining, abacCondition, mode, operation, pointId);
+
+            if (newlyRejected.isEmpty()) {
+                break;
+            }
+
+            revert.accept(newlyRejected);
+            remaining.removeAll(newlyRejected);
+            rejected.addAll(newlyRejected);
+        }
+
+        return rejected;
+    }
+
+    /**
+     * Returns the IDs of the rows, which do not meet the condition, or throws an exception, if the whole batch must be rejected.
+     */
+    private Set<UUID> reject(Table<?> table, TableField<?, UUID> idField, Set<UUID> ids, Condition abacCondition,
+                             BatchMode mode, String operation, String pointId) {
+
+        var rejected = new HashSet<>(ids);
+
+        chunks(List.copyOf(ids)).forEach(chunk -> rejected.removeAll(dsl.select(idField)
+                .from(table)
+                .where(idField.in(chunk), abacCondition)
+                .fetch(idField)));
+
+        if (!rejected.isEmpty()) {
+            log.debug("{} of {} rows of {} is forbidden: {}", operation, rejected.size(), table.getName(), rejected);
+
+            if (mode == ALL_OR_NOTHING) {
+                throw new AccessDeniedException("%s of the records %s by action %s is forbidden in current context."
+                        .formatted(operation, rejected, applicablePolicyService.toActionId(pointId)));
+            }
+        }
+
+        return rejected;
+    }
+
+    private <R extends TableRecord<R>> void insert(Table<R> table, List<TableField<R, ?>> columns, List<R> records) {
+
+        var insert = dsl.insertInto(table, columns);
+
+        for (var record : records) {
+            insert = insert.values(columns.stream().map(record::get).toList());
+        }
+
+        insert.execute();
+    }
+
+    /**
+     * Updates all rows of the chunk with a single statement, which joins the table with the list of the new values.
+     */
+    private <R extends TableRecord<R>> void update(Table<R> table, TableField<R, UUID> idField, List<TableField<R, ?>> columns, List<R> records) {
+
+        var rows = records.stream()
+                .map(record -> row(columns.stream().map(field -> val(record.get(field), field)).toArray(Field[]::new)))
+                .toArray(RowN[]::new);
+
+        var source = values(rows).as(SOURCE, columns.stream().map(Field::getName).toArray(String[]::new));
+
+        var assignments = new LinkedHashMap<Field<?>, Field<?>>();
+
+        for (var field : columns) {
+            if (!field.equals(idField)) {
+                assignments.put(field, source.field(field.getName()).cast(field.getDataType()));
+            }
+        }
+
+        dsl.update(table)
+                .set(assignments)
+                .from(source)
+                .where(idField.eq(source.field(idField.getName()).cast(idField.getDataType())))
+                .execute();
+    }
+
+    /**
+     * Returns the ID followed by the other written columns.
+     */
+    private <R extends TableRecord<R>> List<TableField<R, ?>> columns(TableField<R, UUID> idField, List<TableField<R, ?>> fields) {
+
+        var columns = new ArrayList<TableField<R, ?>>();
+        columns.add(idField);
+        fields.stream().filter(field -> !field.equals(idField)).forEach(columns::add);
+
+        return columns;
+    }
+
+    private <R extends TableRecord<R>> BatchResult<R> toResult(Map<UUID, R> byId, Set<UUID> rejected) {
+
+        var accepted = new ArrayList<R>();
+        var rejectedRecords = new ArrayList<R>();
+
+        byId.forEach((id, record) -> (rejected.contains(id) ? rejectedRecords : accepted).add(record));
+
+        return new BatchResult<>(accepted, rejectedRecords);
+    }
+
+    private <R extends TableRecord<R>> Map<UUID, R> index(List<R> records, TableField<R, UUID> idField) {
+
+        var byId = new LinkedHashMap<UUID, R>();
+
+        for (var record : records) {
+            if (byId.put(record.get(idField), record) != null) {
+                throw new IllegalArgumentException("The batch contains the ID %s more than once".formatted(record.get(idField)));
+            }
+        }
+
+        return byId;
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+
+        var chunkSize = properties.getBatch().getChunkSize();
+        var chunks = new ArrayList<List<T>>();
+
+        for (var from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+
+        return chunks;
+    }
+}
@@ -0,0 +1,80 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.demo.user.UserAttributes;
+import org.jooq.tools.Convert;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Formula compiled by {@link FormulaCompiler}, which is safe to evaluate concurrently.
+ * <p>
+ * A failure of the evaluation, e.g. a division by zero or an operand of an unexpected type, is reported as
+ * {@link UnsupportedOperationException}, so the caller computes the formula by the library, as if it was not compiled.
+ */
+public class CompiledFormula {
+
+    private final FormulaCompiler.Value root;
+
+    CompiledFormula(FormulaCompiler.Value root) {
+
+        this.root = root;
+    }
+
+    /**
+     * Computes the value of the formula.
+     *
+     * @param userAttributes Attributes of the current user
+     * @param scope          Document the scope attributes refer to
+     * @param type           Type of the value
+     */
+    public <T> T computeValue(UserAttributes userAttributes, JsonNode scope, Class<T> type) {
+
+        return Convert.convert(evaluate(new EvaluationContext(userAttributes, scope)), type);
+    }
+
+    /**
+     * Computes the elements of the formula of a tuple.
+     */
+    public <T> List<T> computeArray(UserAttributes userAttributes, JsonNode scope, Class<T> type) {
+
+        var value = evaluate(new EvaluationContext(userAttributes, scope));
+
+        if (!(value instanceof Collection<?> elements)) {
+            throw new UnsupportedOperationException("Formula is not a tuple");
+        }
+
+        return elements.stream()
+                .map(element -> Convert.convert(element, type))
+                .toList();
+    }
+
+    /**
+     * Evaluates the formula of a predicate.
+     */
+    public boolean test(UserAttributes userAttributes, JsonNode scope) {
+
+        var context = new EvaluationContext(userAttributes, scope);
+
+        try {
+            return root instanceof FormulaCompiler.BooleanValue predicate ? predicate.test(context) : Boolean.TRUE.equals(root.evaluate(context));
+        } catch (ArithmeticException | ClassCastException | NullPointerException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private Object evaluate(EvaluationContext context) {
+
+        try {
+            return root.evaluate(context);
+        } catch (ArithmeticException | ClassCastException | NullPointerException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static UnsupportedOperationException unsupported(RuntimeException e) {
+
+        return new UnsupportedOperationException("Formula cannot be computed by the compiler: %s".formatted(e), e);
+    }
+}
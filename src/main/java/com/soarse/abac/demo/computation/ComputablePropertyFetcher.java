@@ -0,0 +1,134 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.formula.BulkComputableFieldInjector;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.projection.Projection;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.jooq.TableRecord;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.soarse.abac.demo.projection.ProjectionResolver.toColumnName;
+
+/**
+ * Fetches the rows of a table together with their computable properties.
+ * <p>
+ * The properties are selected as SQL expressions of the same query, so the rows and the properties are read
+ * in one round trip. Functions of datasets correlated with the row are joined to the rows as groups.
+ * Properties, which cannot be translated into SQL, are computed in memory after the query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ComputablePropertyFetcher {
+
+    private final DSLContext dsl;
+    private final ObjectMapper mapper;
+    private final FormulaDocuments formulaDocuments;
+    private final FormulaSqlTranslator formulaSqlTranslator;
+    private final BulkComputableFieldInjector bulkComputableFieldInjector;
+
+    /**
+     * Returns the documents of the rows meeting the condition with the computable properties added.
+     *
+     * @param table      Table of the rows
+     * @param condition  Condition of the rows including the ABAC filtration
+     * @param projection Columns visible to the user
+     * @param type       Type of the entity, whose document is returned
+     * @param properties Formulas of the computable properties by the property names
+     */
+    public <R extends TableRecord<R>> List<ObjectNode> fetch(Table<R> table,
+                                                             Condition condition,
+                                                             Projection projection,
+                                                             Class<?> type,
+                                                             Map<String, Formula> properties) {
+
+        // The hidden columns are selected as nulls, so they are not read
+        var selectedFields = new ArrayList<Field<?>>(projection.select(table));
+        var computedFields = new LinkedHashMap<String, Field<?>>();
+        var inMemoryProperties = new LinkedHashMap<String, Formula>();
+        var translation = formulaSqlTranslator.translateRows(table);
+
+        properties.forEach((name, formula) -> {
+            var document = formulaDocuments.toDocument(formula);
+
+            // A property of a hidden column would disclose its values
+            for (var column : rowColumns(document)) {
+                var field = table.field(column);
+
+                if (field != null && !projection.isVisible(field)) {
+                    throw new AccessDeniedException("Computing the property %s is forbidden in current context.".formatted(name));
+                }
+            }
+
+            try {
+                // Properties get their own aliases, so they cannot clash with the columns
+                var field = translation.add(document).as("computed_%d".formatted(computedFields.size()));
+                computedFields.put(name, field);
+                selectedFields.add(field);
+            } catch (UnsupportedOperationException e) {
+                log.debug("Property {} is computed in memory: {}", name, e.getMessage());
+                inMemoryProperties.put(name, formula);
+            }
+        });
+
+        var documents = dsl.select(selectedFields)
+                .from(translation.from())
+                .where(condition)
+                .fetch(record -> {
+                    var document = mapper.<ObjectNode>valueToTree(record.into(table).into(type));
+                    computedFields.forEach((name, field) -> document.set(name, mapper.valueToTree(record.get(field))));
+                    return document;
+                });
+
+        bulkComputableFieldInjector.injectComputableFields(documents, inMemoryProperties);
+
+        return documents;
+    }
+
+    /**
+     * Returns the columns of the queried row, which the formula refers to.
+     */
+    private Set<String> rowColumns(JsonNode formula) {
+
+        var columns = new HashSet<String>();
+        collectRowColumns(formula, false, columns);
+
+        return columns;
+    }
+
+    private void collectRowColumns(JsonNode node, boolean isFetched, Set<String> columns) {
+
+        if (node.isObject()) {
+            var category = node.path("category").asText();
+
+            if ("SCOPE_ATTRIBUTE".equals(category)) {
+                columns.add(toColumnName(node.path("path").asText()));
+            } else if ("ENTITY_ATTRIBUTE".equals(category) && !isFetched && !node.has("collection")) {
+                columns.add(node.path("field").path("field").asText());
+            }
+
+            isFetched |= "FETCH_ALL".equals(node.path("operation").asText());
+        }
+
+        for (var child : node) {
+            collectRowColumns(child, isFetched, columns);
+        }
+    }
+}
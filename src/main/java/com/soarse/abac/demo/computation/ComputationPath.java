@@ -0,0 +1,32 @@
+package com.soarse.abac.demo.computation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Way a formula has been computed.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ComputationPath {
+
+    /**
+     * The formula has been translated into a query and computed by the database
+     */
+    SQL("sql"),
+
+    /**
+     * The formula has been compiled and computed in memory
+     */
+    COMPILED("compiled"),
+
+    /**
+     * The formula has been computed in memory by the library
+     */
+    MEMORY("memory");
+
+    /**
+     * Value of the tag of the computation counter
+     */
+    private final String tag;
+}
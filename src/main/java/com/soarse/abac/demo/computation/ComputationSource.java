@@ -0,0 +1,32 @@
+package com.soarse.abac.demo.computation;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Caller of a formula computation.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ComputationSource {
+
+    /**
+     * A formula supplied by a client
+     */
+    CLIENT("client"),
+
+    /**
+     * A target rule or a permission of a policy
+     */
+    POLICY_RULE("policy-rule"),
+
+    /**
+     * An aggregate of a computable property, shared by the documents with the same scope attributes
+     */
+    COMPUTABLE_PROPERTY("computable-property");
+
+    /**
+     * Value of the tag of the computation counter
+     */
+    private final String tag;
+}
@@ -0,0 +1,13 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.demo.user.UserAttributes;
+
+/**
+ * Inputs of a compiled formula.
+ *
+ * @param userAttributes Attributes of the current user
+ * @param scope          Document the scope attributes refer to
+ */
+record EvaluationContext(UserAttributes userAttributes, JsonNode scope) {
+}
@@ -0,0 +1,443 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.formula.Formula;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Compiles formulas computed in memory into trees of closures.
+ * <p>
+ * Literals are parsed and attribute paths are resolved once at compile time. Integer literals, sizes and their
+ * arithmetic are evaluated on primitive {@code long} values and predicates on {@code boolean} values. Integer
+ * attributes are compared as {@code long} values too, other numbers as {@link BigDecimal}.
+ * Each node is a lambda capturing its compiled operands, so no node category is dispatched during the evaluation.
+ * Formulas reading datasets or entity attributes are not compiled, they are left to the library.
+ */
+@Component
+public class FormulaCompiler {
+
+    private static final MathContext DIVISION_CONTEXT = MathContext.DECIMAL128;
+
+    private final FormulaDocuments formulaDocuments;
+
+    /**
+     * Compiled formulas or empty, if the formula cannot be compiled, by the formula document
+     */
+    private final Cache<JsonNode, Optional<CompiledFormula>> compiledFormulas;
+
+    public FormulaCompiler(FormulaDocuments formulaDocuments,
+                           AbacDemoProperties properties,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var settings = properties.getCompiledFormulaCache();
+
+        this.formulaDocuments = formulaDocuments;
+
+        this.compiledFormulas = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, compiledFormulas, "abac.compiled-formulas"));
+    }
+
+    /**
+     * Returns the compiled formula or empty, if the formula contains operations not supported by the compiler.
+     */
+    public Optional<CompiledFormula> compile(Formula formula) {
+
+        return compile(formulaDocuments.toDocument(formula));
+    }
+
+    public Optional<CompiledFormula> compile(JsonNode document) {
+
+        return compiledFormulas.get(document, key -> {
+            try {
+                return Optional.of(new CompiledFormula(value(key)));
+            } catch (UnsupportedOperationException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    private Value value(JsonNode node) {
+
+        var type = node.path("type").asText();
+
+        return switch (node.path("category").asText()) {
+            case "LITERAL" -> literal(node, type);
+            case "USER_ATTRIBUTE" -> attribute(node, type, true);
+            case "SCOPE_ATTRIBUTE" -> attribute(node, type, false);
+            case "ARRAY" -> array(node, type);
+            case "PREDICATE" -> predicate(node);
+            case "FUNCTION" -> function(node, type);
+            default -> throw unsupported(node);
+        };
+    }
+
+    private Value literal(JsonNode node, String type) {
+
+        // The literal is parsed once, e.g. the string "1200000" of an INTEGER literal
+        var value = toValue(node.path("value"), type);
+
+        if (value instanceof Long number) {
+            long primitive = number;
+            return (LongValue) context -> primitive;
+        }
+
+        if (value instanceof Boolean bool) {
+            boolean primitive = bool;
+            return (BooleanValue) context -> primitive;
+        }
+
+        return context -> value;
+    }
+
+    private Value attribute(JsonNode node, String type, boolean isUserAttribute) {
+
+        var path = node.path("path").asText();
+        var pointer = JsonPointer.compile("/" + path.replace('.', '/'));
+        var isTuple = "TUPLE".equals(node.path("rank").asText());
+
+        if (isUserAttribute) {
+            // The user attributes are converted once per user, see UserAttributes
+            var conversion = isTuple ? type + "[]" : type;
+            return context -> context.userAttributes().convert(path, conversion, attribute -> toValue(attribute, type, isTuple));
+        }
+
+        return context -> toValue(context.scope().at(pointer), type, isTuple);
+    }
+
+    private Object toValue(JsonNode attribute, String type, boolean isTuple) {
+
+        if (!isTuple) {
+            return toValue(attribute, type);
+        }
+
+        var values = new ArrayList<>(attribute.size());
+        attribute.forEach(element -> values.add(toValue(element, type)));
+
+        return Collections.unmodifiableList(values);
+    }
+
+    private Value array(JsonNode node, String type) {
+
+        var values = new ArrayList<>();
+        node.path("value").forEach(element -> values.add(toValue(element, type)));
+
+        // Constant arrays are only used as the right operand of IN, so they are compiled to sets
+        var set = new HashSet<>(values);
+
+        return context -> set;
+    }
+
+    private Value function(JsonNode node, String type) {
+
+        var operands = compileOperands(node);
+
+        return switch (node.path("operation").asText()) {
+            case "ADD", "SUBTRACT", "MULTIPLY" -> arithmetic(node.path("operation").asText(), operands.get(0), operands.get(1), type);
+            case "DIVIDE" -> {
+                var dividend = operands.get(0);
+                var divisor = operands.get(1);
+                var isInteger = "INTEGER".equals(type);
+                yield context -> {
+                    var left = toDecimal(dividend.evaluate(context));
+                    var right = toDecimal(divisor.evaluate(context));
+
+                    if (left == null || right == null) {
+                        return null;
+                    }
+
+                    // An integer quotient is rounded the same way as the cast of the database
+                    var quotient = left.divide(right, DIVISION_CONTEXT);
+
+                    return isInteger ? (Object) quotient.setScale(0, RoundingMode.HALF_UP).longValueExact() : quotient;
+                };
+            }
+            case "ROUND" -> {
+                var operand = operands.get(0);
+                yield context -> {
+                    var value = toDecimal(operand.evaluate(context));
+                    return value == null ? null : value.setScale(0, RoundingMode.HALF_UP).longValueExact();
+                };
+            }
+            case "SIZE" -> {
+                var operand = operands.get(0);
+                yield (LongValue) context -> ((Collection<?>) operand.evaluate(context)).size();
+            }
+            case "CURRENT_LOCAL_DATE" -> context -> LocalDate.now();
+            default -> throw unsupported(node);
+        };
+    }
+
+    private Value arithmetic(String operation, Value left, Value right, String type) {
+
+        // Integer arithmetic of primitive operands does not box
+        if ("INTEGER".equals(type) && left instanceof LongValue leftLong && right instanceof LongValue rightLong) {
+            return switch (operation) {
+                case "ADD" -> (LongValue) context -> Math.addExact(leftLong.evaluateLong(context), rightLong.evaluateLong(context));
+                case "SUBTRACT" -> (LongValue) context -> Math.subtractExact(leftLong.evaluateLong(context), rightLong.evaluateLong(context));
+                default -> (LongValue) context -> Math.multiplyExact(leftLong.evaluateLong(context), rightLong.evaluateLong(context));
+            };
+        }
+
+        return context -> {
+            var leftValue = toDecimal(left.evaluate(context));
+            var rightValue = toDecimal(right.evaluate(context));
+
+            if (leftValue == null || rightValue == null) {
+                return null;
+            }
+
+            var result = switch (operation) {
+                case "ADD" -> leftValue.add(rightValue);
+                case "SUBTRACT" -> leftValue.subtract(rightValue);
+                default -> leftValue.multiply(rightValue);
+            };
+
+            return "INTEGER".equals(type) ? (Object) result.longValueExact() : result;
+        };
+    }
+
+    private BooleanValue predicate(JsonNode node) {
+
+        var operands = compileOperands(node);
+
+        return switch (node.path("operation").asText()) {
+            case "AND" -> {
+                var conditions = toBooleanValues(operands);
+                yield context -> {
+                    for (var condition : conditions) {
+                        if (!condition.test(context)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            case "OR" -> {
+                var conditions = toBooleanValues(operands);
+                yield context -> {
+                    for (var condition : conditions) {
+                        if (condition.test(context)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case "NOT" -> {
+                var condition = toBooleanValue(operands.get(0));
+                yield context -> !condition.test(context);
+            }
+            case "EQ" -> {
+                var left = operands.get(0);
+                var right = operands.get(1);
+                yield context -> isEqual(left.evaluate(context), right.evaluate(context));
+            }
+            case "NE" -> {
+                var left = operands.get(0);
+                var right = operands.get(1);
+                yield context -> {
+                    var leftValue = left.evaluate(context);
+                    var rightValue = right.evaluate(context);
+                    return leftValue != null && rightValue != null && !isEqual(leftValue, rightValue);
+                };
+            }
+            case "LT", "LE", "GT", "GE" -> comparison(node.path("operation").asText(), operands.get(0), operands.get(1));
+            case "IN" -> {
+                var element = operands.get(0);
+                var tuple = operands.get(1);
+                yield context -> contains((Collection<?>) tuple.evaluate(context), element.evaluate(context));
+            }
+            default -> throw unsupported(node);
+        };
+    }
+
+    private BooleanValue comparison(String operation, Value left, Value right) {
+
+        if (left instanceof LongValue leftLong && right instanceof LongValue rightLong) {
+            return switch (operation) {
+                case "LT" -> context -> leftLong.evaluateLong(context) < rightLong.evaluateLong(context);
+                case "LE" -> context -> leftLong.evaluateLong(context) <= rightLong.evaluateLong(context);
+                case "GT" -> context -> leftLong.evaluateLong(context) > rightLong.evaluateLong(context);
+                default -> context -> leftLong.evaluateLong(context) >= rightLong.evaluateLong(context);
+            };
+        }
+
+        return context -> {
+            var order = compare(left.evaluate(context), right.evaluate(context));
+
+            if (order == null) {
+                return false;
+            }
+
+            return switch (operation) {
+                case "LT" -> order < 0;
+                case "LE" -> order <= 0;
+                case "GT" -> order > 0;
+                default -> order >= 0;
+            };
+        };
+    }
+
+    private List<Value> compileOperands(JsonNode node) {
+
+        var operands = new ArrayList<Value>();
+        node.path("operands").forEach(operand -> operands.add(value(operand)));
+
+        return operands;
+    }
+
+    private BooleanValue[] toBooleanValues(List<Value> values) {
+
+        return values.stream()
+                .map(this::toBooleanValue)
+                .toArray(BooleanValue[]::new);
+    }
+
+    private BooleanValue toBooleanValue(Value value) {
+
+        return value instanceof BooleanValue booleanValue ? booleanValue : context -> Boolean.TRUE.equals(value.evaluate(context));
+    }
+
+    private static boolean isEqual(Object left, Object right) {
+
+        if (left instanceof Long leftLong && right instanceof Long rightLong) {
+            return leftLong.longValue() == rightLong.longValue();
+        }
+
+        if (left instanceof Number && right instanceof Number) {
+            return toDecimal(left).compareTo(toDecimal(right)) == 0;
+        }
+
+        return left != null && left.equals(right);
+    }
+
+    private static boolean contains(Collection<?> tuple, Object element) {
+
+        if (tuple == null || element == null) {
+            return false;
+        }
+
+        if (!(element instanceof Number)) {
+            return tuple.contains(element);
+        }
+
+        return tuple.stream().anyMatch(candidate -> isEqual(element, candidate));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Integer compare(Object left, Object right) {
+
+        if (left == null || right == null) {
+            return null;
+        }
+
+        if (left instanceof Long leftLong && right instanceof Long rightLong) {
+            return Long.compare(leftLong, rightLong);
+        }
+
+        if (left instanceof Number && right instanceof Number) {
+            return toDecimal(left).compareTo(toDecimal(right));
+        }
+
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+
+        if (value instanceof Long || value instanceof Integer) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+
+        return new BigDecimal(Objects.toString(value));
+    }
+
+    private static Object toValue(JsonNode value, String type) {
+
+        if (value.isNull() || value.isMissingNode()) {
+            return null;
+        }
+
+        return switch (type) {
+            case "STRING" -> value.asText();
+            case "INTEGER" -> value.isNumber() ? value.longValue() : Long.parseLong(value.asText());
+            case "NUMBER" -> value.isNumber() ? value.decimalValue() : new BigDecimal(value.asText());
+            case "BOOLEAN" -> value.isBoolean() ? value.booleanValue() : Boolean.parseBoolean(value.asText());
+            case "DATE" -> LocalDate.parse(value.asText());
+            default -> throw new UnsupportedOperationException("Type %s is not supported by the compiler".formatted(type));
+        };
+    }
+
+    private static UnsupportedOperationException unsupported(JsonNode node) {
+
+        return new UnsupportedOperationException("Formula %s %s is not supported by the compiler".formatted(
+                node.path("category").asText(), node.path("operation").asText()));
+    }
+
+    /**
+     * Compiled node of a formula.
+     */
+    @FunctionalInterface
+    interface Value {
+
+        Object evaluate(EvaluationContext context);
+    }
+
+    /**
+     * Compiled node of an integer value, which is never {@code null}.
+     */
+    @FunctionalInterface
+    interface LongValue extends Value {
+
+        long evaluateLong(EvaluationContext context);
+
+        @Override
+        default Object evaluate(EvaluationContext context) {
+
+            return evaluateLong(context);
+        }
+    }
+
+    /**
+     * Compiled node of a predicate.
+     */
+    @FunctionalInterface
+    interface BooleanValue extends Value {
+
+        boolean test(EvaluationContext context);
+
+        @Override
+        default Object evaluate(EvaluationContext context) {
+
+            return test(context);
+        }
+    }
+}
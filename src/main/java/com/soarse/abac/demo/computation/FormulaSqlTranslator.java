@@ -0,0 +1,770 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.formula.context.source.UserAttributeSource;
+import lombok.RequiredArgsConstructor;
+import org.jooq.AggregateFunction;
+import org.jooq.Condition;
+import org.jooq.DataType;
+import org.jooq.Field;
+import org.jooq.Record1;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.soarse.abac.demo.generated.jooq.AbacDemo.ABAC_DEMO;
+import static com.soarse.abac.demo.projection.ProjectionResolver.toColumnName;
+import static org.jooq.impl.DSL.and;
+import static org.jooq.impl.DSL.any;
+import static org.jooq.impl.DSL.avg;
+import static org.jooq.impl.DSL.coalesce;
+import static org.jooq.impl.DSL.condition;
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.currentLocalDate;
+import static org.jooq.impl.DSL.exists;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.max;
+import static org.jooq.impl.DSL.min;
+import static org.jooq.impl.DSL.noCondition;
+import static org.jooq.impl.DSL.not;
+import static org.jooq.impl.DSL.or;
+import static org.jooq.impl.DSL.partitionBy;
+import static org.jooq.impl.DSL.round;
+import static org.jooq.impl.DSL.select;
+import static org.jooq.impl.DSL.selectOne;
+import static org.jooq.impl.DSL.sum;
+import static org.jooq.impl.DSL.val;
+import static org.jooq.impl.DSL.when;
+import static org.jooq.impl.SQLDataType.BIGINT;
+import static org.jooq.impl.SQLDataType.BOOLEAN;
+import static org.jooq.impl.SQLDataType.LOCALDATE;
+import static org.jooq.impl.SQLDataType.NUMERIC;
+import static org.jooq.impl.SQLDataType.VARCHAR;
+
+/**
+ * Translates computation formulas into SQL expressions evaluated for each row of a query.
+ * <p>
+ * Scope attributes refer to the columns of the queried row, so a computable property is selected together with
+ * the row it is computed for. Functions of a fetched dataset become scalar subqueries, which read the dataset
+ * without ABAC filtering, the same way as the in-memory computation does. User attributes are bound as values,
+ * and arrays are bound as a whole and compared by {@code = ANY(?)}, so the SQL text depends only on the structure
+ * of the formula and the server can reuse the plan of a prepared statement.
+ * Formulas with operations not supported here are rejected with {@link UnsupportedOperationException},
+ * so the caller can compute them in memory instead.
+ * <p>
+ * A function of a dataset correlated with the queried row only by equalities, e.g. the average salary of the
+ * employees of the row's branch, is decorrelated, since a correlated subquery is executed once per row.
+ * If the queried rows are the whole dataset, the function becomes a window function partitioned by the
+ * correlated expressions, otherwise it is computed once per group and the groups are joined to the rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class FormulaSqlTranslator {
+
+    private final UserAttributeSource userAttributeSource;
+
+    /**
+     * Starts the translation of the properties of the rows of a table.
+     *
+     * @param row Table of the queried rows, which the scope attributes refer to
+     */
+    public RowTranslation translateRows(Table<?> row) {
+
+        return new RowTranslation(row, userAttributeSource.getUserAttributes());
+    }
+
+    /**
+     * Translates a predicate on the rows of a table into a condition with all its values bound.
+     *
+     * @param row       Table of the filtered rows, which the entity attributes without a collection refer to
+     * @param predicate Formula document of the predicate, e.g. a filter of an ABAC policy
+     */
+    public Condition toCondition(Table<?> row, JsonNode predicate) {
+
+        var context = new Context(row, userAttributeSource.getUserAttributes(), 0);
+
+        // A condition cannot add joins to the query, so the functions of datasets stay correlated subqueries
+        context.row = null;
+
+        return context.predicate(predicate, new Scope(row, Map.of()));
+    }
+
+    /**
+     * Translates a predicate on the rows of a table into a condition, which reads the user attributes from a setting
+     * of the database session instead of binding their values, so the condition is the same for all users.
+     * <p>
+     * Datasets are not supported, since a row-level security policy of a table must not query the table itself.
+     *
+     * @param row       Table of the filtered rows, which the entity attributes without a collection refer to
+     * @param predicate Formula document of the predicate
+     * @param setting   Name of the setting holding the JSON document of the user attributes
+     */
+    public Condition toSessionCondition(Table<?> row, JsonNode predicate, String setting) {
+
+        var context = new Context(row, null, 0);
+        context.row = null;
+        context.sessionSetting = setting;
+
+        return context.predicate(predicate, new Scope(row, Map.of()));
+    }
+
+    /**
+     * Translates the formula of a scalar value, which does not depend on a queried row, into a query of the value.
+     *
+     * @param formula Formula document, e.g. {@code SUM(FETCH_ALL(...))}
+     */
+    public Select<? extends Record1<?>> toValueQuery(JsonNode formula) {
+
+        // Without a queried row the scope attributes are not supported, and the functions of datasets are not decorrelated
+        var context = new Context(null, userAttributeSource.getUserAttributes(), 0);
+
+        return select(context.value(formula, new Scope(null, Map.of())).cast(toDataType(formula.path("type").asText())));
+    }
+
+    /**
+     * Translates the formula of an array fetched from a dataset into the query of its elements.
+     *
+     * @param fetchAll Formula document of a {@code FETCH_ALL}
+     */
+    public Select<? extends Record1<?>> toArrayQuery(JsonNode fetchAll) {
+
+        if (!"FETCH_ALL".equals(fetchAll.path("operation").asText())) {
+            throw unsupported(fetchAll);
+        }
+
+        var context = new Context(null, userAttributeSource.getUserAttributes(), 0);
+        var dataset = context.open(fetchAll, new Scope(null, Map.of()));
+
+        // The fetched rows are the rows of the query, and without a predicate they are the whole dataset.
+        // There is no computation scope, so the scope attributes are not supported
+        context.row = dataset.table();
+        context.rowBase = dataset.base();
+        context.isWholeDataset = dataset.predicates().isEmpty();
+
+        var condition = context.condition(dataset);
+        var element = context.element(dataset).cast(toDataType(fetchAll.path("type").asText()));
+
+        return select(element).from(joined(dataset.table(), context.joins)).where(condition);
+    }
+
+    /**
+     * Translation of the properties selected for the rows of a table.
+     */
+    public static class RowTranslation {
+
+        private final Table<?> row;
+        private final ObjectNode userAttributes;
+        private final List<Join> joins = new ArrayList<>();
+        private int aliasCount;
+
+        private RowTranslation(Table<?> row, ObjectNode userAttributes) {
+
+            this.row = row;
+            this.userAttributes = userAttributes;
+        }
+
+        /**
+         * Translates the formula of a scalar property of the row.
+         */
+        public Field<?> add(JsonNode formula) {
+
+            var context = new Context(row, userAttributes, aliasCount);
+            var field = context.value(formula, new Scope(row, Map.of())).cast(toDataType(formula.path("type").asText()));
+
+            // The joins of a rejected formula are discarded together with its context
+            joins.addAll(context.joins);
+            aliasCount = context.aliasCount;
+
+            return field;
+        }
+
+        /**
+         * Returns the table of the rows joined with the groups of the decorrelated functions.
+         */
+        public Table<?> from() {
+
+            return joined(row, joins);
+        }
+    }
+
+    /**
+     * Translation state of a single formula.
+     */
+    private static class Context {
+
+        private final ObjectNode userAttributes;
+        private final List<Join> joins = new ArrayList<>();
+        private final Table<?> scopeTable;
+        private Table<?> row;
+        private Table<?> rowBase;
+        private boolean isWholeDataset;
+        private int aliasCount;
+
+        /**
+         * Setting holding the user attributes, if they are read from the session rather than bound
+         */
+        private String sessionSetting;
+
+        Context(Table<?> row, ObjectNode userAttributes, int aliasCount) {
+
+            this.scopeTable = row;
+            this.row = row;
+            this.rowBase = row;
+            this.userAttributes = userAttributes;
+            this.aliasCount = aliasCount;
+        }
+
+        Field<?> value(JsonNode node, Scope scope) {
+
+            return switch (node.path("category").asText()) {
+                case "LITERAL" -> val(toValue(node.path("value"), node.path("type").asText()), toDataType(node.path("type").asText()));
+                case "USER_ATTRIBUTE" -> userAttribute(node);
+                case "SCOPE_ATTRIBUTE" -> column(scopeTable, toColumnName(node.path("path").asText()), node);
+                case "ENTITY_ATTRIBUTE" -> column(scope.resolve(node), node.path("field").path("field").asText(), node);
+                case "PREDICATE" -> field(predicate(node, scope));
+                case "FUNCTION" -> function(node, scope);
+                default -> throw unsupported(node);
+            };
+        }
+
+        Condition predicate(JsonNode node, Scope scope) {
+
+            var operands = node.path("operands");
+            var operation = node.path("operation").asText();
+
+            return switch (operation) {
+                case "AND" -> and(conditions(operands, scope));
+                case "OR" -> or(conditions(operands, scope));
+                case "NOT" -> not(predicate(operands.get(0), scope));
+                case "EQ", "NE", "LT", "LE", "GT", "GE" -> compare(operation, value(operands.get(0), scope), value(operands.get(1), scope));
+                case "IN" -> in(operands.get(0), operands.get(1), scope);
+                case "EXISTS" -> {
+                    var dataset = open(operands.get(0), scope);
+                    yield exists(selectOne().from(dataset.table()).where(condition(dataset)));
+                }
+                default -> throw unsupported(node);
+            };
+        }
+
+        private Field<?> function(JsonNode node, Scope scope) {
+
+            var operands = node.path("operands");
+
+            return switch (node.path("operation").asText()) {
+                case "ROUND" -> round(numeric(value(operands.get(0), scope)));
+                case "ADD" -> numeric(value(operands.get(0), scope)).plus(numeric(value(operands.get(1), scope)));
+                case "SUBTRACT" -> numeric(value(operands.get(0), scope)).minus(numeric(value(operands.get(1), scope)));
+                case "MULTIPLY" -> numeric(value(operands.get(0), scope)).mul(numeric(value(operands.get(1), scope)));
+                case "DIVIDE" -> numeric(value(operands.get(0), scope)).div(numeric(value(operands.get(1), scope)));
+                case "CURRENT_LOCAL_DATE" -> currentLocalDate();
+                case "AVG", "SUM", "MIN", "MAX", "SIZE" -> aggregate(node, operands.get(0), scope);
+                default -> throw unsupported(node);
+            };
+        }
+
+        /**
+         * Translates a function of a fetched dataset into a decorrelated expression or a scalar subquery.
+         */
+        private Field<?> aggregate(JsonNode node, JsonNode operand, Scope scope) {
+
+            var operation = node.path("operation").asText();
+
+            if ("USER_ATTRIBUTE".equals(operand.path("category").asText()) && "SIZE".equals(operation)) {
+                return sessionSetting != null
+                        ? coalesce(field("jsonb_array_length({0})", Integer.class, sessionAttribute(operand, "#>")), inline(0))
+                        : val(userAttributes.at(toPointer(operand.path("path").asText())).size());
+            }
+
+            if ("ENTITY_ATTRIBUTE".equals(operand.path("category").asText()) && "SIZE".equals(operation)) {
+                return field("jsonb_array_length({0})", Integer.class, value(operand, scope));
+            }
+
+            if (!"FETCH_ALL".equals(operand.path("operation").asText())) {
+                throw unsupported(node);
+            }
+
+            var dataset = open(operand, scope);
+            var decorrelated = decorrelate(operation, dataset);
+
+            if (decorrelated != null) {
+                return decorrelated;
+            }
+
+            return field(select(aggregate(operation, element(dataset))).from(dataset.table()).where(condition(dataset)));
+        }
+
+        /**
+         * Returns the function of the dataset correlated with the queried row only by equalities
+         * as a window function or a joined group, or {@code null}, if the function cannot be decorrelated.
+         */
+        private Field<?> decorrelate(String operation, Dataset dataset) {
+
+            if (row == null) {
+                return null;
+            }
+
+            var innerKeys = new ArrayList<JsonNode>();
+            var outerKeys = new ArrayList<JsonNode>();
+            var localPredicates = new ArrayList<JsonNode>();
+
+            for (var predicate : dataset.predicates()) {
+                var reference = reference(predicate, dataset);
+
+                if (reference == Reference.NONE || reference == Reference.INNER) {
+                    localPredicates.add(predicate);
+                    continue;
+                }
+
+                if (!"EQ".equals(predicate.path("operation").asText())) {
+                    return null;
+                }
+
+                var left = predicate.path("operands").get(0);
+                var right = predicate.path("operands").get(1);
+                var leftReference = reference(left, dataset);
+                var rightReference = reference(right, dataset);
+
+                if (leftReference == Reference.INNER && rightReference == Reference.OUTER) {
+                    innerKeys.add(left);
+                    outerKeys.add(right);
+                } else if (leftReference == Reference.OUTER && rightReference == Reference.INNER) {
+                    innerKeys.add(right);
+                    outerKeys.add(left);
+                } else {
+                    return null;
+                }
+            }
+
+            var elementReference = dataset.element() != null ? reference(dataset.element(), dataset) : Reference.NONE;
+
+            if (innerKeys.isEmpty() || (elementReference != Reference.NONE && elementReference != Reference.INNER)) {
+                return null;
+            }
+
+            var outerKeyFields = new ArrayList<Field<?>>();
+            outerKeys.forEach(key -> outerKeyFields.add(value(key, dataset.scope())));
+
+            var window = isWholeDataset ? window(operation, dataset, innerKeys, localPredicates, outerKeyFields) : null;
+
+            return window != null ? window : group(operation, dataset, innerKeys, localPredicates, outerKeyFields);
+        }
+
+        /**
+         * Translates the function into a window function over the queried rows, which must be the whole dataset.
+         */
+        private Field<?> window(String operation, Dataset dataset, List<JsonNode> innerKeys, List<JsonNode> localPredicates, List<Field<?>> outerKeyFields) {
+
+            if (!dataset.base().equals(rowBase)) {
+                return null;
+            }
+
+            // The rows of the dataset are the queried rows themselves
+            var rowScope = dataset.scope().with(dataset.alias(), row);
+            var partition = new ArrayList<Field<?>>();
+
+            for (int index = 0; index < innerKeys.size(); index++) {
+                var innerKey = value(innerKeys.get(index), rowScope);
+
+                // Partitioning is equivalent only if the key is the same expression of the row on both sides
+                if (!innerKey.equals(outerKeyFields.get(index))) {
+                    return null;
+                }
+
+                partition.add(innerKey);
+            }
+
+            var element = dataset.element() != null ? value(dataset.element(), rowScope) : inline(1);
+            var function = aggregate(operation, element);
+            var filter = and(conditions(localPredicates, rowScope));
+            var windowed = localPredicates.isEmpty() ? function.over(partitionBy(partition)) : function.filterWhere(filter).over(partitionBy(partition));
+
+            // A row with a null key matches no row of the dataset
+            return nullKeyDefault(operation, partition, windowed);
+        }
+
+        /**
+         * Translates the function into a group of the dataset joined to the queried rows by the correlated expressions.
+         */
+        private Field<?> group(String operation, Dataset dataset, List<JsonNode> innerKeys, List<JsonNode> localPredicates, List<Field<?>> outerKeyFields) {
+
+            var groupFields = new ArrayList<Field<?>>();
+            var keyFields = new ArrayList<Field<?>>();
+
+            for (int index = 0; index < innerKeys.size(); index++) {
+                var key = value(innerKeys.get(index), dataset.scope());
+                keyFields.add(key);
+                groupFields.add(key.as("key_%d".formatted(index)));
+            }
+
+            groupFields.add(aggregate(operation, element(dataset)).as("value"));
+
+            var group = select(groupFields)
+                    .from(dataset.table())
+                    .where(conditions(localPredicates, dataset.scope()))
+                    .groupBy(keyFields)
+                    .asTable("group_%d".formatted(aliasCount++));
+
+            var joinConditions = new ArrayList<Condition>();
+
+            for (int index = 0; index < outerKeyFields.size(); index++) {
+                joinConditions.add(compare("EQ", group.field("key_%d".formatted(index)), outerKeyFields.get(index)));
+            }
+
+            joins.add(new Join(group, and(joinConditions)));
+
+            var value = group.field("value");
+
+            // A row without a matching group has no rows in the dataset
+            return "SIZE".equals(operation) ? coalesce(value.cast(BIGINT), inline(0L)) : value;
+        }
+
+        private Field<?> nullKeyDefault(String operation, List<Field<?>> keys, Field<?> value) {
+
+            var keysPresent = new ArrayList<Condition>();
+            keys.forEach(key -> keysPresent.add(key.isNotNull()));
+
+            @SuppressWarnings("unchecked")
+            var typed = (Field<Object>) value;
+
+            return "SIZE".equals(operation)
+                    ? when(and(keysPresent), typed).otherwise((Object) 0)
+                    : when(and(keysPresent), typed);
+        }
+
+        /**
+         * Determines, whether the node refers to the rows of the dataset, to the queried row or to both.
+         */
+        private Reference reference(JsonNode node, Dataset dataset) {
+
+            if (!node.isContainerNode()) {
+                return Reference.NONE;
+            }
+
+            if (node.isObject()) {
+                var category = node.path("category").asText();
+
+                if ("FETCH_ALL".equals(node.path("operation").asText())) {
+                    return Reference.OTHER;
+                }
+
+                if ("SCOPE_ATTRIBUTE".equals(category)) {
+                    return scopeTable != null && scopeTable == row ? Reference.OUTER : Reference.OTHER;
+                }
+
+                if ("ENTITY_ATTRIBUTE".equals(category)) {
+                    var table = dataset.scope().resolve(node);
+                    return table == dataset.table() ? Reference.INNER : table == row ? Reference.OUTER : Reference.OTHER;
+                }
+            }
+
+            var reference = Reference.NONE;
+
+            for (var child : node) {
+                reference = reference.and(reference(child, dataset));
+            }
+
+            return reference;
+        }
+
+        /**
+         * Resolves the dataset of a {@code FETCH_ALL} and splits its predicates into conjuncts.
+         */
+        Dataset open(JsonNode fetchAll, Scope scope) {
+
+            var operands = fetchAll.path("operands");
+            var id = operands.get(0);
+
+            if (sessionSetting != null || !"ID".equals(id.path("category").asText()) || !ABAC_DEMO.getName().equals(id.path("id").path("schema").asText())) {
+                throw unsupported(fetchAll);
+            }
+
+            var table = ABAC_DEMO.getTable(id.path("id").path("table").asText());
+
+            if (table == null) {
+                throw unsupported(fetchAll);
+            }
+
+            // Each fetched dataset gets its own alias, so nested fetches of the same table do not clash
+            var aliased = table.as("%s_%d".formatted(table.getName(), aliasCount++));
+            var alias = id.path("alias").asText(null);
+            var predicates = new ArrayList<JsonNode>();
+            JsonNode element = null;
+
+            for (int index = 1; index < operands.size(); index++) {
+                if ("PREDICATE".equals(operands.get(index).path("category").asText())) {
+                    collectConjuncts(operands.get(index), predicates);
+                } else if (element == null) {
+                    element = operands.get(index);
+                }
+            }
+
+            return new Dataset(aliased, table, alias, scope.with(alias, aliased), predicates, element);
+        }
+
+        Condition condition(Dataset dataset) {
+
+            return and(conditions(dataset.predicates(), dataset.scope()));
+        }
+
+        Field<?> element(Dataset dataset) {
+
+            return dataset.element() != null ? value(dataset.element(), dataset.scope()) : inline(1);
+        }
+
+        private void collectConjuncts(JsonNode predicate, List<JsonNode> conjuncts) {
+
+            if ("AND".equals(predicate.path("operation").asText())) {
+                predicate.path("operands").forEach(operand -> collectConjuncts(operand, conjuncts));
+            } else {
+                conjuncts.add(predicate);
+            }
+        }
+
+        private Field<?> userAttribute(JsonNode node) {
+
+            if ("TUPLE".equals(node.path("rank").asText())) {
+                throw unsupported(node);
+            }
+
+            if (sessionSetting != null) {
+                return sessionAttribute(node, "#>>").cast(toDataType(node.path("type").asText()));
+            }
+
+            var value = userAttributes.at(toPointer(node.path("path").asText()));
+
+            return val(toValue(value, node.path("type").asText()), toDataType(node.path("type").asText()));
+        }
+
+        /**
+         * Returns the user attribute taken from the session setting, as text for {@code #>>} or as JSON for {@code #>}.
+         */
+        private Field<?> sessionAttribute(JsonNode node, String operator) {
+
+            var path = "{%s}".formatted(node.path("path").asText().replace('.', ','));
+
+            return field("(nullif(current_setting({0}, true), '')::jsonb " + operator + " {1})", inline(sessionSetting), inline(path));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Condition in(JsonNode element, JsonNode tuple, Scope scope) {
+
+            var field = value(element, scope);
+
+            return switch (tuple.path("category").asText()) {
+                case "ARRAY" -> equalsAny(field, toValues(tuple.path("value"), tuple.path("type").asText()), tuple.path("type").asText());
+                case "USER_ATTRIBUTE" -> sessionSetting != null
+                        ? ((Field<Object>) field).in(select(field("jsonb_array_elements_text({0})", String.class, sessionAttribute(tuple, "#>"))
+                        .cast((DataType<Object>) toDataType(tuple.path("type").asText()))))
+                        : equalsAny(field, toValues(userAttributes.at(toPointer(tuple.path("path").asText())), tuple.path("type").asText()), tuple.path("type").asText());
+                case "ENTITY_ATTRIBUTE" -> condition("{0} @> jsonb_build_array({1})", value(tuple, scope), field);
+                default -> throw unsupported(tuple);
+            };
+        }
+
+        private List<Condition> conditions(Iterable<JsonNode> predicates, Scope scope) {
+
+            var conditions = new ArrayList<Condition>();
+
+            for (var predicate : predicates) {
+                conditions.add(predicate(predicate, scope));
+            }
+
+            if (conditions.isEmpty()) {
+                conditions.add(noCondition());
+            }
+
+            return conditions;
+        }
+
+        private String toPointer(String path) {
+
+            return "/" + path.replace('.', '/');
+        }
+    }
+
+    /**
+     * References of a part of a formula to the rows of a dataset and to the queried row.
+     */
+    private enum Reference {
+
+        NONE, INNER, OUTER, OTHER;
+
+        Reference and(Reference other) {
+
+            if (this == other || other == NONE) {
+                return this;
+            }
+
+            return this == NONE ? other : OTHER;
+        }
+    }
+
+    /**
+     * Tables of the rows visible to a part of a formula.
+     *
+     * @param current Table of the innermost fetched dataset, which the entity attributes without a collection refer to
+     * @param aliases Tables of the fetched datasets by their aliases
+     */
+    private record Scope(Table<?> current, Map<String, Table<?>> aliases) {
+
+        Scope with(String alias, Table<?> table) {
+
+            var tables = new HashMap<>(aliases);
+
+            if (alias != null) {
+                tables.put(alias, table);
+            }
+
+            return new Scope(table, tables);
+        }
+
+        Table<?> resolve(JsonNode entityAttribute) {
+
+            var collection = entityAttribute.path("collection").asText(null);
+            var table = collection != null ? aliases.get(collection) : current;
+
+            if (table == null) {
+                throw unsupported(entityAttribute);
+            }
+
+            return table;
+        }
+    }
+
+    /**
+     * Dataset of a {@code FETCH_ALL}.
+     *
+     * @param table      Aliased table of the dataset
+     * @param base       Table of the dataset without the alias
+     * @param alias      Alias of the dataset in the formula or {@code null}
+     * @param scope      Scope of the operands evaluated for each fetched row
+     * @param predicates Conjuncts of the predicates of the fetched rows
+     * @param element    Element fetched for each row or {@code null}
+     */
+    private record Dataset(Table<?> table, Table<?> base, String alias, Scope scope, List<JsonNode> predicates, JsonNode element) {
+    }
+
+    /**
+     * Group of a decorrelated function joined to the queried rows.
+     */
+    private record Join(Table<?> table, Condition condition) {
+    }
+
+    private static AggregateFunction<?> aggregate(String operation, Field<?> element) {
+
+        return switch (operation) {
+            case "AVG" -> avg(numeric(element));
+            case "SUM" -> sum(numeric(element));
+            case "MIN" -> min(element);
+            case "MAX" -> max(element);
+            default -> count();
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Condition compare(String operation, Field<?> left, Field<?> right) {
+
+        var field = (Field<Object>) left;
+        var other = (Field<Object>) right;
+
+        return switch (operation) {
+            case "EQ" -> field.eq(other);
+            case "NE" -> field.ne(other);
+            case "LT" -> field.lt(other);
+            case "LE" -> field.le(other);
+            case "GT" -> field.gt(other);
+            default -> field.ge(other);
+        };
+    }
+
+    /**
+     * Compares the field with the elements of an array bound as a single value, whatever the number of the elements is.
+     */
+    @SuppressWarnings("unchecked")
+    private static Condition equalsAny(Field<?> field, List<Object> values, String type) {
+
+        var dataType = (DataType<Object>) toDataType(type);
+        var array = values.toArray((Object[]) Array.newInstance(dataType.getType(), values.size()));
+
+        return ((Field<Object>) field).eq(any(val(array, dataType.getArrayDataType())));
+    }
+
+    private static Table<?> joined(Table<?> table, List<Join> joins) {
+
+        Table<?> from = table;
+
+        for (var join : joins) {
+            from = from.leftJoin(join.table()).on(join.condition());
+        }
+
+        return from;
+    }
+
+    private static Field<BigDecimal> numeric(Field<?> field) {
+
+        return field.cast(NUMERIC);
+    }
+
+    private static Field<?> column(Table<?> table, String name, JsonNode node) {
+
+        var field = table != null ? table.field(name) : null;
+
+        if (field == null) {
+            throw unsupported(node);
+        }
+
+        return field;
+    }
+
+    private static List<Object> toValues(JsonNode array, String type) {
+
+        var values = new ArrayList<>();
+        array.forEach(element -> values.add(toValue(element, type)));
+
+        return values;
+    }
+
+    private static Object toValue(JsonNode value, String type) {
+
+        if (value.isNull() || value.isMissingNode()) {
+            return null;
+        }
+
+        return switch (type) {
+            case "STRING" -> value.asText();
+            case "INTEGER" -> value.asLong();
+            case "NUMBER" -> new BigDecimal(value.asText());
+            case "BOOLEAN" -> value.asBoolean();
+            case "DATE" -> LocalDate.parse(value.asText());
+            default -> throw new UnsupportedOperationException("Type %s is not supported in SQL".formatted(type));
+        };
+    }
+
+    private static DataType<?> toDataType(String type) {
+
+        return switch (type) {
+            case "STRING" -> VARCHAR;
+            case "INTEGER" -> BIGINT;
+            case "NUMBER" -> NUMERIC;
+            case "BOOLEAN" -> BOOLEAN;
+            case "DATE" -> LOCALDATE;
+            default -> throw new UnsupportedOperationException("Type %s is not supported in SQL".formatted(type));
+        };
+    }
+
+    private static UnsupportedOperationException unsupported(JsonNode node) {
+
+        return new UnsupportedOperationException("Formula %s %s is not supported in SQL".formatted(
+                node.path("category").asText(), node.path("operation").asText(node.path("type").asText())));
+    }
+}
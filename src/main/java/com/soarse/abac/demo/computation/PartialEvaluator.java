@@ -0,0 +1,230 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.user.UserAttributes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Evaluates the parts of a formula, which depend only on the attributes of the current user.
+ * <p>
+ * A subexpression without entity, scope and dataset references, e.g. {@code "Admin" IN user.roles}, is computed
+ * by the {@link FormulaCompiler} and replaced with a constant. The constants are then propagated through
+ * {@code AND}, {@code OR} and {@code NOT}, so the dead branches disappear and a formula may become a constant as a whole.
+ * Subexpressions referring to missing or null user attributes are left as they are, since SQL evaluates them
+ * in the three-valued logic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartialEvaluator {
+
+    private final FormulaCompiler formulaCompiler;
+
+    /**
+     * Returns the formula with the user-only subexpressions replaced with constants.
+     *
+     * @param document       Document of the formula, which is not modified
+     * @param userAttributes Attributes of the current user
+     * @param foldValues     Whether the non-boolean subexpressions, e.g. {@code user.branch}, are replaced with literals too
+     */
+    public JsonNode evaluate(JsonNode document, UserAttributes userAttributes, boolean foldValues) {
+
+        return new Evaluation(userAttributes, foldValues).evaluate(document);
+    }
+
+    public static ObjectNode constant(boolean value) {
+
+        return JsonNodeFactory.instance.objectNode()
+                .put("category", "LITERAL")
+                .put("type", "BOOLEAN")
+                .put("value", String.valueOf(value));
+    }
+
+    public static boolean isTrue(JsonNode node) {
+
+        return isConstant(node) && "true".equals(node.path("value").asText());
+    }
+
+    public static boolean isFalse(JsonNode node) {
+
+        return isConstant(node) && "false".equals(node.path("value").asText());
+    }
+
+    public static boolean isConstant(JsonNode node) {
+
+        return "LITERAL".equals(node.path("category").asText()) && "BOOLEAN".equals(node.path("type").asText());
+    }
+
+    /**
+     * Returns the node with the given operands, which shares the other fields with the node.
+     */
+    public static JsonNode withOperands(JsonNode node, List<JsonNode> operands) {
+
+        var copy = JsonNodeFactory.instance.objectNode();
+        copy.setAll((ObjectNode) node);
+        copy.set("operands", JsonNodeFactory.instance.arrayNode().addAll(operands));
+
+        return copy;
+    }
+
+    private class Evaluation {
+
+        private final UserAttributes userAttributes;
+        private final boolean foldValues;
+
+        Evaluation(UserAttributes userAttributes, boolean foldValues) {
+
+            this.userAttributes = userAttributes;
+            this.foldValues = foldValues;
+        }
+
+        JsonNode evaluate(JsonNode node) {
+
+            var category = node.path("category").asText();
+
+            if ("LITERAL".equals(category) || "ARRAY".equals(category) || "ID".equals(category)) {
+                return node;
+            }
+
+            if (isUserOnly(node) && hasKnownAttributes(node)) {
+                var folded = fold(node, category);
+
+                if (folded.isPresent()) {
+                    return folded.get();
+                }
+            }
+
+            var operands = node.path("operands");
+
+            if (!operands.isArray() || operands.isEmpty()) {
+                return node;
+            }
+
+            var evaluated = new ArrayList<JsonNode>(operands.size());
+            var isChanged = false;
+
+            for (var operand : operands) {
+                var evaluatedOperand = evaluate(operand);
+                evaluated.add(evaluatedOperand);
+                isChanged |= evaluatedOperand != operand;
+            }
+
+            if (!"PREDICATE".equals(category)) {
+                return isChanged ? withOperands(node, evaluated) : node;
+            }
+
+            return switch (node.path("operation").asText()) {
+                case "AND" -> junction(node, evaluated, false);
+                case "OR" -> junction(node, evaluated, true);
+                case "NOT" -> isConstant(evaluated.get(0)) ? constant(isFalse(evaluated.get(0))) : withOperands(node, evaluated);
+                default -> isChanged ? withOperands(node, evaluated) : node;
+            };
+        }
+
+        /**
+         * Simplifies {@code AND} or {@code OR}, whose operands the absorbing constant decides and the neutral constant does not affect.
+         */
+        private JsonNode junction(JsonNode node, List<JsonNode> operands, boolean isOr) {
+
+            var remaining = new ArrayList<JsonNode>(operands.size());
+
+            for (var operand : operands) {
+                if (isOr ? isTrue(operand) : isFalse(operand)) {
+                    return constant(isOr);
+                }
+
+                if (!isConstant(operand)) {
+                    remaining.add(operand);
+                }
+            }
+
+            if (remaining.isEmpty()) {
+                return constant(!isOr);
+            }
+
+            return remaining.size() == 1 ? remaining.get(0) : withOperands(node, remaining);
+        }
+
+        private Optional<JsonNode> fold(JsonNode node, String category) {
+
+            var isPredicate = "PREDICATE".equals(category);
+
+            // Tuples have no literal form, so only their predicates are folded
+            if (!isPredicate && (!foldValues || "TUPLE".equals(node.path("rank").asText()) || !node.hasNonNull("type"))) {
+                return Optional.empty();
+            }
+
+            try {
+                return formulaCompiler.compile(node).flatMap(compiled -> {
+                    if (isPredicate) {
+                        return Optional.of(constant(compiled.test(userAttributes, JsonNodeFactory.instance.objectNode())));
+                    }
+
+                    var value = compiled.computeValue(userAttributes, JsonNodeFactory.instance.objectNode(), Object.class);
+
+                    return Optional.ofNullable(value).map(present -> literal(node.path("type").asText(), present));
+                });
+            } catch (RuntimeException e) {
+                log.debug("Subexpression is not evaluated: {}", e.getMessage());
+                return Optional.empty();
+            }
+        }
+
+        private JsonNode literal(String type, Object value) {
+
+            return JsonNodeFactory.instance.objectNode()
+                    .put("category", "LITERAL")
+                    .put("type", type)
+                    .put("value", value instanceof BigDecimal number ? number.toPlainString() : value.toString());
+        }
+
+        /**
+         * Checks whether the node refers neither to the entities nor to the computation scope nor to the current time.
+         */
+        private boolean isUserOnly(JsonNode node) {
+
+            if (node.isObject()) {
+                var category = node.path("category").asText();
+                var operation = node.path("operation").asText();
+
+                if ("ENTITY_ATTRIBUTE".equals(category) || "SCOPE_ATTRIBUTE".equals(category) || "ID".equals(category)
+                        || "FETCH_ALL".equals(operation) || operation.startsWith("CURRENT_")) {
+                    return false;
+                }
+            }
+
+            for (var child : node) {
+                if (!isUserOnly(child)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean hasKnownAttributes(JsonNode node) {
+
+            if (node.isObject() && "USER_ATTRIBUTE".equals(node.path("category").asText())) {
+                var value = userAttributes.get(node.path("path").asText());
+                return !value.isMissingNode() && !value.isNull();
+            }
+
+            for (var child : node) {
+                if (!hasKnownAttributes(child)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
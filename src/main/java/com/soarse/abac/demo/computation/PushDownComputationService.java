@@ -0,0 +1,253 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.security.RowSecurity;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import com.soarse.formula.Formula;
+import com.soarse.formula.service.computations.ComputationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Computes formulas, which read datasets, in the database.
+ * <p>
+ * {@link ComputationService} fetches the whole dataset of a {@code FETCH_ALL} and aggregates it in memory.
+ * Formulas containing a {@code FETCH_ALL} are translated into a single query here instead, so e.g. a sum
+ * of salaries returns one value from the database. Other formulas, and the ones that cannot be translated,
+ * are compiled by {@link FormulaCompiler}, or computed by {@link ComputationService}, if the compiler
+ * does not support them. The counter {@code abac.computations} shows how often each path was taken
+ * by each {@link ComputationSource}, e.g. the policy rules, for the values and for the arrays.
+ * It is not tagged by the formulas, since the clients supply them. The paths of each formula are counted
+ * by {@link #count(Formula, ComputationPath)} for a bounded number of recently computed formulas instead.
+ * The formulas and the reasons for the fallbacks are logged at the debug level.
+ */
+@Slf4j
+@Component
+public class PushDownComputationService {
+
+    private static final String COUNTER = "abac.computations";
+    private static final String VALUE = "value";
+    private static final String ARRAY = "array";
+    private static final String PREDICATE = "predicate";
+
+    /**
+     * The largest number of formulas, whose paths are counted, the least recently used ones are evicted first
+     */
+    private static final long MAXIMUM_FORMULAS = 10_000;
+
+    private final DSLContext dsl;
+    private final FormulaDocuments formulaDocuments;
+    private final FormulaSqlTranslator formulaSqlTranslator;
+    private final FormulaCompiler formulaCompiler;
+    private final ComputationService computationService;
+    private final UserAttributeResolver userAttributeResolver;
+    private final RowSecurity rowSecurity;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Numbers of the computations by the path by the formula document
+     */
+    private final Cache<JsonNode, Map<ComputationPath, LongAdder>> formulaCounts = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_FORMULAS)
+            .build();
+
+    public PushDownComputationService(DSLContext dsl,
+                                      FormulaDocuments formulaDocuments,
+                                      FormulaSqlTranslator formulaSqlTranslator,
+                                      FormulaCompiler formulaCompiler,
+                                      ComputationService computationService,
+                                      UserAttributeResolver userAttributeResolver,
+                                      RowSecurity rowSecurity,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+
+        this.dsl = dsl;
+        this.formulaDocuments = formulaDocuments;
+        this.formulaSqlTranslator = formulaSqlTranslator;
+        this.formulaCompiler = formulaCompiler;
+        this.computationService = computationService;
+        this.userAttributeResolver = userAttributeResolver;
+        this.rowSecurity = rowSecurity;
+
+        // The counters are kept even without a registry of the application, e.g. for the tests
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    /**
+     * Computes the value of the formula supplied by a client, the same way as {@link ComputationService#computeValue}.
+     */
+    public <T> T computeValue(Formula formula, Class<T> type) {
+
+        return computeValue(ComputationSource.CLIENT, formula, type);
+    }
+
+    /**
+     * Computes the value of the formula, the same way as {@link ComputationService#computeValue}.
+     *
+     * @param source Caller of the computation, which tags the counter
+     */
+    public <T> T computeValue(ComputationSource source, Formula formula, Class<T> type) {
+
+        var document = formulaDocuments.toDocument(formula);
+
+        return compute(document, source, VALUE,
+                () -> dsl.fetchOne(formulaSqlTranslator.toValueQuery(document)).get(0, type),
+                compiled -> compiled.computeValue(userAttributeResolver.current(), JsonNodeFactory.instance.objectNode(), type),
+                () -> computationService.computeValue(formula, type));
+    }
+
+    /**
+     * Computes the elements of the array formula supplied by a client, the same way as {@link ComputationService#computeArray}.
+     */
+    public <T> List<T> computeArray(Formula formula, Class<T> type) {
+
+        return computeArray(ComputationSource.CLIENT, formula, type);
+    }
+
+    /**
+     * Computes the elements of the array formula, the same way as {@link ComputationService#computeArray}.
+     *
+     * @param source Caller of the computation, which tags the counter
+     */
+    public <T> List<T> computeArray(ComputationSource source, Formula formula, Class<T> type) {
+
+        var document = formulaDocuments.toDocument(formula);
+
+        return compute(document, source, ARRAY,
+                () -> dsl.fetch(formulaSqlTranslator.toArrayQuery(document)).getValues(0, type),
+                compiled -> compiled.computeArray(userAttributeResolver.current(), JsonNodeFactory.instance.objectNode(), type),
+                () -> computationService.computeArray(formula, type));
+    }
+
+    /**
+     * Returns how often the values and the arrays have been computed by the path.
+     */
+    public long count(ComputationPath path) {
+
+        return (long) meterRegistry.find(COUNTER)
+                .tag("path", path.getTag())
+                .counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    /**
+     * Checks whether the formula of a predicate is satisfied, the same way as {@link ComputationService#computeValue}
+     * with the {@link Boolean} type. A compiled predicate is evaluated without boxing its result.
+     *
+     * @param source Caller of the computation, which tags the counter
+     */
+    public boolean test(ComputationSource source, Formula formula) {
+
+        var document = formulaDocuments.toDocument(formula);
+
+        return compute(document, source, PREDICATE,
+                () -> Boolean.TRUE.equals(dsl.fetchOne(formulaSqlTranslator.toValueQuery(document)).get(0, Boolean.class)),
+                compiled -> compiled.test(userAttributeResolver.current(), JsonNodeFactory.instance.objectNode()),
+                () -> Boolean.TRUE.equals(computationService.computeValue(formula, Boolean.class)));
+    }
+
+    /**
+     * Returns how often the formula has been computed by the path, or zero, if the formula has not been computed recently.
+     */
+    public long count(Formula formula, ComputationPath path) {
+
+        var counts = formulaCounts.getIfPresent(formulaDocuments.toDocument(formula));
+
+        return counts != null ? counts.get(path).sum() : 0;
+    }
+
+    private <T> T compute(JsonNode document, ComputationSource source, String result,
+                          Supplier<T> sql, Function<CompiledFormula, T> compiled, Supplier<T> memory) {
+
+        // The datasets are read as a whole, even within a transaction switched to the row-level security role
+        return rowSecurity.unrestricted(() -> computePath(document, source, result, sql, compiled, memory));
+    }
+
+    private <T> T computePath(JsonNode document, ComputationSource source, String result,
+                              Supplier<T> sql, Function<CompiledFormula, T> compiled, Supplier<T> memory) {
+
+        if (containsFetch(document)) {
+            try {
+                var value = sql.get();
+                count(document, source, result, ComputationPath.SQL);
+                return value;
+            } catch (UnsupportedOperationException e) {
+                log.debug("Formula {} is computed in memory: {}", document, e.getMessage());
+            }
+        }
+
+        var compiledFormula = formulaCompiler.compile(document);
+
+        if (compiledFormula.isPresent()) {
+            try {
+                var value = compiled.apply(compiledFormula.get());
+                count(document, source, result, ComputationPath.COMPILED);
+                return value;
+            } catch (UnsupportedOperationException e) {
+                log.debug("Formula {} is computed by the library: {}", document, e.getMessage());
+            }
+        }
+
+        count(document, source, result, ComputationPath.MEMORY);
+
+        return memory.get();
+    }
+
+    private void count(JsonNode document, ComputationSource source, String result, ComputationPath path) {
+
+        counter(source, result, path).increment();
+        formulaCounts.get(document, ignored -> newCounts()).get(path).increment();
+    }
+
+    private Map<ComputationPath, LongAdder> newCounts() {
+
+        var counts = new EnumMap<ComputationPath, LongAdder>(ComputationPath.class);
+
+        for (var path : ComputationPath.values()) {
+            counts.put(path, new LongAdder());
+        }
+
+        return counts;
+    }
+
+    private Counter counter(ComputationSource source, String result, ComputationPath path) {
+
+        return Counter.builder(COUNTER)
+                .description("Computations of the formulas by the path")
+                .tag("source", source.getTag())
+                .tag("result", result)
+                .tag("path", path.getTag())
+                .register(meterRegistry);
+    }
+
+    private boolean containsFetch(JsonNode node) {
+
+        if (node.isObject() && "FETCH_ALL".equals(node.path("operation").asText())) {
+            return true;
+        }
+
+        for (var child : node) {
+            if (containsFetch(child)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,188 @@
+package com.soarse.abac.demo.condition;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.soarse.abac.builder.condition.AbacConditionBuilder;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.formula.FormulaDependencies;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.abac.demo.policy.PolicySnapshots;
+import com.soarse.abac.demo.policy.PolicyVersion;
+import com.soarse.abac.demo.security.RowSecurity;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import com.soarse.abac.model.action.ActionEffect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.Table;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import static org.jooq.impl.DSL.noCondition;
+
+/**
+ * Reuses the ABAC conditions between the calls of a permission point.
+ * <p>
+ * The condition built by the library depends only on the policies of the point and on the user attributes
+ * the policies refer to. The cache key therefore consists of the point ID, the policy version
+ * and the values of the referenced user attributes, so users with equal attributes share the condition.
+ * The policy version includes the version of the policies of the point in the policy snapshot,
+ * so a targeted invalidation of other policies keeps the condition.
+ * Conditions of volatile policies, e.g. ones that refer to the current date, are always built anew.
+ */
+@Slf4j
+@Component
+public class AbacConditionCache {
+
+    private final AbacConditionBuilder abacConditionBuilder;
+    private final PolicyConditionBuilder policyConditionBuilder;
+    private final ApplicablePolicyService applicablePolicyService;
+    private final UserAttributeResolver userAttributeResolver;
+    private final PolicyVersion policyVersion;
+    private final PolicySnapshots policySnapshots;
+    private final RowSecurity rowSecurity;
+    private final boolean enabled;
+
+    /**
+     * Conditions by the point, the policy version and the fingerprint of the user attributes
+     */
+    private final Cache<ConditionKey, Condition> conditions;
+
+    /**
+     * Dependencies of the policies by the point and the policy version
+     */
+    private final Cache<PointKey, FormulaDependencies> dependencies;
+
+    public AbacConditionCache(AbacConditionBuilder abacConditionBuilder,
+                              PolicyConditionBuilder policyConditionBuilder,
+                              ApplicablePolicyService applicablePolicyService,
+                              UserAttributeResolver userAttributeResolver,
+                              PolicyVersion policyVersion,
+                              PolicySnapshots policySnapshots,
+                              RowSecurity rowSecurity,
+                              AbacDemoProperties properties,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var settings = properties.getConditionCache();
+
+        this.abacConditionBuilder = abacConditionBuilder;
+        this.policyConditionBuilder = policyConditionBuilder;
+        this.applicablePolicyService = applicablePolicyService;
+        this.userAttributeResolver = userAttributeResolver;
+        this.policyVersion = policyVersion;
+        this.policySnapshots = policySnapshots;
+        this.rowSecurity = rowSecurity;
+        this.enabled = settings.isEnabled();
+
+        this.conditions = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        this.dependencies = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, conditions, "abac.conditions"));
+    }
+
+    /**
+     * Returns the ABAC condition of the current permission point for the current user.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param effect  Effect of the action on the data
+     * @param table   Table of the permission point
+     */
+    public Condition build(String pointId, ActionEffect effect, Table<?> table) {
+
+        // The database filters the rows itself, unless the point has action policies, which are not compiled
+        if (rowSecurity.isEnforced(effect, table) && !applicablePolicyService.hasActionPolicies(pointId)) {
+            return noCondition();
+        }
+
+        if (!enabled) {
+            return newCondition(pointId, effect, table);
+        }
+
+        var version = new Version(policyVersion.current(), policySnapshots.pointVersion(
+                applicablePolicyService.toActionId(pointId), effect, applicablePolicyService.toEntityId(table)));
+
+        var pointDependencies = dependencies.get(new PointKey(pointId, version),
+                key -> FormulaDependencies.of(applicablePolicyService.findPolicies(pointId, effect, table)));
+
+        if (pointDependencies.isVolatile()) {
+            return newCondition(pointId, effect, table);
+        }
+
+        var key = new ConditionKey(pointId, version, fingerprint(pointDependencies));
+
+        return conditions.get(key, ignored -> {
+            log.debug("Building the ABAC condition for {}", key);
+            return newCondition(pointId, effect, table);
+        });
+    }
+
+    /**
+     * Discards all cached conditions, e.g. after the policies have been changed.
+     */
+    public void invalidate() {
+
+        policyVersion.increment();
+        conditions.invalidateAll();
+        dependencies.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the cached conditions.
+     */
+    public CacheStats stats() {
+
+        return conditions.stats();
+    }
+
+    /**
+     * Builds the condition by the {@link PolicyConditionBuilder}, if it is enabled and supports the policies, or by the library.
+     */
+    private Condition newCondition(String pointId, ActionEffect effect, Table<?> table) {
+
+        if (policyConditionBuilder.isEnabled()) {
+            var condition = policyConditionBuilder.build(pointId, effect, table);
+
+            if (condition.isPresent()) {
+                return condition.get();
+            }
+        }
+
+        return abacConditionBuilder.build();
+    }
+
+    /**
+     * Serializes the values of the user attributes the policies refer to.
+     */
+    private String fingerprint(FormulaDependencies pointDependencies) {
+
+        var attributes = userAttributeResolver.current();
+        var fingerprint = JsonNodeFactory.instance.objectNode();
+
+        for (var path : pointDependencies.getUserAttributePaths()) {
+            var value = attributes.get(path);
+            fingerprint.set(path, value.isMissingNode() ? null : value);
+        }
+
+        return fingerprint.toString();
+    }
+
+    private record Version(long policyVersion, long pointVersion) {
+    }
+
+    private record PointKey(String pointId, Version policyVersion) {
+    }
+
+    private record ConditionKey(String pointId, Version policyVersion, String userAttributes) {
+    }
+}
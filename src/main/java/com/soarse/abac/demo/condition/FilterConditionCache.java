@@ -0,0 +1,330 @@
+package com.soarse.abac.demo.condition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.soarse.abac.demo.computation.PartialEvaluator;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.formula.FormulaDependencies;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.formula.FormulaParser;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import com.soarse.formula.Formula;
+import com.soarse.formula.service.FiltrationFormulaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import static com.soarse.abac.demo.computation.PartialEvaluator.isFalse;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isTrue;
+import static org.jooq.impl.DSL.condition;
+import static org.jooq.impl.DSL.falseCondition;
+import static org.jooq.impl.DSL.trueCondition;
+
+/**
+ * Reuses the conditions translated from the user filters.
+ * <p>
+ * The filters are cached by their structure. Scalar string user attributes are replaced with placeholder literals
+ * before the translation, and the placeholders are bound to the attributes of the current user on each call,
+ * so one cached entry serves every user. Filters with other user attributes are cached together with the values
+ * of these attributes, and volatile filters, e.g. ones that refer to the current date, are always translated anew.
+ * Predicates depending only on the user attributes are folded into constants first, see {@link PartialEvaluator},
+ * so the structure of the cached filter includes their outcome.
+ */
+@Slf4j
+@Component
+public class FilterConditionCache {
+
+    private static final String USER_ATTRIBUTE = "USER_ATTRIBUTE";
+    private static final String VALUE = "$value";
+
+    private final DSLContext dsl;
+    private final FormulaDocuments formulaDocuments;
+    private final FormulaParser formulaParser;
+    private final FiltrationFormulaService filtrationFormulaService;
+    private final UserAttributeResolver userAttributeResolver;
+    private final PartialEvaluator partialEvaluator;
+    private final boolean enabled;
+    private final boolean partialEvaluation;
+
+    /**
+     * Prefix of the placeholder literals, unique per instance, so it cannot match a value of the user filters
+     */
+    private final String placeholderPrefix = "abac-demo:user-attribute:%s:".formatted(UUID.randomUUID());
+
+    /**
+     * Parameterized conditions by the structure of the filter or empty, if the filter cannot be parameterized
+     */
+    private final Cache<JsonNode, Optional<ParameterizedCondition>> templates;
+
+    /**
+     * Conditions by the structure of the filter and the values of all its user attributes
+     */
+    private final Cache<JsonNode, Condition> conditions;
+
+    public FilterConditionCache(DSLContext dsl,
+                                FormulaDocuments formulaDocuments,
+                                FormulaParser formulaParser,
+                                FiltrationFormulaService filtrationFormulaService,
+                                UserAttributeResolver userAttributeResolver,
+                                PartialEvaluator partialEvaluator,
+                                AbacDemoProperties properties,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var settings = properties.getFilterCache();
+
+        this.dsl = dsl;
+        this.formulaDocuments = formulaDocuments;
+        this.formulaParser = formulaParser;
+        this.filtrationFormulaService = filtrationFormulaService;
+        this.userAttributeResolver = userAttributeResolver;
+        this.partialEvaluator = partialEvaluator;
+        this.enabled = settings.isEnabled();
+        this.partialEvaluation = properties.getConditionBuilder().isPartialEvaluation();
+
+        this.templates = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        this.conditions = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, templates, "abac.filter.templates");
+            CaffeineCacheMetrics.monitor(registry, conditions, "abac.filter.conditions");
+        });
+    }
+
+    /**
+     * Returns the condition of the user filter for the current user.
+     */
+    public Condition toCondition(Formula filter) {
+
+        if (!enabled) {
+            return filtrationFormulaService.toCondition(filter);
+        }
+
+        var document = formulaDocuments.toDocument(filter);
+
+        if (FormulaDependencies.of(List.of(document)).isVolatile()) {
+            return filtrationFormulaService.toCondition(filter);
+        }
+
+        var userAttributes = userAttributeResolver.current();
+        var attributes = userAttributes.document();
+
+        if (partialEvaluation) {
+            var evaluated = partialEvaluator.evaluate(document, userAttributes, false);
+
+            if (isTrue(evaluated)) {
+                return trueCondition();
+            }
+
+            if (isFalse(evaluated)) {
+                return falseCondition();
+            }
+
+            if (evaluated != document) {
+                document = evaluated;
+                filter = formulaParser.parse(evaluated);
+            }
+        }
+
+        var evaluatedFilter = filter;
+        var template = new Template(attributes);
+        var templateDocument = template.parameterize(document);
+
+        // The values of the remaining user attributes are inlined on translation, so they are part of the key
+        var parameterizedCondition = templates.get(template.valuedKey(templateDocument), ignored -> parameterize(templateDocument, template));
+
+        if (parameterizedCondition.isPresent()) {
+            return parameterizedCondition.get().bind(attributes);
+        }
+
+        // The filter cannot be parameterized, so it is cached for the values of all its user attributes
+        return conditions.get(template.valuedKey(document), ignored -> filtrationFormulaService.toCondition(evaluatedFilter));
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the parameterized conditions.
+     */
+    public CacheStats stats() {
+
+        return templates.stats();
+    }
+
+    private Optional<ParameterizedCondition> parameterize(JsonNode templateDocument, Template template) {
+
+        var templateCondition = filtrationFormulaService.toCondition(formulaParser.parse(templateDocument));
+
+        var sql = dsl.render(templateCondition);
+        var bindValues = dsl.extractBindValues(templateCondition);
+
+        // The placeholders must have become bind values, which can be replaced with the values of the user attributes
+        if (sql.contains(placeholderPrefix) || countBindMarkers(sql) != bindValues.size()) {
+            log.debug("The filter cannot be parameterized: {}", sql);
+            return Optional.empty();
+        }
+
+        var attributePaths = new HashMap<Integer, String>();
+
+        for (var i = 0; i < bindValues.size(); i++) {
+            if (bindValues.get(i) instanceof String value && value.startsWith(placeholderPrefix)) {
+                attributePaths.put(i, template.paths.get(Integer.parseInt(value.substring(placeholderPrefix.length()))));
+            }
+        }
+
+        if (attributePaths.size() < template.paths.size()) {
+            log.debug("Not all user attributes of the filter became bind values: {}", sql);
+            return Optional.empty();
+        }
+
+        log.debug("Parameterized filter condition: {}", sql);
+
+        return Optional.of(new ParameterizedCondition(sql, bindValues, attributePaths));
+    }
+
+    /**
+     * Counts the bind markers outside the string literals and the quoted identifiers.
+     */
+    private static int countBindMarkers(String sql) {
+
+        var count = 0;
+        var quote = (char) 0;
+
+        for (var i = 0; i < sql.length(); i++) {
+            var c = sql.charAt(i);
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static JsonNode attributeValue(ObjectNode attributes, JsonNode userAttribute) {
+
+        var value = attributes.at("/" + userAttribute.path("path").asText().replace('.', '/'));
+
+        return value.isMissingNode() ? JsonNodeFactory.instance.nullNode() : value;
+    }
+
+    /**
+     * Condition rendered as SQL with bind markers, some of which are bound to user attributes.
+     */
+    private record ParameterizedCondition(String sql, List<Object> bindValues, Map<Integer, String> attributePaths) {
+
+        Condition bind(ObjectNode attributes) {
+
+            var values = new ArrayList<>(bindValues);
+
+            attributePaths.forEach((index, path) -> {
+                var value = attributes.at("/" + path.replace('.', '/'));
+                values.set(index, value.isMissingNode() || value.isNull() ? null : value.asText());
+            });
+
+            return condition(sql, values.toArray());
+        }
+    }
+
+    /**
+     * Rewrites a filter document into its template and cache keys.
+     */
+    private class Template {
+
+        private final ObjectNode attributes;
+
+        /**
+         * Paths of the parameterized user attributes by the placeholder number
+         */
+        private final List<String> paths = new ArrayList<>();
+
+        Template(ObjectNode attributes) {
+
+            this.attributes = attributes;
+        }
+
+        /**
+         * Replaces the scalar string user attributes with the placeholder literals.
+         */
+        JsonNode parameterize(JsonNode node) {
+
+            if (isUserAttribute(node) && isParameterizable(node)) {
+                var placeholder = JsonNodeFactory.instance.objectNode()
+                        .put("category", "LITERAL")
+                        .put("type", "STRING")
+                        .put("value", placeholderPrefix + paths.size());
+                paths.add(node.path("path").asText());
+                return placeholder;
+            }
+
+            return map(node, this::parameterize);
+        }
+
+        /**
+         * Adds the values of all user attributes to the document.
+         */
+        JsonNode valuedKey(JsonNode node) {
+
+            if (isUserAttribute(node)) {
+                return ((ObjectNode) node.deepCopy()).set(VALUE, attributeValue(attributes, node));
+            }
+
+            return map(node, this::valuedKey);
+        }
+
+        private JsonNode map(JsonNode node, UnaryOperator<JsonNode> mapper) {
+
+            if (node.isObject()) {
+                var copy = JsonNodeFactory.instance.objectNode();
+                node.fields().forEachRemaining(field -> copy.set(field.getKey(), mapper.apply(field.getValue())));
+                return copy;
+            }
+
+            if (node.isArray()) {
+                var copy = JsonNodeFactory.instance.arrayNode();
+                node.forEach(element -> copy.add(mapper.apply(element)));
+                return copy;
+            }
+
+            return node;
+        }
+
+        private boolean isUserAttribute(JsonNode node) {
+
+            return USER_ATTRIBUTE.equals(node.path("category").asText());
+        }
+
+        private boolean isParameterizable(JsonNode node) {
+
+            return "STRING".equals(node.path("type").asText()) && !node.hasNonNull("rank");
+        }
+    }
+}
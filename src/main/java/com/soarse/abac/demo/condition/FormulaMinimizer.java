@@ -0,0 +1,294 @@
+package com.soarse.abac.demo.condition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.soarse.abac.demo.computation.PartialEvaluator.constant;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isConstant;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isFalse;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isTrue;
+import static com.soarse.abac.demo.computation.PartialEvaluator.withOperands;
+
+/**
+ * Simplifies the boolean structure of a merged filter formula.
+ * <p>
+ * The filters of the universal, action and entity policies often repeat the same comparisons, so their {@code OR}
+ * is reduced by the rules holding in the three-valued logic of SQL:
+ * <ul>
+ * <li>nested junctions of the same operation are flattened and duplicate operands are removed,</li>
+ * <li>{@code col = a OR col = b} becomes {@code col IN (a, b)},</li>
+ * <li>{@code a OR (a AND b)} becomes {@code a}, and {@code a AND (a OR b)} becomes {@code a},</li>
+ * <li>{@code (a AND b) OR (a AND c)} becomes {@code a AND (b OR c)}.</li>
+ * </ul>
+ * The operands keep their order, so equal formulas are minimized into equal documents.
+ */
+@Component
+public class FormulaMinimizer {
+
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+
+    /**
+     * Returns the minimized formula, the document itself is not modified.
+     */
+    public JsonNode minimize(JsonNode document) {
+
+        if (!"PREDICATE".equals(document.path("category").asText())) {
+            return document;
+        }
+
+        var operation = document.path("operation").asText();
+
+        if ("NOT".equals(operation)) {
+            var operand = document.path("operands").path(0);
+            var minimized = minimize(operand);
+
+            return minimized == operand ? document : withOperands(document, List.of(minimized));
+        }
+
+        if (!AND.equals(operation) && !OR.equals(operation)) {
+            return document;
+        }
+
+        var isOr = OR.equals(operation);
+        var operands = new LinkedHashSet<JsonNode>();
+
+        for (var operand : document.path("operands")) {
+            var minimized = minimize(operand);
+
+            if (isOr ? isTrue(minimized) : isFalse(minimized)) {
+                return constant(isOr);
+            }
+
+            if (!isConstant(minimized)) {
+                flatten(minimized, operation, operands);
+            }
+        }
+
+        var remaining = absorb(isOr ? mergeComparisons(operands) : new ArrayList<>(operands), isOr);
+
+        if (remaining.isEmpty()) {
+            return constant(!isOr);
+        }
+
+        if (remaining.size() == 1) {
+            return remaining.get(0);
+        }
+
+        if (isOr) {
+            var factored = factorOut(remaining);
+
+            if (factored.isPresent()) {
+                return factored.get();
+            }
+        }
+
+        return junction(operation, remaining);
+    }
+
+    private void flatten(JsonNode node, String operation, Set<JsonNode> operands) {
+
+        if (operation.equals(node.path("operation").asText())) {
+            node.path("operands").forEach(operands::add);
+        } else {
+            operands.add(node);
+        }
+    }
+
+    /**
+     * Merges the equalities and the {@code IN} predicates of the same column with constants into a single {@code IN}.
+     */
+    private List<JsonNode> mergeComparisons(Set<JsonNode> operands) {
+
+        var comparisons = new LinkedHashMap<Object, List<Comparison>>();
+        var result = new ArrayList<JsonNode>();
+
+        for (var operand : operands) {
+            var comparison = Comparison.of(operand);
+
+            if (comparison.isPresent()) {
+                var group = comparisons.computeIfAbsent(comparison.get().key(), ignored -> new ArrayList<>());
+
+                // The merged predicate takes the place of the first comparison
+                if (group.isEmpty()) {
+                    result.add(operand);
+                }
+
+                group.add(comparison.get());
+            } else {
+                result.add(operand);
+            }
+        }
+
+        comparisons.values().stream()
+                .filter(group -> group.size() > 1)
+                .forEach(group -> result.set(result.indexOf(group.get(0).node()), Comparison.merge(group)));
+
+        return result;
+    }
+
+    /**
+     * Removes the operands of a junction, which are implied by another operand, e.g. {@code a AND b} of {@code a OR (a AND b)}.
+     */
+    private List<JsonNode> absorb(List<JsonNode> operands, boolean isOr) {
+
+        var dual = isOr ? AND : OR;
+        var terms = operands.stream().map(operand -> terms(operand, dual)).toList();
+        var result = new ArrayList<JsonNode>(operands.size());
+
+        for (int index = 0; index < operands.size(); index++) {
+            var isAbsorbed = false;
+
+            for (int other = 0; other < operands.size() && !isAbsorbed; other++) {
+                var otherTerms = terms.get(other);
+
+                // Of two operands with the same terms the first one is kept
+                isAbsorbed = other != index
+                        && terms.get(index).containsAll(otherTerms)
+                        && (otherTerms.size() < terms.get(index).size() || other < index);
+            }
+
+            if (!isAbsorbed) {
+                result.add(operands.get(index));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves the conjuncts shared by all disjuncts in front of the disjunction.
+     */
+    private Optional<JsonNode> factorOut(List<JsonNode> disjuncts) {
+
+        var shared = new LinkedHashSet<>(terms(disjuncts.get(0), AND));
+        disjuncts.forEach(disjunct -> shared.retainAll(terms(disjunct, AND)));
+
+        if (shared.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // After the absorption each disjunct has conjuncts other than the shared ones
+        var remainders = new ArrayList<JsonNode>(disjuncts.size());
+
+        for (var disjunct : disjuncts) {
+            var conjuncts = new ArrayList<>(terms(disjunct, AND));
+            conjuncts.removeAll(shared);
+            remainders.add(conjuncts.size() == 1 ? conjuncts.get(0) : junction(AND, conjuncts));
+        }
+
+        var conjuncts = new ArrayList<JsonNode>(shared);
+        conjuncts.add(junction(OR, remainders));
+
+        return Optional.of(minimize(junction(AND, conjuncts)));
+    }
+
+    /**
+     * Returns the operands of the node, if it is a junction of the operation, or the node itself.
+     */
+    private static Set<JsonNode> terms(JsonNode node, String operation) {
+
+        var terms = new LinkedHashSet<JsonNode>();
+
+        if (operation.equals(node.path("operation").asText())) {
+            node.path("operands").forEach(terms::add);
+        } else {
+            terms.add(node);
+        }
+
+        return terms;
+    }
+
+    private static JsonNode junction(String operation, List<JsonNode> operands) {
+
+        var junction = JsonNodeFactory.instance.objectNode()
+                .put("category", "PREDICATE")
+                .put("operation", operation);
+        junction.putArray("operands").addAll(operands);
+
+        return junction;
+    }
+
+    /**
+     * Comparison of a column with constants.
+     *
+     * @param node      Predicate of the comparison
+     * @param attribute Entity attribute of the column
+     * @param type      Type of the constants
+     * @param values    Constants the column is compared with
+     */
+    private record Comparison(JsonNode node, JsonNode attribute, String type, List<JsonNode> values) {
+
+        static Optional<Comparison> of(JsonNode node) {
+
+            var operands = node.path("operands");
+            var left = operands.path(0);
+            var right = operands.path(1);
+
+            return switch (node.path("operation").asText()) {
+                case "EQ" -> {
+                    if (isColumn(right) && isLiteral(left)) {
+                        yield Optional.of(new Comparison(node, right, left.path("type").asText(), List.of(left.path("value"))));
+                    }
+
+                    yield isColumn(left) && isLiteral(right)
+                            ? Optional.of(new Comparison(node, left, right.path("type").asText(), List.of(right.path("value"))))
+                            : Optional.empty();
+                }
+                case "IN" -> isColumn(left) && "ARRAY".equals(right.path("category").asText())
+                        ? Optional.of(new Comparison(node, left, right.path("type").asText(), List.copyOf(toList(right.path("value")))))
+                        : Optional.empty();
+                default -> Optional.empty();
+            };
+        }
+
+        static JsonNode merge(List<Comparison> comparisons) {
+
+            var first = comparisons.get(0);
+            var values = new LinkedHashSet<JsonNode>();
+            comparisons.forEach(comparison -> values.addAll(comparison.values()));
+
+            var array = JsonNodeFactory.instance.objectNode()
+                    .put("category", "ARRAY")
+                    .put("type", first.type());
+            array.putArray("value").addAll(values);
+
+            return junction("IN", List.of(first.attribute(), array));
+        }
+
+        /**
+         * Returns the key of the comparisons, which can be merged.
+         */
+        Object key() {
+
+            return List.of(attribute, type);
+        }
+
+        private static boolean isColumn(JsonNode node) {
+
+            // Tuples are compared as a whole, so they cannot be an element of IN
+            return "ENTITY_ATTRIBUTE".equals(node.path("category").asText()) && !"TUPLE".equals(node.path("rank").asText());
+        }
+
+        private static boolean isLiteral(JsonNode node) {
+
+            return "LITERAL".equals(node.path("category").asText()) && node.hasNonNull("value") && node.hasNonNull("type");
+        }
+
+        private static List<JsonNode> toList(JsonNode array) {
+
+            var values = new ArrayList<JsonNode>();
+            array.forEach(values::add);
+
+            return values;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.soarse.abac.demo.condition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.soarse.abac.demo.computation.FormulaSqlTranslator;
+import com.soarse.abac.demo.computation.PartialEvaluator;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.formula.FormulaParser;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.abac.demo.policy.IndexedPolicy;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.formula.service.FiltrationFormulaService;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.Table;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.soarse.abac.demo.computation.PartialEvaluator.constant;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isFalse;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isTrue;
+import static com.soarse.abac.demo.policy.PolicyDocuments.INCLUDE;
+import static com.soarse.abac.demo.policy.PolicyDocuments.WILDCARD;
+import static com.soarse.abac.demo.policy.PolicyDocuments.rules;
+import static org.jooq.impl.DSL.falseCondition;
+import static org.jooq.impl.DSL.trueCondition;
+
+/**
+ * Builds the ABAC condition of a permission point from the filters of the applicable policies.
+ * <p>
+ * The filters of the policies granting access to the table are merged into a single formula, an {@code OR} of the filters,
+ * each of which is an {@code AND} of its rules, or {@code true} for a wildcard filter. The user-only subexpressions
+ * of the formula are folded by the {@link PartialEvaluator} before the formula is translated, so the database
+ * receives only the predicates on the rows. The remaining formula is simplified by the {@link FormulaMinimizer},
+ * since the filters of different policies often repeat the same comparisons. A formula folded to a constant
+ * is not translated at all.
+ * <p>
+ * With {@code abac-demo.condition-builder.bind-parameters} the formula is translated by the {@link FormulaSqlTranslator},
+ * which binds all values including the arrays, so the users sharing the applicable policies share the SQL text
+ * and its prepared statement. Formulas the translator does not support are translated by the library.
+ */
+@Slf4j
+@Component
+public class PolicyConditionBuilder {
+
+    private final ApplicablePolicyService applicablePolicyService;
+    private final UserAttributeResolver userAttributeResolver;
+    private final PartialEvaluator partialEvaluator;
+    private final FormulaMinimizer formulaMinimizer;
+    private final FormulaParser formulaParser;
+    private final FiltrationFormulaService filtrationFormulaService;
+    private final FormulaSqlTranslator formulaSqlTranslator;
+    private final boolean enabled;
+    private final boolean partialEvaluation;
+    private final boolean minimization;
+    private final boolean bindParameters;
+
+    public PolicyConditionBuilder(ApplicablePolicyService applicablePolicyService,
+                                  UserAttributeResolver userAttributeResolver,
+                                  PartialEvaluator partialEvaluator,
+                                  FormulaMinimizer formulaMinimizer,
+                                  FormulaParser formulaParser,
+                                  FiltrationFormulaService filtrationFormulaService,
+                                  FormulaSqlTranslator formulaSqlTranslator,
+                                  AbacDemoProperties properties) {
+
+        var settings = properties.getConditionBuilder();
+
+        this.applicablePolicyService = applicablePolicyService;
+        this.userAttributeResolver = userAttributeResolver;
+        this.partialEvaluator = partialEvaluator;
+        this.formulaMinimizer = formulaMinimizer;
+        this.formulaParser = formulaParser;
+        this.filtrationFormulaService = filtrationFormulaService;
+        this.formulaSqlTranslator = formulaSqlTranslator;
+        this.enabled = settings.isEnabled();
+        this.partialEvaluation = settings.isPartialEvaluation();
+        this.minimization = settings.isMinimization();
+        this.bindParameters = settings.isBindParameters();
+    }
+
+    /**
+     * Checks whether the ABAC conditions are built by this builder instead of the library.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Returns the ABAC condition of the permission point for the current user,
+     * or empty, if the policies have filters of a mode the builder does not support.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param effect  Effect of the action on the data
+     * @param table   Table of the permission point
+     */
+    public Optional<Condition> build(String pointId, ActionEffect effect, Table<?> table) {
+
+        return toFormula(pointId, effect, table).map(formula -> {
+            if (isTrue(formula)) {
+                return trueCondition();
+            }
+
+            if (isFalse(formula)) {
+                return falseCondition();
+            }
+
+            if (bindParameters) {
+                try {
+                    return formulaSqlTranslator.toCondition(table, formula);
+                } catch (UnsupportedOperationException e) {
+                    log.debug("Condition of {} is translated by the library: {}", pointId, e.getMessage());
+                }
+            }
+
+            return filtrationFormulaService.toCondition(formulaParser.parse(formula));
+        });
+    }
+
+    /**
+     * Returns the document of the merged, evaluated and minimized filter formula of the permission point for the current user,
+     * or empty, if the policies have filters of a mode the builder does not support.
+     */
+    public Optional<JsonNode> toFormula(String pointId, ActionEffect effect, Table<?> table) {
+
+        var filters = new ArrayList<JsonNode>();
+
+        for (var policy : applicablePolicyService.findApplicableIndexedPolicies(pointId, effect, table)) {
+            var policyFilters = toFilterFormulas(policy);
+
+            if (policyFilters.isEmpty()) {
+                log.debug("Policy {} has filters the builder does not support", policy.document().path("id").asText());
+                return Optional.empty();
+            }
+
+            filters.addAll(policyFilters.get());
+        }
+
+        // Without granting policies no rows are visible
+        var formula = junction("OR", filters);
+
+        if (partialEvaluation) {
+            formula = partialEvaluator.evaluate(formula, userAttributeResolver.current(), true);
+        }
+
+        return Optional.of(minimization ? formulaMinimizer.minimize(formula) : formula);
+    }
+
+    /**
+     * Returns the formulas of the filters of the policy, or empty, if the policy has a filter of an unsupported mode.
+     */
+    static Optional<List<JsonNode>> toFilterFormulas(IndexedPolicy policy) {
+
+        var formulas = new ArrayList<JsonNode>();
+
+        for (var filter : policy.filters()) {
+            var mode = filter.path("mode").asText();
+
+            if (WILDCARD.equals(mode)) {
+                formulas.add(constant(true));
+            } else if (INCLUDE.equals(mode)) {
+                formulas.add(junction("AND", rules(filter).map(rule -> rule.path("formula")).toList()));
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(formulas);
+    }
+
+    /**
+     * Returns {@code AND} or {@code OR} of the operands, which is the neutral constant for no operands.
+     */
+    static JsonNode junction(String operation, List<JsonNode> operands) {
+
+        if (operands.isEmpty()) {
+            return constant("AND".equals(operation));
+        }
+
+        if (operands.size() == 1) {
+            return operands.get(0);
+        }
+
+        var junction = JsonNodeFactory.instance.objectNode()
+                .put("category", "PREDICATE")
+                .put("operation", operation);
+        junction.putArray("operands").addAll(operands);
+
+        return junction;
+    }
+}
@@ -0,0 +1,108 @@
+package com.soarse.abac.demo.condition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.demo.computation.FormulaSqlTranslator;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.abac.demo.policy.IndexedPolicy;
+import com.soarse.abac.demo.policy.PolicyIndex;
+import com.soarse.abac.model.action.ActionEffect;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Table;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.soarse.abac.demo.computation.PartialEvaluator.isFalse;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isTrue;
+import static com.soarse.abac.demo.condition.PolicyConditionBuilder.junction;
+import static com.soarse.abac.demo.condition.PolicyConditionBuilder.toFilterFormulas;
+import static com.soarse.abac.demo.policy.PolicyDocuments.permissions;
+import static com.soarse.abac.demo.policy.PolicyDocuments.targetRules;
+import static org.jooq.impl.DSL.falseCondition;
+import static org.jooq.impl.DSL.or;
+import static org.jooq.impl.DSL.trueCondition;
+
+/**
+ * Compiles the universal and entity policies of a table into the SQL expression of a row-level security policy.
+ * <p>
+ * Each policy becomes the conjunction of its target rules, its permissions and its filters, and the expression is
+ * the disjunction of the policies. The user attributes are read from a session setting, so the expression does not
+ * depend on the user. The action policies are not included, since the database does not know the permission point.
+ * A policy, which cannot be expressed in SQL, e.g. one with a filter over a dataset, is left out, so it denies access
+ * rather than grants it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RowSecurityPolicyCompiler {
+
+    private final DSLContext dsl;
+    private final PolicyIndex policyIndex;
+    private final ApplicablePolicyService applicablePolicyService;
+    private final FormulaMinimizer formulaMinimizer;
+    private final FormulaSqlTranslator formulaSqlTranslator;
+
+    /**
+     * Returns the SQL expression of the rows of the table the current policies grant access to.
+     *
+     * @param effect  Effect of the actions on the data
+     * @param table   Table of the rows
+     * @param setting Name of the session setting holding the JSON document of the user attributes
+     */
+    public String compile(ActionEffect effect, Table<?> table, String setting) {
+
+        var conditions = new ArrayList<Condition>();
+
+        for (var policy : policyIndex.findTablePolicies(effect, applicablePolicyService.toEntityId(table), table)) {
+            if (!policy.grantsAccess()) {
+                continue;
+            }
+
+            try {
+                conditions.add(toCondition(policy, table, setting));
+            } catch (UnsupportedOperationException e) {
+                log.warn("Policy {} is not enforced by the row-level security of {}: {}",
+                        policy.document().path("id").asText(), table.getName(), e.getMessage());
+            }
+        }
+
+        return dsl.renderInlined(conditions.isEmpty() ? falseCondition() : or(conditions));
+    }
+
+    private Condition toCondition(IndexedPolicy policy, Table<?> table, String setting) {
+
+        var filters = toFilterFormulas(policy)
+                .orElseThrow(() -> new UnsupportedOperationException("Filter mode is not supported"));
+
+        var conjuncts = new ArrayList<>(formulas(targetRules(policy.document())));
+        var permissions = formulas(permissions(policy.document()));
+
+        if (!permissions.isEmpty()) {
+            conjuncts.add(junction("OR", permissions));
+        }
+
+        conjuncts.add(junction("OR", filters));
+
+        var formula = formulaMinimizer.minimize(junction("AND", conjuncts));
+
+        if (isTrue(formula)) {
+            return trueCondition();
+        }
+
+        if (isFalse(formula)) {
+            return falseCondition();
+        }
+
+        return formulaSqlTranslator.toSessionCondition(table, formula, setting);
+    }
+
+    private static List<JsonNode> formulas(Stream<JsonNode> rules) {
+
+        return rules.map(rule -> rule.path("formula")).toList();
+    }
+}
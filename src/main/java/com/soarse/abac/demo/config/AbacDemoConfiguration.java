@@ -0,0 +1,12 @@
+package com.soarse.abac.demo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the demo services.
+ */
+@Configuration
+@EnableConfigurationProperties(AbacDemoProperties.class)
+public class AbacDemoConfiguration {
+}
@@ -0,0 +1,187 @@
+package com.soarse.abac.demo.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the demo services.
+ */
+@Data
+@ConfigurationProperties("abac-demo")
+public class AbacDemoProperties {
+
+    /**
+     * Page settings of the keyset-paginated fetch methods
+     */
+    private Pagination pagination = new Pagination();
+
+    /**
+     * Settings of the streaming fetch methods
+     */
+    private Streaming streaming = new Streaming();
+
+    /**
+     * Settings of the cache of the ABAC conditions
+     */
+    private CacheSettings conditionCache = new CacheSettings(false, 10_000, Duration.ofMinutes(10));
+
+    /**
+     * Settings of the cache of the user attributes by the authenticated users
+     */
+    private CacheSettings userAttributeCache = new CacheSettings(true, 10_000, Duration.ofMinutes(5));
+
+    /**
+     * Settings of the index of the policies by the permission points
+     */
+    private CacheSettings policyIndex = new CacheSettings(true, 10_000, Duration.ofHours(1));
+
+    /**
+     * Settings of the ABAC conditions built from the applicable policies
+     */
+    private ConditionBuilder conditionBuilder = new ConditionBuilder();
+
+    /**
+     * Settings of the enforcement of the read and write filters by the row-level security policies of the database
+     */
+    private RowSecurity rowSecurity = new RowSecurity();
+
+    /**
+     * Settings of the cache of the conditions translated from the user filters
+     */
+    private CacheSettings filterCache = new CacheSettings(true, 1_000, Duration.ofHours(1));
+
+    /**
+     * Settings of the cache of the formulas parsed from the JSON documents of the clients and the policies
+     */
+    private CacheSettings parsedFormulaCache = new CacheSettings(true, 1_000, Duration.ofHours(1));
+
+    /**
+     * Settings of the cache of the formulas compiled for the in-memory computation
+     */
+    private CacheSettings compiledFormulaCache = new CacheSettings(true, 10_000, Duration.ofHours(1));
+
+    /**
+     * Settings of the batch modification methods
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Settings of the bulk computation of the computable fields
+     */
+    private Computation computation = new Computation();
+
+    @Data
+    public static class Pagination {
+
+        /**
+         * Page size used when the client does not specify one
+         */
+        private int defaultPageSize = 50;
+
+        /**
+         * The largest page size the client can request
+         */
+        private int maxPageSize = 1000;
+    }
+
+    @Data
+    public static class Streaming {
+
+        /**
+         * Number of rows the JDBC driver fetches from the database cursor at once
+         */
+        private int fetchSize = 500;
+    }
+
+    @Data
+    public static class ConditionBuilder {
+
+        /**
+         * Whether the ABAC conditions are built from the filters of the applicable policies instead of by the library
+         */
+        private boolean enabled;
+
+        /**
+         * Whether the subexpressions depending only on the user attributes are folded into constants before the translation
+         */
+        private boolean partialEvaluation = true;
+
+        /**
+         * Whether the merged filter formula is simplified, e.g. equalities of a column are merged into {@code IN}
+         */
+        private boolean minimization = true;
+
+        /**
+         * Whether the conditions are translated with all values bound, so the SQL text depends only on the applicable policies
+         */
+        private boolean bindParameters;
+
+        /**
+         * Number of executions of a statement on a connection, after which the driver prepares it on the server, when the values are bound
+         */
+        private int prepareThreshold = 1;
+    }
+
+    @Data
+    public static class RowSecurity {
+
+        /**
+         * Whether the filters are compiled into row-level security policies, which the database enforces instead of the services
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum wait for the locks of the tables, when their policies are replaced, so the readers queued behind
+         * the replacement are not blocked for long
+         */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Number of rows of a single statement, which keeps the statements within the bind value limit of the driver
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Computation {
+
+        /**
+         * Number of documents, from which the fields are computed in parallel
+         */
+        private int parallelThreshold = 1000;
+
+        /**
+         * Number of threads computing the fields in parallel
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheSettings {
+
+        /**
+         * Whether the cache is used
+         */
+        private boolean enabled;
+
+        /**
+         * The largest number of cached entries, the least recently used ones are evicted first
+         */
+        private long maximumSize;
+
+        /**
+         * Time after which a cached entry is computed again
+         */
+        private Duration expireAfterWrite;
+    }
+}
@@ -0,0 +1,38 @@
+package com.soarse.abac.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets the JDBC driver prepare the statements on the server early, when the ABAC conditions are translated with bound values
+ * by {@code abac-demo.condition-builder.bind-parameters}.
+ * <p>
+ * The driver keeps the prepared statements per connection by their SQL text, which then depends only on the applicable
+ * policies, so the parse and plan time of a repeated query is spent once per connection.
+ */
+@Component
+@RequiredArgsConstructor
+public class PreparedStatementPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<AbacDemoProperties> properties;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+
+        if (!(bean instanceof HikariDataSource dataSource)) {
+            return bean;
+        }
+
+        var settings = properties.getObject().getConditionBuilder();
+
+        if (settings.isBindParameters()) {
+            // The pool opens its connections later, so they get the driver properties set here
+            dataSource.addDataSourceProperty("prepareThreshold", String.valueOf(settings.getPrepareThreshold()));
+        }
+
+        return bean;
+    }
+}
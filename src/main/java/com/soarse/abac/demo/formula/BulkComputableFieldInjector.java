@@ -0,0 +1,299 @@
+package com.soarse.abac.demo.formula;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.computation.PushDownComputationService;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.formula.Formula;
+import com.soarse.formula.service.computations.ComputableFieldInjectionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static com.soarse.abac.demo.computation.ComputationSource.COMPUTABLE_PROPERTY;
+
+/**
+ * Adds the computable fields to a list of documents at once.
+ * <p>
+ * Aggregates over a dataset, e.g. the average salary of the employee's branch, depend only on the scope attributes
+ * they refer to. Each distinct aggregate is computed once and substituted into the formulas as a literal,
+ * so the remaining computation of each document is done in memory and, for large lists, in parallel.
+ * The values of the scope attributes are bound into the aggregate, so {@link PushDownComputationService}
+ * computes it by a single query, if it can be translated.
+ */
+@Slf4j
+@Component
+public class BulkComputableFieldInjector {
+
+    private static final String AGGREGATE_FIELD = "$aggregate";
+
+    /**
+     * Classes of the values of the aggregates computed by the push-down, by the formula type
+     */
+    private static final Map<String, Class<?>> VALUE_TYPES = Map.of(
+            "INTEGER", Long.class,
+            "NUMBER", BigDecimal.class,
+            "STRING", String.class,
+            "BOOLEAN", Boolean.class);
+
+    private final ComputableFieldInjectionService computableFieldInjectionService;
+    private final FormulaDocuments formulaDocuments;
+    private final FormulaParser formulaParser;
+    private final PushDownComputationService pushDownComputationService;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public BulkComputableFieldInjector(ComputableFieldInjectionService computableFieldInjectionService,
+                                       FormulaDocuments formulaDocuments,
+                                       FormulaParser formulaParser,
+                                       PushDownComputationService pushDownComputationService,
+                                       AbacDemoProperties properties) {
+
+        var settings = properties.getComputation();
+
+        this.computableFieldInjectionService = computableFieldInjectionService;
+        this.formulaDocuments = formulaDocuments;
+        this.formulaParser = formulaParser;
+        this.pushDownComputationService = pushDownComputationService;
+        this.parallelThreshold = settings.getParallelThreshold();
+        this.pool = new ForkJoinPool(settings.getParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        pool.shutdown();
+    }
+
+    /**
+     * Adds the computable fields to each document, the same way as {@link ComputableFieldInjectionService#injectComputableFields}.
+     *
+     * @param documents Documents, which are also the scopes of the computation
+     * @param formulas  Formulas of the fields by the field names
+     */
+    public void injectComputableFields(List<ObjectNode> documents, Map<String, Formula> formulas) {
+
+        if (documents.isEmpty() || formulas.isEmpty()) {
+            return;
+        }
+
+        var fields = new LinkedHashMap<String, Field>();
+        formulas.forEach((name, formula) -> fields.put(name, new Field(formulaDocuments.toDocument(formula))));
+
+        // Aggregates are computed on the calling thread, so they see its transaction and security context
+        var documentFormulas = new ArrayList<Map<String, Formula>>(documents.size());
+
+        for (var document : documents) {
+            var rewrittenFormulas = new LinkedHashMap<String, Formula>();
+            fields.forEach((name, field) -> rewrittenFormulas.put(name, field.rewrite(document)));
+            documentFormulas.add(rewrittenFormulas);
+        }
+
+        log.debug("Computed {} distinct aggregates for {} documents", fields.values().stream().mapToInt(field -> field.values.size()).sum(), documents.size());
+
+        // Formulas referring to the user attributes are computed on the calling thread, since the attributes may be bound to it.
+        // So are the rewritten formulas still fetching a dataset, i.e. a top-level fetch or an aggregate without a value,
+        // since the fetch needs the transaction and security context of the calling thread.
+        var dependencies = FormulaDependencies.of(fields.values().stream()
+                .flatMap(field -> field.formulas.values().stream())
+                .map(formulaDocuments::toDocument)
+                .toList());
+        var isParallel = documents.size() >= parallelThreshold
+                && dependencies.getUserAttributePaths().isEmpty()
+                && !dependencies.isFetching();
+
+        if (isParallel) {
+            pool.submit(() -> IntStream.range(0, documents.size()).parallel()
+                            .forEach(index -> computableFieldInjectionService.injectComputableFields(documents.get(index), documentFormulas.get(index))))
+                    .join();
+        } else {
+            for (int index = 0; index < documents.size(); index++) {
+                computableFieldInjectionService.injectComputableFields(documents.get(index), documentFormulas.get(index));
+            }
+        }
+    }
+
+    /**
+     * Formula of a computable field with its aggregates memoized by the values of the scope attributes.
+     */
+    private class Field {
+
+        private final JsonNode document;
+
+        /**
+         * Paths of the scope attributes by the aggregate nodes
+         */
+        private final Map<JsonNode, List<String>> aggregates = new IdentityHashMap<>();
+
+        /**
+         * Values of the aggregates by the aggregate node and the values of its scope attributes
+         */
+        private final Map<List<JsonNode>, JsonNode> values = new HashMap<>();
+
+        /**
+         * Rewritten formulas by the values of all aggregates
+         */
+        private final Map<List<JsonNode>, Formula> formulas = new HashMap<>();
+
+        Field(JsonNode document) {
+
+            this.document = document;
+
+            collectAggregates(document);
+        }
+
+        Formula rewrite(ObjectNode scope) {
+
+            var aggregateValues = new IdentityHashMap<JsonNode, JsonNode>();
+            var formulaKey = new ArrayList<JsonNode>();
+
+            aggregates.forEach((aggregate, paths) -> {
+                var key = new ArrayList<JsonNode>();
+                key.add(aggregate);
+                paths.forEach(path -> key.add(scope.at(toPointer(path))));
+
+                var value = values.computeIfAbsent(key, ignored -> compute(aggregate, paths, scope));
+                aggregateValues.put(aggregate, value);
+                formulaKey.add(value);
+            });
+
+            return formulas.computeIfAbsent(formulaKey,
+                    ignored -> formulaParser.parse(substitute(document, aggregateValues)));
+        }
+
+        private JsonNode compute(JsonNode aggregate, List<String> paths, ObjectNode scope) {
+
+            var type = VALUE_TYPES.get(aggregate.path("type").asText());
+
+            // Scope attributes with scalar values become literals, so the aggregate no longer depends on the scope
+            if (type != null && paths.stream().map(path -> scope.at(toPointer(path))).allMatch(value -> value.isValueNode() && !value.isNull())) {
+                var value = pushDownComputationService.computeValue(COMPUTABLE_PROPERTY, formulaParser.parse(bind(aggregate, scope)), type);
+
+                return value == null ? MissingNode.getInstance() : JsonNodeFactory.instance.textNode(value.toString());
+            }
+
+            var copy = scope.deepCopy();
+            computableFieldInjectionService.injectComputableFields(copy, Map.of(AGGREGATE_FIELD, formulaParser.parse(aggregate)));
+
+            var value = copy.path(AGGREGATE_FIELD);
+
+            return value.isNull() ? MissingNode.getInstance() : value;
+        }
+
+        /**
+         * Replaces the scope attributes with literals of their values in the scope.
+         */
+        private JsonNode bind(JsonNode node, ObjectNode scope) {
+
+            if (node.isObject() && "SCOPE_ATTRIBUTE".equals(node.path("category").asText())) {
+                return JsonNodeFactory.instance.objectNode()
+                        .put("category", "LITERAL")
+                        .put("type", node.path("type").asText())
+                        .put("value", scope.at(toPointer(node.path("path").asText())).asText());
+            }
+
+            if (node.isObject()) {
+                var copy = JsonNodeFactory.instance.objectNode();
+                node.fields().forEachRemaining(field -> copy.set(field.getKey(), bind(field.getValue(), scope)));
+                return copy;
+            }
+
+            if (node.isArray()) {
+                var copy = JsonNodeFactory.instance.arrayNode();
+                node.forEach(element -> copy.add(bind(element, scope)));
+                return copy;
+            }
+
+            return node;
+        }
+
+        /**
+         * Replaces the aggregates having a value with literals.
+         */
+        private JsonNode substitute(JsonNode node, Map<JsonNode, JsonNode> aggregateValues) {
+
+            var value = aggregateValues.get(node);
+
+            if (value != null && !value.isMissingNode()) {
+                return JsonNodeFactory.instance.objectNode()
+                        .put("category", "LITERAL")
+                        .put("type", node.path("type").asText())
+                        .put("value", value.asText());
+            }
+
+            if (node.isObject()) {
+                var copy = JsonNodeFactory.instance.objectNode();
+                node.fields().forEachRemaining(field -> copy.set(field.getKey(), substitute(field.getValue(), aggregateValues)));
+                return copy;
+            }
+
+            if (node.isArray()) {
+                var copy = JsonNodeFactory.instance.arrayNode();
+                node.forEach(element -> copy.add(substitute(element, aggregateValues)));
+                return copy;
+            }
+
+            return node;
+        }
+
+        /**
+         * Finds the functions of the datasets fetched in the scope of the document, e.g. {@code AVG(FETCH_ALL(...))}.
+         */
+        private void collectAggregates(JsonNode node) {
+
+            if (isFetch(node)) {
+                // Scope attributes inside a top-level fetch may refer to the fetched rows
+                return;
+            }
+
+            if (node.isObject() && "FUNCTION".equals(node.path("category").asText())) {
+                for (var operand : node.path("operands")) {
+                    if (isFetch(operand)) {
+                        var paths = new TreeSet<String>();
+                        collectScopeAttributes(node, paths);
+                        aggregates.put(node, List.copyOf(paths));
+                        return;
+                    }
+                }
+            }
+
+            for (var child : node) {
+                collectAggregates(child);
+            }
+        }
+
+        private void collectScopeAttributes(JsonNode node, TreeSet<String> paths) {
+
+            if (node.isObject() && "SCOPE_ATTRIBUTE".equals(node.path("category").asText())) {
+                paths.add(node.path("path").asText());
+            }
+
+            for (var child : node) {
+                collectScopeAttributes(child, paths);
+            }
+        }
+
+        private boolean isFetch(JsonNode node) {
+
+            return node.isObject() && "FETCH_ALL".equals(node.path("operation").asText());
+        }
+
+        private String toPointer(String path) {
+
+            return "/" + path.replace('.', '/');
+        }
+    }
+}
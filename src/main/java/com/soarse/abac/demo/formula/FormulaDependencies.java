@@ -0,0 +1,86 @@
+package com.soarse.abac.demo.formula;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Inputs of formulas other than the entity attributes.
+ * <p>
+ * A result derived from the formulas depends only on the referenced user attributes,
+ * unless the formulas are volatile, i.e. refer to the current time or to the computation scope.
+ */
+@Value
+public class FormulaDependencies {
+
+    /**
+     * Paths of the referenced user attributes in ascending order
+     */
+    SortedSet<String> userAttributePaths;
+
+    /**
+     * Whether the formulas depend on inputs other than the user attributes
+     */
+    boolean isVolatile;
+
+    /**
+     * Whether the formulas fetch datasets, whose rows are read regardless of the ABAC filters
+     */
+    boolean isFetching;
+
+    /**
+     * Collects the dependencies of all formulas nested in the documents, e.g. in policies.
+     */
+    public static FormulaDependencies of(Collection<JsonNode> documents) {
+
+        var paths = new TreeSet<String>();
+        var isVolatile = documents.stream()
+                .map(document -> collect(document, paths))
+                .reduce(false, Boolean::logicalOr);
+        var isFetching = documents.stream().anyMatch(FormulaDependencies::fetches);
+
+        return new FormulaDependencies(paths, isVolatile, isFetching);
+    }
+
+    /**
+     * Adds the user attributes referenced in the node to the paths and returns whether the node is volatile.
+     */
+    private static boolean collect(JsonNode node, SortedSet<String> paths) {
+
+        var isVolatile = false;
+
+        if (node.isObject()) {
+            var category = node.path("category").asText();
+
+            if ("USER_ATTRIBUTE".equals(category)) {
+                paths.add(node.path("path").asText());
+            }
+
+            isVolatile = "SCOPE_ATTRIBUTE".equals(category) || node.path("operation").asText().startsWith("CURRENT_");
+        }
+
+        for (var child : node) {
+            isVolatile |= collect(child, paths);
+        }
+
+        return isVolatile;
+    }
+
+    private static boolean fetches(JsonNode node) {
+
+        if (node.isObject() && "FETCH_ALL".equals(node.path("operation").asText())) {
+            return true;
+        }
+
+        for (var child : node) {
+            if (fetches(child)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package com.soarse.abac.demo.formula;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts formulas to their JSON documents and back.
+ * <p>
+ * Analysis and rewriting of formulas works with the documents, so it depends only on the JSON structure of a formula.
+ * Documents of the parsed formulas are remembered, so they are not converted again for each analysis.
+ */
+@Component
+@RequiredArgsConstructor
+public class FormulaDocuments {
+
+    private final ObjectMapper mapper;
+
+    /**
+     * Documents by the identity of the formulas, which are released together with the formulas
+     */
+    private final Cache<Formula, JsonNode> documents = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    public JsonNode toDocument(Formula formula) {
+
+        var document = documents.getIfPresent(formula);
+
+        return document != null ? document : mapper.valueToTree(formula);
+    }
+
+    /**
+     * Remembers the document of the formula, which must not be modified afterwards.
+     */
+    public void remember(Formula formula, JsonNode document) {
+
+        documents.put(formula, document);
+    }
+
+    @SneakyThrows
+    public Formula toFormula(JsonNode document) {
+
+        return mapper.treeToValue(document, Formula.class);
+    }
+}
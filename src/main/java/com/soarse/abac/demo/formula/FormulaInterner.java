@@ -0,0 +1,57 @@
+package com.soarse.abac.demo.formula;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hash-conses the formula documents, so identical subtrees are shared by all documents.
+ * <p>
+ * Formulas repeat the same nodes, e.g. the {@code {schema, table, field}} reference of each entity attribute
+ * or the same user attribute in several filters. Interned documents keep one instance of each distinct subtree,
+ * and comparing them stops at the first shared subtree, since equality of JSON nodes checks identity first.
+ * Interned nodes are shared, so they must not be modified.
+ */
+@Component
+public class FormulaInterner {
+
+    /**
+     * The largest number of distinct interned subtrees, the least recently used ones are evicted first
+     */
+    private static final long MAXIMUM_SIZE = 100_000;
+
+    /**
+     * Canonical instances of the subtrees by themselves
+     */
+    private final Cache<JsonNode, JsonNode> subtrees = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    /**
+     * Returns the canonical instance of the document, whose subtrees are canonical as well.
+     */
+    public JsonNode intern(JsonNode node) {
+
+        if (node.isObject()) {
+            var copy = JsonNodeFactory.instance.objectNode();
+            node.fields().forEachRemaining(field -> copy.set(field.getKey(), intern(field.getValue())));
+            return canonical(copy);
+        }
+
+        if (node.isArray()) {
+            var copy = JsonNodeFactory.instance.arrayNode(node.size());
+            node.forEach(element -> copy.add(intern(element)));
+            return canonical(copy);
+        }
+
+        return canonical(node);
+    }
+
+    private JsonNode canonical(JsonNode node) {
+
+        // The children are already canonical, so the lookup compares them by identity
+        return subtrees.get(node, key -> key);
+    }
+}
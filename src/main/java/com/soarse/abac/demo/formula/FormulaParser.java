@@ -0,0 +1,94 @@
+package com.soarse.abac.demo.formula;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.formula.Formula;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.SneakyThrows;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parses the formulas received from the clients, e.g. the user filters, and the formulas of the policy rules
+ * and of the rewritten or evaluated documents.
+ * <p>
+ * Parsed formulas are cached by the JSON document, so a popular filter or a rule of many policies is converted
+ * by Jackson once. The document of the formula is hash-consed by {@link FormulaInterner} and remembered by
+ * {@link FormulaDocuments}, so the caches keyed by the documents do not convert the formula back to JSON.
+ * Cached formulas and documents are shared, so they must not be modified.
+ */
+@Component
+public class FormulaParser {
+
+    private final ObjectMapper mapper;
+    private final FormulaInterner formulaInterner;
+    private final FormulaDocuments formulaDocuments;
+    private final boolean enabled;
+
+    /**
+     * Parsed formulas by the JSON document
+     */
+    private final Cache<JsonNode, Formula> formulas;
+
+    public FormulaParser(ObjectMapper mapper,
+                         FormulaInterner formulaInterner,
+                         FormulaDocuments formulaDocuments,
+                         AbacDemoProperties properties,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var settings = properties.getParsedFormulaCache();
+
+        this.mapper = mapper;
+        this.formulaInterner = formulaInterner;
+        this.formulaDocuments = formulaDocuments;
+        this.enabled = settings.isEnabled();
+
+        this.formulas = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, formulas, "abac.parsed-formulas"));
+    }
+
+    /**
+     * Returns the formula of the JSON text.
+     */
+    @SneakyThrows
+    public Formula parse(String json) {
+
+        return parse(mapper.readTree(json));
+    }
+
+    /**
+     * Returns the formula of the JSON document, which must not be modified afterwards.
+     */
+    public Formula parse(JsonNode document) {
+
+        return enabled ? formulas.get(document, this::parseDocument) : parseDocument(document);
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the parsed formulas.
+     */
+    public CacheStats stats() {
+
+        return formulas.stats();
+    }
+
+    private Formula parseDocument(JsonNode document) {
+
+        var interned = formulaInterner.intern(document);
+        var formula = formulaDocuments.toFormula(interned);
+
+        formulaDocuments.remember(formula, interned);
+
+        return formula;
+    }
+}
@@ -5,6 +5,7 @@ package com.soarse.abac.demo.generated.jooq;
 
 
 import com.soarse.abac.demo.generated.jooq.tables.Employee;
+import com.soarse.abac.demo.generated.jooq.tables.EmployeeAggregate;
 import com.soarse.abac.demo.generated.jooq.tables.Publication;
 
 import java.util.Arrays;
@@ -33,6 +34,11 @@ public class AbacDemo extends SchemaImpl {
      */
     public final Employee EMPLOYEE = Employee.EMPLOYEE;
 
+    /**
+     * Maintained aggregates of the employee table
+     */
+    public final EmployeeAggregate EMPLOYEE_AGGREGATE = EmployeeAggregate.EMPLOYEE_AGGREGATE;
+
     /**
      * Публикации медиахолдинга Логос
      */
@@ -55,6 +61,7 @@ public class AbacDemo extends SchemaImpl {
     public final List<Table<?>> getTables() {
         return Arrays.<Table<?>>asList(
             Employee.EMPLOYEE,
+            EmployeeAggregate.EMPLOYEE_AGGREGATE,
             Publication.PUBLICATION);
     }
 }
@@ -5,6 +5,7 @@ package com.soarse.abac.demo.generated.jooq;
 
 
 import com.soarse.abac.demo.generated.jooq.tables.Employee;
+import com.soarse.abac.demo.generated.jooq.tables.EmployeeAggregate;
 import com.soarse.abac.demo.generated.jooq.tables.Publication;
 
 
@@ -19,6 +20,11 @@ public class Tables {
      */
     public static final Employee EMPLOYEE = Employee.EMPLOYEE;
 
+    /**
+     * Maintained aggregates of the employee table
+     */
+    public static final EmployeeAggregate EMPLOYEE_AGGREGATE = EmployeeAggregate.EMPLOYEE_AGGREGATE;
+
     /**
      * Публикации медиахолдинга Логос
      */
@@ -0,0 +1,13 @@
+package com.soarse.abac.demo.index;
+
+/**
+ * Column used in the predicates of the policies or filters, which lacks a supporting index.
+ *
+ * @param schema    Schema of the table
+ * @param table     Table
+ * @param column    Column
+ * @param usages    Number of predicates on the column
+ * @param statement Statement creating a supporting index
+ */
+public record IndexAdvice(String schema, String table, String column, int usages, String statement) {
+}
@@ -0,0 +1,186 @@
+package com.soarse.abac.demo.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.annotation.permission.TablePermissionPoint;
+import com.soarse.abac.annotation.permission.TablePermissionPointService;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Table;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.soarse.abac.demo.generated.jooq.AbacDemo.ABAC_DEMO;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toSet;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.table;
+import static org.jooq.impl.SQLDataType.JSONB;
+
+/**
+ * Reports the columns, which the policies and filters predicate on, but which lack a supporting index.
+ * <p>
+ * A column is supported by a B-tree index, whose leading column it is, or by a GIN index on the column.
+ * The advisor reads the policies of all permission points of the services, so it sees the same policies as the library.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    private final DSLContext dsl;
+    private final ApplicationContext applicationContext;
+    private final FormulaDocuments formulaDocuments;
+    private final ApplicablePolicyService applicablePolicyService;
+
+    /**
+     * Advises indexes for the policies of all permission points and the given filters.
+     *
+     * @param filters Filters saved by the clients
+     */
+    public List<IndexAdvice> advise(Collection<Formula> filters) {
+
+        var documents = new ArrayList<JsonNode>(findPermissionPointPolicies());
+        filters.forEach(filter -> documents.add(formulaDocuments.toDocument(filter)));
+
+        return adviseForDocuments(documents);
+    }
+
+    /**
+     * Advises indexes for the columns referenced in the predicates of the documents, e.g. policies or formulas.
+     */
+    public List<IndexAdvice> adviseForDocuments(Collection<JsonNode> documents) {
+
+        // Usages of the columns by the schema-qualified table and column name
+        var usages = new TreeMap<List<String>, Integer>((a, b) -> String.join(".", a).compareTo(String.join(".", b)));
+        documents.forEach(document -> collectPredicateFields(document, false, usages));
+
+        var indexedColumns = findIndexedColumns();
+        var advice = new ArrayList<IndexAdvice>();
+
+        usages.forEach((column, count) -> {
+            if (!indexedColumns.contains(column)) {
+                advice.add(new IndexAdvice(column.get(0), column.get(1), column.get(2), count, toStatement(column)));
+            }
+        });
+
+        return advice;
+    }
+
+    /**
+     * Logs the advice on startup, so the missing indexes are noticed after the policies have changed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void logAdvice() {
+
+        if (!applicationContext.getEnvironment().getProperty("abac-demo.index-advisor.enabled", Boolean.class, false)) {
+            return;
+        }
+
+        var advice = advise(emptyList());
+
+        if (advice.isEmpty()) {
+            log.info("All columns used in the policies have a supporting index");
+        }
+
+        advice.forEach(item -> log.warn("Column {}.{}.{} is used in {} predicates without a supporting index, consider: {}",
+                item.schema(), item.table(), item.column(), item.usages(), item.statement()));
+    }
+
+    private List<JsonNode> findPermissionPointPolicies() {
+
+        var policies = new ArrayList<JsonNode>();
+
+        for (var service : applicationContext.getBeansWithAnnotation(TablePermissionPointService.class).values()) {
+            var serviceClass = AopUtils.getTargetClass(service);
+            var pointService = serviceClass.getAnnotation(TablePermissionPointService.class);
+
+            Table<?> table = ABAC_DEMO.getTable(pointService.table());
+
+            if (table == null) {
+                continue;
+            }
+
+            for (var method : serviceClass.getMethods()) {
+                var point = method.getAnnotation(TablePermissionPoint.class);
+
+                if (point != null) {
+                    policies.addAll(applicablePolicyService.findPolicies(point.id(), point.effect(), table));
+                }
+            }
+        }
+
+        return policies;
+    }
+
+    /**
+     * Collects the entity attributes, which are operands of predicates.
+     */
+    private void collectPredicateFields(JsonNode node, boolean isPredicateOperand, Map<List<String>, Integer> usages) {
+
+        if (node.isObject()) {
+            if (isPredicateOperand && "ENTITY_ATTRIBUTE".equals(node.path("category").asText())) {
+                var field = node.path("field");
+                usages.merge(List.of(field.path("schema").asText(), field.path("table").asText(), field.path("field").asText()), 1, Integer::sum);
+            }
+
+            var isPredicate = "PREDICATE".equals(node.path("category").asText());
+            node.path("operands").forEach(operand -> collectPredicateFields(operand, isPredicate, usages));
+
+            node.fields().forEachRemaining(field -> {
+                if (!"operands".equals(field.getKey())) {
+                    collectPredicateFields(field.getValue(), false, usages);
+                }
+            });
+        } else if (node.isArray()) {
+            node.forEach(element -> collectPredicateFields(element, false, usages));
+        }
+    }
+
+    /**
+     * Returns the schema-qualified columns, which lead a B-tree index or are covered by a GIN index.
+     */
+    private Set<List<String>> findIndexedColumns() {
+
+        var schemaName = field(name("n", "nspname"), String.class);
+        var tableName = field(name("t", "relname"), String.class);
+        var columnName = field(name("a", "attname"), String.class);
+        var method = field(name("am", "amname"), String.class);
+
+        return dsl.select(schemaName, tableName, columnName, method)
+                .from(table(name("pg_catalog", "pg_index")).as("i"))
+                .join(table(name("pg_catalog", "pg_class")).as("t")).on("t.oid = i.indrelid")
+                .join(table(name("pg_catalog", "pg_namespace")).as("n")).on("n.oid = t.relnamespace")
+                .join(table(name("pg_catalog", "pg_class")).as("ic")).on("ic.oid = i.indexrelid")
+                .join(table(name("pg_catalog", "pg_am")).as("am")).on("am.oid = ic.relam")
+                .join(table(name("pg_catalog", "pg_attribute")).as("a"))
+                .on("a.attrelid = t.oid and (a.attnum = i.indkey[0] or (am.amname = 'gin' and a.attnum = any (i.indkey)))")
+                .fetch()
+                .stream()
+                .map(record -> List.of(record.value1(), record.value2(), record.value3()))
+                .collect(toSet());
+    }
+
+    private String toStatement(List<String> column) {
+
+        var table = ABAC_DEMO.getName().equals(column.get(0)) ? ABAC_DEMO.getTable(column.get(1)) : null;
+        var field = table != null ? table.field(column.get(2)) : null;
+        var isJsonb = field != null && field.getDataType().getSQLDataType() == JSONB;
+
+        return "CREATE INDEX ON %s.%s %s(%s);".formatted(column.get(0), column.get(1), isJsonb ? "USING GIN " : "", column.get(2));
+    }
+}
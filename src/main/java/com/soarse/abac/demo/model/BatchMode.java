@@ -0,0 +1,17 @@
+package com.soarse.abac.demo.model;
+
+/**
+ * Handling of the rows of a batch rejected by the write filters
+ */
+public enum BatchMode {
+
+    /**
+     * A single rejected row rejects the whole batch
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * Rejected rows are left unchanged and reported, the rest of the batch is applied
+     */
+    SKIP_REJECTED
+}
@@ -0,0 +1,28 @@
+package com.soarse.abac.demo.model;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Outcome of a batch modification
+ */
+@Value
+public class BatchResult<T> {
+
+    /**
+     * Rows that have been modified
+     */
+    List<T> accepted;
+
+    /**
+     * Rows that have been rejected by the write filters and left unchanged
+     */
+    List<T> rejected;
+
+    public <U> BatchResult<U> map(Function<? super T, ? extends U> mapper) {
+
+        return new BatchResult<>(accepted.stream().<U>map(mapper).toList(), rejected.stream().<U>map(mapper).toList());
+    }
+}
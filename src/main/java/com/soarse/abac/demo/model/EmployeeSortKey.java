@@ -0,0 +1,21 @@
+package com.soarse.abac.demo.model;
+
+import com.soarse.abac.demo.generated.jooq.tables.records.EmployeeRecord;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jooq.TableField;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+
+/**
+ * Sort keys of the employee pages. Ties are broken by the employee ID.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EmployeeSortKey {
+
+    ID(EMPLOYEE.ID),
+    SALARY(EMPLOYEE.SALARY);
+
+    private final TableField<EmployeeRecord, ?> field;
+}
@@ -0,0 +1,33 @@
+package com.soarse.abac.demo.model;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of a keyset-paginated list
+ */
+@Value
+public class Page<T> {
+
+    /**
+     * Items of the page
+     */
+    List<T> items;
+
+    /**
+     * Opaque cursor of the next page or {@code null}, if this page is the last one
+     */
+    String nextCursor;
+
+    public boolean hasNext() {
+
+        return nextCursor != null;
+    }
+
+    public <U> Page<U> map(Function<? super T, ? extends U> mapper) {
+
+        return new Page<>(items.stream().<U>map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,32 @@
+package com.soarse.abac.demo.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Request of a page of a keyset-paginated list
+ */
+@Value
+@Builder
+public class PageRequest {
+
+    /**
+     * Cursor returned with the previous page or {@code null} for the first page
+     */
+    String cursor;
+
+    /**
+     * Page size or {@code null} for the default size
+     */
+    Integer size;
+
+    public static PageRequest first(int size) {
+
+        return new PageRequest(null, size);
+    }
+
+    public static PageRequest next(Page<?> page, int size) {
+
+        return new PageRequest(page.getNextCursor(), size);
+    }
+}
@@ -0,0 +1,22 @@
+package com.soarse.abac.demo.model;
+
+import com.soarse.abac.demo.generated.jooq.tables.records.PublicationRecord;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jooq.TableField;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+
+/**
+ * Sort keys of the publication pages. Ties are broken by the publication ID.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PublicationSortKey {
+
+    ID(PUBLICATION.ID),
+    AUTHOR_ID(PUBLICATION.AUTHOR_ID),
+    PUBLICATION_DATE(PUBLICATION.PUBLICATION_DATE);
+
+    private final TableField<PublicationRecord, ?> field;
+}
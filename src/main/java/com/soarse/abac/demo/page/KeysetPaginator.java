@@ -0,0 +1,153 @@
+package com.soarse.abac.demo.page;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.model.Page;
+import com.soarse.abac.demo.model.PageRequest;
+import com.soarse.abac.demo.projection.Projection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SelectLimitStep;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.jooq.impl.DSL.noCondition;
+import static org.jooq.impl.DSL.row;
+
+/**
+ * Fetches pages of a table by the seek method.
+ * <p>
+ * Instead of an offset, each page continues after the sort key and the ID of the last row of the previous page,
+ * so the cost of a page does not depend on its position and concurrent inserts do not shift the pages.
+ * The position is passed to the client as an opaque cursor.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeysetPaginator {
+
+    private static final String SORT_FIELD = "s";
+    private static final String KEY = "k";
+    private static final String ID = "i";
+
+    private final DSLContext dsl;
+    private final ObjectMapper mapper;
+    private final AbacDemoProperties properties;
+
+    /**
+     * Fetches a page of the rows, which meet the condition, ordered by the sort field and the ID.
+     * Rows with an empty sort field come last.
+     *
+     * @param table      Table
+     * @param condition  Condition of the rows, including the ABAC condition
+     * @param sortField  Field the rows are ordered by
+     * @param idField    Unique ID of a row, which breaks the ties of the sort field
+     * @param request    Cursor and size of the page
+     * @param projection Columns visible to the user, the hidden columns are not read except the ID, which is reset
+     */
+    public <R extends Record> Page<R> fetchPage(Table<R> table, Condition condition, TableField<R, ?> sortField,
+                                                TableField<R, UUID> idField, PageRequest request, Projection projection) {
+
+        // Ordering by a hidden field would disclose its values
+        if (!projection.isVisible(sortField)) {
+            throw new AccessDeniedException("Sorting by the field %s is forbidden in current context.".formatted(sortField.getName()));
+        }
+
+        var size = toPageSize(request.getSize());
+        var seekCondition = request.getCursor() != null ? toSeekCondition(request.getCursor(), sortField, idField) : noCondition();
+
+        var fields = projection.select(table, idField);
+
+        SelectLimitStep<Record> query = sortField.equals(idField)
+                ? dsl.select(fields).from(table).where(condition, seekCondition).orderBy(idField)
+                : dsl.select(fields).from(table).where(condition, seekCondition).orderBy(sortField.asc().nullsLast(), idField);
+
+        var records = query.limit(size + 1).fetch().into(table);
+
+        log.debug("Fetched {} rows of {} after cursor {}", records.size(), table.getName(), request.getCursor());
+
+        var hasNext = records.size() > size;
+        var items = hasNext ? records.subList(0, size) : records;
+
+        // The cursor is built before the projection resets the hidden fields
+        var nextCursor = hasNext ? toCursor(items.get(size - 1), sortField, idField) : null;
+
+        return new Page<>(items.stream().map(projection::apply).toList(), nextCursor);
+    }
+
+    private int toPageSize(Integer size) {
+
+        var pagination = properties.getPagination();
+
+        if (size == null) {
+            return pagination.getDefaultPageSize();
+        }
+
+        if (size < 1 || size > pagination.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and %d: %d".formatted(pagination.getMaxPageSize(), size));
+        }
+
+        return size;
+    }
+
+    private String toCursor(Record record, Field<?> sortField, Field<UUID> idField) {
+
+        var cursor = mapper.createObjectNode()
+                .put(SORT_FIELD, sortField.getName())
+                .put(ID, record.get(idField).toString());
+
+        var key = record.get(sortField);
+
+        if (key != null) {
+            cursor.put(KEY, key.toString());
+        } else {
+            cursor.putNull(KEY);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.toString().getBytes(UTF_8));
+    }
+
+    private <T> Condition toSeekCondition(String encodedCursor, Field<T> sortField, Field<UUID> idField) {
+
+        var cursor = decodeCursor(encodedCursor);
+
+        if (!sortField.getName().equals(cursor.path(SORT_FIELD).asText())) {
+            throw new IllegalArgumentException("The cursor does not match the sort field %s".formatted(sortField.getName()));
+        }
+
+        var id = UUID.fromString(cursor.path(ID).asText());
+
+        if (sortField.equals(idField)) {
+            return idField.gt(id);
+        }
+
+        // Rows with an empty sort field follow all rows with a non-empty one
+        if (cursor.path(KEY).isNull()) {
+            return sortField.isNull().and(idField.gt(id));
+        }
+
+        var key = sortField.getDataType().convert(cursor.path(KEY).asText());
+
+        return row(sortField, idField).gt(key, id).or(sortField.isNull());
+    }
+
+    private JsonNode decodeCursor(String encodedCursor) {
+
+        try {
+            return mapper.readTree(Base64.getUrlDecoder().decode(encodedCursor));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid page cursor: %s".formatted(encodedCursor), e);
+        }
+    }
+}
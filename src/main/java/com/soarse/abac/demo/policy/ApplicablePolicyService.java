@@ -0,0 +1,123 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.demo.computation.PushDownComputationService;
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Table;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.soarse.abac.demo.computation.ComputationSource.POLICY_RULE;
+
+/**
+ * Selects the policies, which apply to the current user at a permission point.
+ * <p>
+ * A policy applies if all rules of its target and at least one of its permissions are satisfied.
+ * The policies of a point are taken from the {@link PolicyIndex}. Their rules are evaluated by
+ * {@link PushDownComputationService#test}, which compiles them, and computes them by the library only
+ * if the compiler does not support them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApplicablePolicyService {
+
+    private final PolicyIndex policyIndex;
+    private final PushDownComputationService pushDownComputationService;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    /**
+     * Returns the documents of the policies applicable to the current user.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param effect  Effect of the action on the data
+     * @param table   Table of the permission point
+     */
+    public List<JsonNode> findApplicablePolicies(String pointId, ActionEffect effect, Table<?> table) {
+
+        return findApplicableIndexedPolicies(pointId, effect, table).stream()
+                .map(IndexedPolicy::document)
+                .toList();
+    }
+
+    /**
+     * Returns the policies applicable to the current user with their filters and projections matching the table.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param effect  Effect of the action on the data
+     * @param table   Table of the permission point
+     */
+    public List<IndexedPolicy> findApplicableIndexedPolicies(String pointId, ActionEffect effect, Table<?> table) {
+
+        return policyIndex.find(toActionId(pointId), effect, toEntityId(table), table).stream()
+                .filter(this::isApplicable)
+                .toList();
+    }
+
+    /**
+     * Returns the documents of all policies of the permission point, whether they apply to the current user or not.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param effect  Effect of the action on the data
+     * @param table   Table of the permission point
+     */
+    public List<JsonNode> findPolicies(String pointId, ActionEffect effect, Table<?> table) {
+
+        return policyIndex.find(toActionId(pointId), effect, toEntityId(table), table).stream()
+                .map(IndexedPolicy::document)
+                .toList();
+    }
+
+    /**
+     * Checks whether the permission point has action policies, which only the service can evaluate,
+     * since the database does not know the point.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     */
+    public boolean hasActionPolicies(String pointId) {
+
+        return policyIndex.hasActionPolicies(toActionId(pointId));
+    }
+
+    /**
+     * Returns the action ID of the permission point, qualified by the service name.
+     */
+    public String toActionId(String pointId) {
+
+        return "%s.%s".formatted(serviceName, pointId);
+    }
+
+    public TableEntityId toEntityId(Table<?> table) {
+
+        return new TableEntityId(serviceName, table.getSchema().getName(), table.getName());
+    }
+
+    private boolean isApplicable(IndexedPolicy policy) {
+
+        return policy.targetRules().stream().allMatch(this::isSatisfied)
+                && (policy.permissions().isEmpty() || policy.permissions().stream().anyMatch(this::isSatisfied));
+    }
+
+    private boolean isSatisfied(Formula formula) {
+
+        if (formula == null) {
+            return false;
+        }
+
+        try {
+            // The pre-parsed rule is compiled, or computed by the database, if it fetches a dataset, or by the library otherwise
+            return pushDownComputationService.test(POLICY_RULE, formula);
+        } catch (RuntimeException e) {
+            log.debug("Rule is not satisfied: {}", e.getMessage());
+            return false;
+        }
+    }
+}
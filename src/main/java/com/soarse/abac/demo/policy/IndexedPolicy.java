@@ -0,0 +1,33 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.formula.Formula;
+
+import java.util.List;
+
+/**
+ * Policy of a permission point prepared for the evaluation.
+ * <p>
+ * The rule formulas are converted from their documents, and the filters and projections are those matching the table of the point,
+ * so the wildcard descriptors are already resolved.
+ *
+ * @param document    Document of the policy
+ * @param targetRules Formulas of the target rules, {@code null} for a formula, which cannot be converted and is never satisfied
+ * @param permissions Formulas of the permissions, {@code null} for a formula, which cannot be converted and is never satisfied
+ * @param filters     Data filters matching the table
+ * @param projections Field projections matching the table
+ */
+public record IndexedPolicy(JsonNode document,
+                            List<Formula> targetRules,
+                            List<Formula> permissions,
+                            List<JsonNode> filters,
+                            List<JsonNode> projections) {
+
+    /**
+     * Checks whether the policy grants access to the rows of the table.
+     */
+    public boolean grantsAccess() {
+
+        return !filters.isEmpty();
+    }
+}
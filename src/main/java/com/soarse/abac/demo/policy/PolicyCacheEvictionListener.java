@@ -0,0 +1,42 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.demo.security.RowSecurityPolicies;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.stereotype.Component;
+
+/**
+ * Increments the policy version whenever the library evicts its policy cache,
+ * so the results derived from the evicted policies are not reused.
+ * <p>
+ * An eviction following a targeted invalidation keeps the version, since the derived results
+ * are keyed by the versions of the policies of their permission points, see {@link PolicySnapshots#pointVersion}.
+ * The row-level security policies are recompiled after either eviction.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class PolicyCacheEvictionListener {
+
+    private final PolicyVersion policyVersion;
+    private final PolicySnapshots policySnapshots;
+    private final RowSecurityPolicies rowSecurityPolicies;
+
+    @Before("execution(* com.soarse.abac.service.PolicyService.evictCache(..))")
+    public void onPolicyCacheEvicting() {
+
+        policySnapshots.onPolicyCacheEvicting();
+    }
+
+    @AfterReturning("execution(* com.soarse.abac.service.PolicyService.evictCache(..))")
+    public void onPolicyCacheEvicted() {
+
+        if (!policySnapshots.isTargetedEviction()) {
+            policyVersion.increment();
+        }
+
+        rowSecurityPolicies.refresh();
+    }
+}
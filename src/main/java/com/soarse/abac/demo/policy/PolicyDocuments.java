@@ -0,0 +1,82 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.jooq.Table;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Access to the parts of a policy JSON document.
+ */
+public final class PolicyDocuments {
+
+    public static final String WILDCARD = "WILDCARD";
+    public static final String INCLUDE = "INCLUDE";
+    public static final String EXCLUDE = "EXCLUDE";
+
+    private PolicyDocuments() {
+    }
+
+    /**
+     * Rules of the policy target, all of which must be satisfied for the policy to apply.
+     */
+    public static Stream<JsonNode> targetRules(JsonNode policy) {
+
+        return elements(policy.path("target").path("rules"));
+    }
+
+    /**
+     * Permissions of the policy, at least one of which must be satisfied, if there are any.
+     */
+    public static Stream<JsonNode> permissions(JsonNode policy) {
+
+        return elements(policy.path("permissions"));
+    }
+
+    /**
+     * Data filters of the policy, which apply to the given table.
+     */
+    public static Stream<JsonNode> filters(JsonNode policy, Table<?> table) {
+
+        return elements(policy.path("filters"))
+                .filter(filter -> matches(filter.path("descriptor"), table));
+    }
+
+    /**
+     * Field projections of the policy, which apply to the given table.
+     */
+    public static Stream<JsonNode> projections(JsonNode policy, Table<?> table) {
+
+        return elements(policy.path("projections"))
+                .filter(projection -> matches(projection.path("descriptor"), table));
+    }
+
+    /**
+     * Rules of a filter or a target, each of which contains a formula.
+     */
+    public static Stream<JsonNode> rules(JsonNode node) {
+
+        return elements(node.path("rules"));
+    }
+
+    /**
+     * Checks whether the descriptor refers to the table. A descriptor without a table refers to any table.
+     */
+    public static boolean matches(JsonNode descriptor, Table<?> table) {
+
+        if (!descriptor.hasNonNull("table")) {
+            return true;
+        }
+
+        var schema = table.getSchema() != null ? table.getSchema().getName() : null;
+
+        return descriptor.path("table").asText().equals(table.getName())
+                && (!descriptor.hasNonNull("schema") || descriptor.path("schema").asText().equals(schema));
+    }
+
+    public static Stream<JsonNode> elements(JsonNode array) {
+
+        return StreamSupport.stream(array.spliterator(), false);
+    }
+}
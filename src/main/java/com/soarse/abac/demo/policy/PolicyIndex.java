@@ -0,0 +1,170 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.formula.FormulaParser;
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import com.soarse.formula.Formula;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Table;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.soarse.abac.demo.policy.PolicyDocuments.filters;
+import static com.soarse.abac.demo.policy.PolicyDocuments.permissions;
+import static com.soarse.abac.demo.policy.PolicyDocuments.projections;
+import static com.soarse.abac.demo.policy.PolicyDocuments.targetRules;
+
+/**
+ * Index of the policies by the permission point.
+ * <p>
+ * The universal, action and entity policies of a point are merged into a single list once per policy version,
+ * converted into documents and prepared for the evaluation, see {@link IndexedPolicy}.
+ * A lookup is a single hash lookup, so its cost does not depend on the number of the policies.
+ */
+@Slf4j
+@Component
+public class PolicyIndex {
+
+    private final ObjectMapper mapper;
+    private final PolicySource policySource;
+    private final FormulaParser formulaParser;
+    private final PolicyVersion policyVersion;
+    private final PolicySnapshots policySnapshots;
+    private final boolean enabled;
+
+    /**
+     * Policies by the point and the versions of its policies
+     */
+    private final Cache<PointKey, List<IndexedPolicy>> points;
+
+    public PolicyIndex(ObjectMapper mapper,
+                       PolicySource policySource,
+                       FormulaParser formulaParser,
+                       PolicyVersion policyVersion,
+                       PolicySnapshots policySnapshots,
+                       AbacDemoProperties properties,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var settings = properties.getPolicyIndex();
+
+        this.mapper = mapper;
+        this.policySource = policySource;
+        this.formulaParser = formulaParser;
+        this.policyVersion = policyVersion;
+        this.policySnapshots = policySnapshots;
+        this.enabled = settings.isEnabled();
+
+        this.points = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, points, "abac.policy-index"));
+    }
+
+    /**
+     * Returns the policies of the permission point.
+     *
+     * @param actionId Action ID of the point qualified by the service name
+     * @param effect   Effect of the action on the data
+     * @param entityId Entity ID of the table
+     * @param table    Table of the point
+     */
+    public List<IndexedPolicy> find(String actionId, ActionEffect effect, TableEntityId entityId, Table<?> table) {
+
+        if (!enabled) {
+            return index(actionId, effect, entityId, table);
+        }
+
+        var key = new PointKey(actionId, effect, entityId,
+                policyVersion.current(), policySnapshots.pointVersion(actionId, effect, entityId));
+
+        return points.get(key, ignored -> index(actionId, effect, entityId, table));
+    }
+
+    /**
+     * Checks whether the action has policies of its own, besides the universal and entity ones.
+     *
+     * @param actionId Action ID of the point qualified by the service name
+     */
+    public boolean hasActionPolicies(String actionId) {
+
+        return !policySource.getActionPolicies(actionId).isEmpty();
+    }
+
+    /**
+     * Returns the universal and entity policies of the table, which apply whatever the action is.
+     * The policies are not cached, since they are requested only when the policies change.
+     *
+     * @param effect   Effect of the actions on the data
+     * @param entityId Entity ID of the table
+     * @param table    Table of the entity
+     */
+    public List<IndexedPolicy> findTablePolicies(ActionEffect effect, TableEntityId entityId, Table<?> table) {
+
+        return index(Stream.of(policySource.getUniversalPolicies(), policySource.getEntityPolicies(effect, entityId)), entityId, table);
+    }
+
+    private List<IndexedPolicy> index(String actionId, ActionEffect effect, TableEntityId entityId, Table<?> table) {
+
+        return index(Stream.of(
+                policySource.getUniversalPolicies(),
+                policySource.getActionPolicies(actionId),
+                policySource.getEntityPolicies(effect, entityId)), actionId, table);
+    }
+
+    private List<IndexedPolicy> index(Stream<? extends Collection<?>> policies, Object pointId, Table<?> table) {
+
+        // A policy bound to several keys of the point is evaluated once
+        var documents = new LinkedHashMap<Object, JsonNode>();
+
+        policies.flatMap(Collection::stream)
+                .map(policy -> (JsonNode) mapper.valueToTree(policy))
+                .forEach(document -> documents.putIfAbsent(document.hasNonNull("id") ? document.path("id").asText() : new Object(), document));
+
+        log.debug("Indexed {} policies of {} on {}", documents.size(), pointId, table.getName());
+
+        return documents.values().stream()
+                .map(document -> new IndexedPolicy(document,
+                        toFormulas(targetRules(document)),
+                        toFormulas(permissions(document)),
+                        filters(document, table).toList(),
+                        projections(document, table).toList()))
+                .toList();
+    }
+
+    private List<Formula> toFormulas(Stream<JsonNode> rules) {
+
+        var formulas = new ArrayList<Formula>();
+
+        rules.forEach(rule -> {
+            try {
+                formulas.add(formulaParser.parse(rule.path("formula")));
+            } catch (RuntimeException e) {
+                log.debug("Rule {} cannot be converted: {}", rule.path("id").asText(), e.getMessage());
+                formulas.add(null);
+            }
+        });
+
+        // The list keeps nulls, so it is not copied into an immutable one
+        return formulas;
+    }
+
+    private record PointKey(String actionId, ActionEffect effect, TableEntityId entityId, long policyVersion, long pointVersion) {
+    }
+}
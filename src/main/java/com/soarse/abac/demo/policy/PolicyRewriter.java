@@ -0,0 +1,13 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Rewrites the policies loaded from the policy source before the library uses them.
+ * <p>
+ * A rewriter must preserve the meaning of the policy and return the given document, if it has nothing to rewrite.
+ */
+public interface PolicyRewriter {
+
+    JsonNode rewrite(JsonNode policy);
+}
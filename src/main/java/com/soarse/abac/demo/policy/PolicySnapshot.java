@@ -0,0 +1,108 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable set of the policies loaded from the policy source.
+ * <p>
+ * A snapshot is never modified, each change produces a new snapshot with a greater version,
+ * so readers holding a snapshot see a consistent set of policies without any locking.
+ * Each entry keeps the version of the snapshot, which loaded it, until its policies change.
+ *
+ * @param version           Version of the snapshot, incremented by each change
+ * @param invalidations     Number of the invalidations, which discards the policies loaded before an invalidation
+ * @param universalPolicies Universal policies, or {@code null} if they are not loaded yet
+ * @param actionPolicies    Policies of the actions by the action IDs
+ * @param entityPolicies    Policies of the entities by the effects and the entity IDs
+ */
+public record PolicySnapshot(long version,
+                             long invalidations,
+                             Entry universalPolicies,
+                             Map<String, Entry> actionPolicies,
+                             Map<EntityKey, Entry> entityPolicies) {
+
+    public static final PolicySnapshot EMPTY = new PolicySnapshot(0, 0, null, Map.of(), Map.of());
+
+    public Optional<List<Policy>> findUniversalPolicies() {
+
+        return Optional.ofNullable(universalPolicies).map(Entry::policies);
+    }
+
+    public Optional<List<Policy>> findActionPolicies(String actionId) {
+
+        return Optional.ofNullable(actionPolicies.get(actionId)).map(Entry::policies);
+    }
+
+    public Optional<List<Policy>> findEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        return Optional.ofNullable(entityPolicies.get(new EntityKey(effect, entityId))).map(Entry::policies);
+    }
+
+    /**
+     * Returns the version of the policies of a permission point, which changes only if one of its policy lists has changed.
+     */
+    public long pointVersion(String actionId, ActionEffect effect, TableEntityId entityId) {
+
+        return Math.max(entryVersion(universalPolicies),
+                Math.max(entryVersion(actionPolicies.get(actionId)), entryVersion(entityPolicies.get(new EntityKey(effect, entityId)))));
+    }
+
+    public PolicySnapshot withUniversalPolicies(List<Policy> policies) {
+
+        return new PolicySnapshot(version + 1, invalidations, entry(universalPolicies, policies), actionPolicies, entityPolicies);
+    }
+
+    public PolicySnapshot withActionPolicies(String actionId, List<Policy> policies) {
+
+        var actions = new HashMap<>(actionPolicies);
+        actions.put(actionId, entry(actionPolicies.get(actionId), policies));
+
+        return new PolicySnapshot(version + 1, invalidations, universalPolicies, Map.copyOf(actions), entityPolicies);
+    }
+
+    public PolicySnapshot withEntityPolicies(ActionEffect effect, TableEntityId entityId, List<Policy> policies) {
+
+        var key = new EntityKey(effect, entityId);
+        var entities = new HashMap<>(entityPolicies);
+        entities.put(key, entry(entityPolicies.get(key), policies));
+
+        return new PolicySnapshot(version + 1, invalidations, universalPolicies, actionPolicies, Map.copyOf(entities));
+    }
+
+    /**
+     * Returns the snapshot, which discards the policies being loaded at the moment, since they may be outdated.
+     */
+    public PolicySnapshot invalidated() {
+
+        return new PolicySnapshot(version + 1, invalidations + 1, universalPolicies, actionPolicies, entityPolicies);
+    }
+
+    /**
+     * Returns the entry of the loaded policies, which keeps its version, if the policies have not changed.
+     */
+    private Entry entry(Entry existing, List<Policy> policies) {
+
+        return existing != null && existing.policies().equals(policies) ? existing : new Entry(policies, version + 1);
+    }
+
+    private static long entryVersion(Entry entry) {
+
+        return entry != null ? entry.version() : 0;
+    }
+
+    /**
+     * Policy list together with the version of the snapshot, which loaded it.
+     */
+    public record Entry(List<Policy> policies, long version) {
+    }
+
+    public record EntityKey(ActionEffect effect, TableEntityId entityId) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.service.PolicyService;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Invalidates the changed policies only, instead of evicting the whole policy cache.
+ * <p>
+ * The changed policy lists are loaded into a new snapshot first, then the library evicts its cache
+ * and loads the policies from the new snapshot, which only the changed lists are loaded again for.
+ * Results derived from the policies of unaffected permission points stay valid, see {@link #pointVersion}.
+ * Without a {@link SnapshotPolicySource} the invalidation falls back to the eviction of the whole cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PolicySnapshots {
+
+    private final ObjectProvider<PolicySource> policySource;
+    private final ObjectProvider<PolicyService> policyService;
+
+    /**
+     * Whether the current thread evicts the library cache after a targeted invalidation
+     */
+    private final ThreadLocal<Boolean> targetedEviction = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Returns the current policy snapshot, if the policy source keeps one.
+     */
+    public Optional<PolicySnapshot> current() {
+
+        return source().map(SnapshotPolicySource::snapshot);
+    }
+
+    /**
+     * Returns the version of the policies of a permission point, which changes only if its policies have been invalidated.
+     */
+    public long pointVersion(String actionId, ActionEffect effect, TableEntityId entityId) {
+
+        return current()
+                .map(snapshot -> snapshot.pointVersion(actionId, effect, entityId))
+                .orElse(0L);
+    }
+
+    public void invalidateUniversalPolicies() {
+
+        invalidate(SnapshotPolicySource::refreshUniversalPolicies);
+    }
+
+    public void invalidateActionPolicies(String actionId) {
+
+        invalidate(source -> source.refreshActionPolicies(actionId));
+    }
+
+    public void invalidateEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        invalidate(source -> source.refreshEntityPolicies(effect, entityId));
+    }
+
+    /**
+     * Checks whether the current eviction of the library cache follows a targeted invalidation.
+     */
+    public boolean isTargetedEviction() {
+
+        return targetedEviction.get();
+    }
+
+    /**
+     * Loads all policies of the snapshot again before the library cache is evicted by someone else,
+     * so the library does not load the outdated policies from the snapshot.
+     */
+    void onPolicyCacheEvicting() {
+
+        if (!isTargetedEviction()) {
+            source().ifPresent(SnapshotPolicySource::refreshAll);
+        }
+    }
+
+    private void invalidate(Consumer<SnapshotPolicySource> refresh) {
+
+        var source = source();
+
+        if (source.isEmpty()) {
+            policyService.getObject().evictCache();
+            return;
+        }
+
+        refresh.accept(source.get());
+
+        targetedEviction.set(true);
+
+        try {
+            policyService.getObject().evictCache();
+        } finally {
+            targetedEviction.remove();
+        }
+    }
+
+    private Optional<SnapshotPolicySource> source() {
+
+        return policySource.getIfAvailable() instanceof SnapshotPolicySource source ? Optional.of(source) : Optional.empty();
+    }
+}
@@ -0,0 +1,40 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.service.PolicySource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the policy source into {@link RewritingPolicySource}, if there are policy rewriters,
+ * and into {@link SnapshotPolicySource}, unless the snapshots are disabled by {@code abac-demo.policy-snapshot.enabled}.
+ * <p>
+ * The source is wrapped rather than replaced, so the policy source provided by the library or the tests stays in charge of loading the policies.
+ * The snapshot keeps the rewritten policies, so the policies are rewritten once per loading.
+ */
+@Component
+@RequiredArgsConstructor
+public class PolicySourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObjectMapper> mapper;
+    private final ObjectProvider<PolicyRewriter> rewriters;
+    private final Environment environment;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (!(bean instanceof PolicySource policySource)) {
+            return bean;
+        }
+
+        var orderedRewriters = rewriters.orderedStream().toList();
+        var source = orderedRewriters.isEmpty() ? policySource : new RewritingPolicySource(policySource, mapper.getObject(), orderedRewriters);
+
+        return environment.getProperty("abac-demo.policy-snapshot.enabled", Boolean.class, true)
+                ? new SnapshotPolicySource(source)
+                : source;
+    }
+}
@@ -0,0 +1,34 @@
+package com.soarse.abac.demo.policy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the policy set. Results derived from the policies are cached together with the version,
+ * so incrementing the version invalidates them all at once.
+ */
+@Slf4j
+@Component
+public class PolicyVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+
+        return version.get();
+    }
+
+    /**
+     * Marks the previously loaded policies as outdated.
+     */
+    public long increment() {
+
+        var next = version.incrementAndGet();
+
+        log.debug("Policy version incremented to {}", next);
+
+        return next;
+    }
+}
@@ -0,0 +1,62 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+import java.util.List;
+
+/**
+ * Policy source, which passes the policies of another source through the rewriters.
+ */
+@RequiredArgsConstructor
+public class RewritingPolicySource implements PolicySource {
+
+    private final PolicySource delegate;
+    private final ObjectMapper mapper;
+    private final List<PolicyRewriter> rewriters;
+
+    @Override
+    public List<Policy> getUniversalPolicies() {
+
+        return rewrite(delegate.getUniversalPolicies());
+    }
+
+    @Override
+    public List<Policy> getActionPolicies(String actionId) {
+
+        return rewrite(delegate.getActionPolicies(actionId));
+    }
+
+    @Override
+    public List<Policy> getEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        return rewrite(delegate.getEntityPolicies(effect, entityId));
+    }
+
+    private List<Policy> rewrite(List<Policy> policies) {
+
+        return policies.stream()
+                .map(this::rewrite)
+                .toList();
+    }
+
+    @SneakyThrows
+    private Policy rewrite(Policy policy) {
+
+        JsonNode document = mapper.valueToTree(policy);
+        var rewritten = document;
+
+        for (var rewriter : rewriters) {
+            rewritten = rewriter.rewrite(rewritten);
+        }
+
+        // Unchanged policies keep their identity
+        return rewritten == document ? policy : mapper.treeToValue(rewritten, Policy.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Policy source, which keeps the policies of another source in an immutable {@link PolicySnapshot}.
+ * <p>
+ * Readers take the current snapshot without locking and load a missing policy list from the delegate.
+ * Changed policies are loaded before the new snapshot replaces the current one, so the readers never wait for a cold source,
+ * and only the invalidated policy lists are loaded again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SnapshotPolicySource implements PolicySource {
+
+    private final PolicySource delegate;
+    private final AtomicReference<PolicySnapshot> snapshot = new AtomicReference<>(PolicySnapshot.EMPTY);
+
+    /**
+     * Returns the current snapshot, which stays consistent whatever happens to the policies afterwards.
+     */
+    public PolicySnapshot snapshot() {
+
+        return snapshot.get();
+    }
+
+    @Override
+    public List<Policy> getUniversalPolicies() {
+
+        return snapshot.get().findUniversalPolicies()
+                .orElseGet(() -> load(delegate::getUniversalPolicies,
+                        PolicySnapshot::findUniversalPolicies,
+                        PolicySnapshot::withUniversalPolicies));
+    }
+
+    @Override
+    public List<Policy> getActionPolicies(String actionId) {
+
+        return snapshot.get().findActionPolicies(actionId)
+                .orElseGet(() -> load(() -> delegate.getActionPolicies(actionId),
+                        current -> current.findActionPolicies(actionId),
+                        (current, policies) -> current.withActionPolicies(actionId, policies)));
+    }
+
+    @Override
+    public List<Policy> getEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        return snapshot.get().findEntityPolicies(effect, entityId)
+                .orElseGet(() -> load(() -> delegate.getEntityPolicies(effect, entityId),
+                        current -> current.findEntityPolicies(effect, entityId),
+                        (current, policies) -> current.withEntityPolicies(effect, entityId, policies)));
+    }
+
+    /**
+     * Loads the universal policies again and replaces them in the snapshot.
+     */
+    public synchronized void refreshUniversalPolicies() {
+
+        var policies = List.copyOf(delegate.getUniversalPolicies());
+
+        swap(current -> current.invalidated().withUniversalPolicies(policies));
+    }
+
+    /**
+     * Loads the policies of the action again and replaces them in the snapshot.
+     */
+    public synchronized void refreshActionPolicies(String actionId) {
+
+        var policies = List.copyOf(delegate.getActionPolicies(actionId));
+
+        swap(current -> current.invalidated().withActionPolicies(actionId, policies));
+    }
+
+    /**
+     * Loads the policies of the entity again and replaces them in the snapshot.
+     */
+    public synchronized void refreshEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+        var policies = List.copyOf(delegate.getEntityPolicies(effect, entityId));
+
+        swap(current -> current.invalidated().withEntityPolicies(effect, entityId, policies));
+    }
+
+    /**
+     * Loads all policy lists of the snapshot again and replaces them at once.
+     */
+    public synchronized void refreshAll() {
+
+        var loaded = snapshot.get();
+        var universalPolicies = loaded.universalPolicies() != null ? List.copyOf(delegate.getUniversalPolicies()) : null;
+        var actionPolicies = new HashMap<String, List<Policy>>();
+        var entityPolicies = new HashMap<PolicySnapshot.EntityKey, List<Policy>>();
+
+        loaded.actionPolicies().keySet()
+                .forEach(actionId -> actionPolicies.put(actionId, List.copyOf(delegate.getActionPolicies(actionId))));
+        loaded.entityPolicies().keySet()
+                .forEach(key -> entityPolicies.put(key, List.copyOf(delegate.getEntityPolicies(key.effect(), key.entityId()))));
+
+        swap(current -> {
+            var refreshed = current.invalidated();
+
+            if (universalPolicies != null) {
+                refreshed = refreshed.withUniversalPolicies(universalPolicies);
+            }
+
+            for (var entry : actionPolicies.entrySet()) {
+                refreshed = refreshed.withActionPolicies(entry.getKey(), entry.getValue());
+            }
+
+            for (var entry : entityPolicies.entrySet()) {
+                refreshed = refreshed.withEntityPolicies(entry.getKey().effect(), entry.getKey().entityId(), entry.getValue());
+            }
+
+            return refreshed;
+        });
+    }
+
+    /**
+     * Loads a missing policy list and adds it to the snapshot,
+     * unless the policies have been invalidated during the loading or another reader has added them first.
+     */
+    private List<Policy> load(Supplier<List<Policy>> loader,
+                              Function<PolicySnapshot, Optional<List<Policy>>> finder,
+                              BiFunction<PolicySnapshot, List<Policy>, PolicySnapshot> writer) {
+
+        var invalidations = snapshot.get().invalidations();
+        var policies = List.copyOf(loader.get());
+
+        snapshot.updateAndGet(current -> current.invalidations() != invalidations || finder.apply(current).isPresent()
+                ? current
+                : writer.apply(current, policies));
+
+        return policies;
+    }
+
+    private void swap(UnaryOperator<PolicySnapshot> change) {
+
+        var swapped = snapshot.updateAndGet(change);
+
+        log.debug("Policy snapshot swapped to version {}", swapped.version());
+    }
+}
@@ -0,0 +1,115 @@
+package com.soarse.abac.demo.projection;
+
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jooq.impl.DSL.castNull;
+
+/**
+ * Set of table columns visible to the user.
+ */
+public class Projection {
+
+    private static final Projection ALL = new Projection(null);
+
+    /**
+     * Names of the visible columns or {@code null}, if all columns are visible
+     */
+    private final Set<String> visibleColumns;
+
+    private Projection(Set<String> visibleColumns) {
+
+        this.visibleColumns = visibleColumns;
+    }
+
+    public static Projection all() {
+
+        return ALL;
+    }
+
+    public static Projection of(Collection<String> visibleColumns) {
+
+        return new Projection(Set.copyOf(visibleColumns));
+    }
+
+    public boolean isAll() {
+
+        return visibleColumns == null;
+    }
+
+    public boolean isVisible(Field<?> field) {
+
+        return visibleColumns == null || visibleColumns.contains(field.getName());
+    }
+
+    /**
+     * Returns the projection, in which the columns visible in either of the projections are visible.
+     */
+    public Projection union(Projection other) {
+
+        if (isAll() || other.isAll()) {
+            return ALL;
+        }
+
+        var columns = new HashSet<>(visibleColumns);
+        columns.addAll(other.visibleColumns);
+
+        return new Projection(Set.copyOf(columns));
+    }
+
+    /**
+     * Returns the columns of the table to select, in which the hidden columns are replaced with typed nulls of the same names.
+     * <p>
+     * The selected rows keep the shape of the table, so they are mapped the same way as the whole rows,
+     * but the values of the hidden columns are neither read nor transferred.
+     *
+     * @param table Table of the rows
+     * @param keys  Columns selected even if hidden, e.g. the ID of a cursor, which the caller resets by {@link #apply}
+     */
+    public List<Field<?>> select(Table<?> table, Field<?>... keys) {
+
+        var fields = new ArrayList<Field<?>>();
+
+        for (var field : table.fields()) {
+            fields.add(isAll() || isVisible(field) || List.of(keys).contains(field) ? field : castNull(field.getDataType()).as(field.getName()));
+        }
+
+        return fields;
+    }
+
+    /**
+     * Resets the values of the hidden columns of the record.
+     */
+    public <R extends Record> R apply(R record) {
+
+        if (isAll()) {
+            return record;
+        }
+
+        for (var field : record.fields()) {
+            if (!isVisible(field)) {
+                reset(record, field);
+            }
+        }
+
+        return record;
+    }
+
+    private static <T> void reset(Record record, Field<T> field) {
+
+        record.set(field, null);
+    }
+
+    @Override
+    public String toString() {
+
+        return isAll() ? "Projection(*)" : "Projection(%s)".formatted(visibleColumns);
+    }
+}
@@ -0,0 +1,99 @@
+package com.soarse.abac.demo.projection;
+
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.abac.demo.policy.IndexedPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Table;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.soarse.abac.demo.policy.PolicyDocuments.EXCLUDE;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+
+/**
+ * Determines the table columns the current user is allowed to read at a permission point.
+ * <p>
+ * The services select only the visible columns, see {@link Projection#select}, so the hidden columns are not read.
+ * The library still applies projections to the entities returned by the permission point methods.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectionResolver {
+
+    private final ApplicablePolicyService applicablePolicyService;
+
+    /**
+     * Returns the columns visible to the current user.
+     * <p>
+     * Each applicable policy granting access to the table makes visible either the columns of its projections,
+     * or all columns, if it has no projections for the table.
+     *
+     * @param pointId Permission point ID, e.g. {@code EmployeeService.fetchAll}
+     * @param table   Table of the permission point
+     */
+    public Projection resolve(String pointId, Table<?> table) {
+
+        Optional<Projection> projection = applicablePolicyService.findApplicableIndexedPolicies(pointId, READ, table).stream()
+                .filter(IndexedPolicy::grantsAccess)
+                .map(policy -> toProjection(policy, table))
+                .reduce(Projection::union);
+
+        log.debug("Projection of {} for {}: {}", table.getName(), pointId, projection);
+
+        // Without granting policies no rows are visible, so the projection does not matter
+        return projection.orElseGet(Projection::all);
+    }
+
+    private Projection toProjection(IndexedPolicy policy, Table<?> table) {
+
+        var projections = policy.projections();
+
+        if (projections.isEmpty()) {
+            return Projection.all();
+        }
+
+        var columns = new HashSet<String>();
+
+        for (var projection : projections) {
+            var properties = new ArrayList<String>();
+            projection.path("jsonSchema").path("properties").fieldNames().forEachRemaining(properties::add);
+
+            if (EXCLUDE.equals(projection.path("mode").asText())) {
+                // All the properties of the projection are hidden together
+                columns.addAll(columnsExcept(table, properties.stream().map(ProjectionResolver::toColumnName).toList()));
+            } else {
+                properties.forEach(property -> columns.add(toColumnName(property)));
+            }
+        }
+
+        return Projection.of(columns);
+    }
+
+    private Set<String> columnsExcept(Table<?> table, Collection<String> excludedColumns) {
+
+        var columns = new HashSet<String>();
+
+        for (var field : table.fields()) {
+            if (!excludedColumns.contains(field.getName())) {
+                columns.add(field.getName());
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Converts the property name of a JSON schema into the column name, e.g. {@code authorId} into {@code author_id}.
+     */
+    public static String toColumnName(String property) {
+
+        return property.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
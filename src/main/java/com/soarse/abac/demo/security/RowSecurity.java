@@ -0,0 +1,178 @@
+package com.soarse.abac.demo.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import com.soarse.abac.model.action.ActionEffect;
+import org.jooq.Table;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+
+/**
+ * Enforces the ABAC filters of the employees and the publications by the row-level security of the database,
+ * if enabled by {@code abac-demo.row-security.enabled}.
+ * <p>
+ * The universal and entity policies of the tables are compiled into the policies of the role {@value #ROLE},
+ * see {@link RowSecurityPolicies}. A read-only transaction started by a filtration point switches to the role
+ * and passes the user attributes as the setting {@value #SETTING}, both local to the transaction, so the services
+ * read the rows without the ABAC conditions and the database reuses the plans of their plain queries.
+ * Other clients of the database, e.g. reports, get the same filtration by doing the same.
+ * The action policies are not compiled, since the database does not know the permission point,
+ * so the points having them keep their ABAC conditions, see {@link RowSecurityAspect}.
+ * <p>
+ * Writes keep their conditions, since the batch methods report the rejected rows, which a policy would silently skip,
+ * so the transactions of the writing points are not switched to the role.
+ */
+@Component
+public class RowSecurity {
+
+    public static final String ROLE = "abac_demo_rls";
+    public static final String SETTING = "abac_demo.user_attributes";
+
+    static final List<Table<?>> TABLES = List.of(EMPLOYEE, PUBLICATION);
+
+    private final DataSource dataSource;
+    private final ObjectMapper mapper;
+    private final UserAttributeResolver userAttributeResolver;
+    private final boolean enabled;
+
+    /**
+     * Whether the policies have been compiled and the row-level security of the tables enabled
+     */
+    private volatile boolean active;
+
+    /**
+     * Number of the filtration point calls in progress on the thread
+     */
+    private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    /**
+     * Connection of the last transaction switched to the role on the thread
+     */
+    private final ThreadLocal<Connection> preparedConnection = new ThreadLocal<>();
+
+    /**
+     * Whether the role of the prepared connection is reset by {@link #unrestricted}
+     */
+    private final ThreadLocal<Boolean> unrestricted = ThreadLocal.withInitial(() -> false);
+
+    public RowSecurity(DataSource dataSource,
+                       ObjectMapper mapper,
+                       UserAttributeResolver userAttributeResolver,
+                       AbacDemoProperties properties) {
+
+        this.dataSource = dataSource;
+        this.mapper = mapper;
+        this.userAttributeResolver = userAttributeResolver;
+        this.enabled = properties.getRowSecurity().isEnabled();
+    }
+
+    /**
+     * Checks whether the database filters the rows of the table for the current transaction, so the ABAC condition is not needed.
+     */
+    public boolean isEnforced(ActionEffect effect, Table<?> table) {
+
+        if (!enabled || effect != READ || !TABLES.contains(table)) {
+            return false;
+        }
+
+        return isPrepared();
+    }
+
+    /**
+     * Computes a value over the whole datasets, e.g. by a rule of a policy, which the role would restrict to the rows
+     * visible to the user, so the role of the current transaction is reset for the duration of the computation.
+     */
+    public <T> T unrestricted(Supplier<T> computation) {
+
+        if (!isPrepared() || unrestricted.get()) {
+            return computation.get();
+        }
+
+        var connection = preparedConnection.get();
+
+        setRole(connection, "none");
+        unrestricted.set(true);
+
+        try {
+            return computation.get();
+        } finally {
+            unrestricted.remove();
+            setRole(connection, ROLE);
+        }
+    }
+
+    /**
+     * Switches the connection of a new transaction to the role, if the transaction is started by a filtration point
+     * and is read-only.
+     */
+    public void prepare(Connection connection, boolean readOnly) throws SQLException {
+
+        if (!enabled || !active || !readOnly || depth.get() == 0) {
+            return;
+        }
+
+        try (var statement = connection.prepareStatement("SELECT set_config(?, ?, true), set_config('role', ?, true)")) {
+            statement.setString(1, SETTING);
+            statement.setString(2, mapper.writeValueAsString(userAttributeResolver.current().document()));
+            statement.setString(3, ROLE);
+            statement.execute();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("User attributes cannot be passed to the database", e);
+        }
+
+        preparedConnection.set(connection);
+    }
+
+    /**
+     * Starts switching the transactions to the role, once {@link RowSecurityPolicies} has compiled the policies.
+     */
+    void activate() {
+
+        active = true;
+    }
+
+    private boolean isPrepared() {
+
+        var prepared = preparedConnection.get();
+        var holder = (ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource);
+
+        return prepared != null && holder != null && holder.hasConnection() && holder.getConnection() == prepared;
+    }
+
+    private void setRole(Connection connection, String role) {
+
+        try (var statement = connection.prepareStatement("SELECT set_config('role', ?, true)")) {
+            statement.setString(1, role);
+            statement.execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Role of the transaction cannot be set to %s".formatted(role), e);
+        }
+    }
+
+    void enter() {
+
+        depth.set(depth.get() + 1);
+    }
+
+    void exit() {
+
+        depth.set(depth.get() - 1);
+
+        if (depth.get() == 0) {
+            preparedConnection.remove();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.soarse.abac.demo.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.soarse.abac.demo.formula.FormulaDependencies;
+import com.soarse.abac.annotation.permission.TablePermissionPoint;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.formula.Formula;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marks the calls of the filtration points, so the transactions they start are switched to the row-level security role.
+ * <p>
+ * The aspect wraps the transactional proxy, so the mark is set before the transaction begins.
+ * Calls with client formulas fetching datasets, e.g. filters or computable properties, are not marked,
+ * since the datasets are read by the same transaction, and the role would restrict them to the visible rows.
+ * Calls of the points having action policies are not marked either, since the compiled policies leave them out.
+ * Such calls are filtered by the ABAC conditions instead.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RowSecurityAspect {
+
+    private final RowSecurity rowSecurity;
+    private final FormulaDocuments formulaDocuments;
+    private final ApplicablePolicyService applicablePolicyService;
+
+    @Around("@within(com.soarse.abac.annotation.filtration.TableFiltrationPoint)")
+    public Object aroundFiltrationPoint(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        if (hasActionPolicies(joinPoint) || FormulaDependencies.of(formulas(joinPoint.getArgs())).isFetching()) {
+            return joinPoint.proceed();
+        }
+
+        rowSecurity.enter();
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            rowSecurity.exit();
+        }
+    }
+
+    private boolean hasActionPolicies(ProceedingJoinPoint joinPoint) {
+
+        var point = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(TablePermissionPoint.class);
+
+        return point != null && applicablePolicyService.hasActionPolicies(point.id());
+    }
+
+    private List<JsonNode> formulas(Object[] arguments) {
+
+        var documents = new ArrayList<JsonNode>();
+
+        for (var argument : arguments) {
+            if (argument instanceof Formula formula) {
+                documents.add(formulaDocuments.toDocument(formula));
+            } else if (argument instanceof Map<?, ?> map) {
+                map.values().stream()
+                        .filter(Formula.class::isInstance)
+                        .forEach(formula -> documents.add(formulaDocuments.toDocument((Formula) formula)));
+            }
+        }
+
+        return documents;
+    }
+}
@@ -0,0 +1,28 @@
+package com.soarse.abac.demo.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the transaction manager of the data source, when the filters are enforced by the row-level security.
+ */
+@Configuration
+@ConditionalOnProperty("abac-demo.row-security.enabled")
+public class RowSecurityConfiguration {
+
+    @Bean
+    public RowSecurityTransactionManager transactionManager(DataSource dataSource,
+                                                            ObjectProvider<RowSecurity> rowSecurity,
+                                                            ObjectProvider<TransactionManagerCustomizers> customizers) {
+
+        var transactionManager = new RowSecurityTransactionManager(dataSource, rowSecurity);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+
+        return transactionManager;
+    }
+}
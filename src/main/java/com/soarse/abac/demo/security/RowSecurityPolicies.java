@@ -0,0 +1,167 @@
+package com.soarse.abac.demo.security;
+
+import com.soarse.abac.demo.condition.RowSecurityPolicyCompiler;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.policy.PolicyCacheEvictionListener;
+import com.soarse.abac.demo.policy.PolicySnapshot;
+import com.soarse.abac.demo.policy.PolicySnapshots;
+import com.soarse.abac.demo.policy.PolicyVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Table;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+
+/**
+ * Compiles the ABAC policies of the tables into the row-level security policies of the role {@value RowSecurity#ROLE},
+ * if enabled by {@code abac-demo.row-security.enabled}.
+ * <p>
+ * The policies are compiled when the application starts and whenever the policies change, see
+ * {@link PolicyCacheEvictionListener}, so a transaction never waits for the compilation. The first compilation also
+ * enables the row-level security of the tables, and only then are the transactions switched to the role.
+ * If the mode is off, the row-level security of the tables is disabled on start, so the other roles of the database
+ * see all rows. Only the reading is enforced by the database, the role has no policies for writes.
+ */
+@Slf4j
+@Component
+public class RowSecurityPolicies {
+
+    private final DataSource dataSource;
+    private final RowSecurity rowSecurity;
+    private final RowSecurityPolicyCompiler rowSecurityPolicyCompiler;
+    private final PolicyVersion policyVersion;
+    private final PolicySnapshots policySnapshots;
+    private final boolean enabled;
+    private final long lockTimeout;
+
+    /**
+     * Versions of the policies the database policies were compiled from
+     */
+    private List<Long> appliedVersion;
+
+    public RowSecurityPolicies(DataSource dataSource,
+                               RowSecurity rowSecurity,
+                               RowSecurityPolicyCompiler rowSecurityPolicyCompiler,
+                               PolicyVersion policyVersion,
+                               PolicySnapshots policySnapshots,
+                               AbacDemoProperties properties) {
+
+        this.dataSource = dataSource;
+        this.rowSecurity = rowSecurity;
+        this.rowSecurityPolicyCompiler = rowSecurityPolicyCompiler;
+        this.policyVersion = policyVersion;
+        this.policySnapshots = policySnapshots;
+        this.enabled = properties.getRowSecurity().isEnabled();
+        this.lockTimeout = properties.getRowSecurity().getLockTimeout().toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+
+        if (enabled) {
+            refresh();
+        } else {
+            disable();
+        }
+    }
+
+    /**
+     * Recompiles the policies of the database, if the ABAC policies have changed since the last compilation.
+     */
+    public synchronized void refresh() {
+
+        if (!enabled) {
+            return;
+        }
+
+        var version = List.of(policyVersion.current(), policySnapshots.current().map(PolicySnapshot::version).orElse(0L));
+
+        if (version.equals(appliedVersion)) {
+            return;
+        }
+
+        var statements = new ArrayList<String>();
+
+        for (var table : RowSecurity.TABLES) {
+            var name = name(table);
+            var read = rowSecurityPolicyCompiler.compile(READ, table, RowSecurity.SETTING);
+
+            log.debug("Row-level security of {}: {}", name, read);
+
+            statements.add("DROP POLICY IF EXISTS abac_read ON %s".formatted(name));
+            statements.add("CREATE POLICY abac_read ON %s FOR SELECT TO %s USING (%s)".formatted(name, RowSecurity.ROLE, read));
+
+            // Enabling locks the table exclusively, so it is done only if needed
+            if (!isRowSecurityEnabled(name)) {
+                statements.add("ALTER TABLE %s ENABLE ROW LEVEL SECURITY".formatted(name));
+            }
+        }
+
+        execute(statements, "Row-level security policies cannot be replaced");
+
+        appliedVersion = version;
+        rowSecurity.activate();
+    }
+
+    /**
+     * Disables the row-level security of the tables and drops their policies, left by a run with the mode on.
+     */
+    private void disable() {
+
+        var statements = new ArrayList<String>();
+
+        for (var table : RowSecurity.TABLES) {
+            statements.add("ALTER TABLE %s DISABLE ROW LEVEL SECURITY".formatted(name(table)));
+            statements.add("DROP POLICY IF EXISTS abac_read ON %s".formatted(name(table)));
+        }
+
+        execute(statements, "Row-level security cannot be disabled");
+    }
+
+    /**
+     * Executes the statements by a separate transaction, so the readers see either the old or the new policies.
+     */
+    private void execute(List<String> statements, String error) {
+
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+
+            statement.addBatch("SET LOCAL lock_timeout = %d".formatted(lockTimeout));
+
+            for (var sql : statements) {
+                statement.addBatch(sql);
+            }
+
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(error, e);
+        }
+    }
+
+    private boolean isRowSecurityEnabled(String name) {
+
+        try (var connection = dataSource.getConnection();
+             var statement = connection.prepareStatement("SELECT relrowsecurity FROM pg_class WHERE oid = ?::regclass")) {
+            statement.setString(1, name);
+
+            try (var result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Row-level security of %s cannot be read".formatted(name), e);
+        }
+    }
+
+    private String name(Table<?> table) {
+
+        return "%s.%s".formatted(table.getSchema().getName(), table.getName());
+    }
+}
@@ -0,0 +1,35 @@
+package com.soarse.abac.demo.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Transaction manager, which lets {@link RowSecurity} prepare the connection of each new transaction.
+ */
+public class RowSecurityTransactionManager extends JdbcTransactionManager {
+
+    /**
+     * The row-level security depends on the jOOQ context, which in turn depends on the transaction manager
+     */
+    private final ObjectProvider<RowSecurity> rowSecurity;
+
+    public RowSecurityTransactionManager(DataSource dataSource, ObjectProvider<RowSecurity> rowSecurity) {
+
+        super(dataSource);
+
+        this.rowSecurity = rowSecurity;
+    }
+
+    @Override
+    protected void prepareTransactionalConnection(Connection connection, TransactionDefinition definition) throws SQLException {
+
+        super.prepareTransactionalConnection(connection, definition);
+
+        rowSecurity.getObject().prepare(connection, definition.isReadOnly());
+    }
+}
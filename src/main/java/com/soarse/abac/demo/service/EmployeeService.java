@@ -1,27 +1,48 @@
 package com.soarse.abac.demo.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.soarse.abac.annotation.filtration.TableFiltrationPoint;
 import com.soarse.abac.annotation.filtration.write.Create;
 import com.soarse.abac.annotation.filtration.write.Delete;
 import com.soarse.abac.annotation.filtration.write.Update;
 import com.soarse.abac.annotation.permission.TablePermissionPoint;
 import com.soarse.abac.annotation.permission.TablePermissionPointService;
-import com.soarse.abac.builder.condition.AbacConditionBuilder;
+import com.soarse.abac.demo.batch.BatchWriter;
+import com.soarse.abac.demo.computation.ComputablePropertyFetcher;
+import com.soarse.abac.demo.condition.AbacConditionCache;
+import com.soarse.abac.demo.condition.FilterConditionCache;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.generated.jooq.tables.records.EmployeeRecord;
+import com.soarse.abac.demo.model.BatchMode;
+import com.soarse.abac.demo.model.BatchResult;
 import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.model.EmployeeSortKey;
+import com.soarse.abac.demo.model.Page;
+import com.soarse.abac.demo.model.PageRequest;
+import com.soarse.abac.demo.page.KeysetPaginator;
+import com.soarse.abac.demo.projection.ProjectionResolver;
+import com.soarse.abac.demo.user.UserAttributeResolver;
 import com.soarse.common.annotation.Aim;
 import com.soarse.common.util.jooq.JooqUtils;
 import com.soarse.formula.Formula;
-import com.soarse.formula.service.FiltrationFormulaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
+import org.jooq.TableField;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.model.action.ActionEffect.READ;
 import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static org.jooq.impl.DSL.noCondition;
 
 /**
  * Service for managing the list of employees.
@@ -32,10 +53,22 @@ import static com.soarse.abac.model.action.ActionEffect.WRITE;
 @TablePermissionPointService(schema = "abac_demo", table = "employee")
 public class EmployeeService {
 
+    /**
+     * Columns written by the batch methods, the same as by {@link #create} and {@link #update}
+     */
+    private static final List<TableField<EmployeeRecord, ?>> BATCH_FIELDS = List.of(
+            EMPLOYEE.NAME, EMPLOYEE.BRANCH, EMPLOYEE.ROLES, EMPLOYEE.SKILLS, EMPLOYEE.PASSPORT, EMPLOYEE.SALARY);
+
     private final DSLContext dsl;
     private final JooqUtils jooqUtils;
-    private final AbacConditionBuilder abacConditionBuilder;
-    private final FiltrationFormulaService filtrationFormulaService;
+    private final AbacConditionCache abacConditionCache;
+    private final FilterConditionCache filterConditionCache;
+    private final KeysetPaginator keysetPaginator;
+    private final ProjectionResolver projectionResolver;
+    private final AbacDemoProperties properties;
+    private final BatchWriter batchWriter;
+    private final ComputablePropertyFetcher computablePropertyFetcher;
+    private final UserAttributeResolver userAttributeResolver;
 
     /**
      * Returns the complete list of employees.
@@ -45,10 +78,14 @@ public class EmployeeService {
     public List<Employee> fetchAll() {
 
         // Form a condition that implements the ABAC filtering function
-        var abacCondition = abacConditionBuilder.build();
+        var abacCondition = abacConditionCache.build("EmployeeService.fetchAll", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the hidden ones are not read from the table
+        var projection = projectionResolver.resolve("EmployeeService.fetchAll", EMPLOYEE);
 
         // Get a list of all entries available to the user
-        return dsl.selectFrom(EMPLOYEE)
+        return dsl.select(projection.select(EMPLOYEE))
+                .from(EMPLOYEE)
                 .where(abacCondition)
                 .fetchInto(Employee.class);
     }
@@ -61,20 +98,161 @@ public class EmployeeService {
     public List<Employee> fetchAllByFilter(Formula filter) {
 
         // Form a condition based on the specified user filter
-        var filterCondition = filtrationFormulaService.toCondition(filter);
+        var filterCondition = filterConditionCache.toCondition(filter);
 
         // Form a condition that implements the ABAC filtering function
-        var abacCondition = abacConditionBuilder.build();
+        var abacCondition = abacConditionCache.build("EmployeeService.fetchAllByFilter", READ, EMPLOYEE);
 
         // If necessary, the condition can be used without jOOQ
         log.debug("ABAC SQL condition:\n{}", filterCondition.toString());
 
+        // Determine the fields visible to the user, the hidden ones are not read from the table
+        var projection = projectionResolver.resolve("EmployeeService.fetchAllByFilter", EMPLOYEE);
+
         // Get a list of all entries that meet the conditions
-        return dsl.selectFrom(EMPLOYEE)
+        return dsl.select(projection.select(EMPLOYEE))
+                .from(EMPLOYEE)
                 .where(filterCondition, abacCondition)
                 .fetchInto(Employee.class);
     }
 
+    /**
+     * Returns the documents of all employees with the computable properties, which are computed by the same query.
+     *
+     * @param properties Formulas of the computable properties by the property names
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "EmployeeService.fetchAllWithProperties", title = "Fetching all employees with computable properties")
+    public List<ObjectNode> fetchAllWithProperties(Map<String, Formula> properties) {
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("EmployeeService.fetchAllWithProperties", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the documents are not returned through the library projection
+        var projection = projectionResolver.resolve("EmployeeService.fetchAllWithProperties", EMPLOYEE);
+
+        // Get the documents of all entries available to the user together with their properties
+        return computablePropertyFetcher.fetch(EMPLOYEE, abacCondition, projection, Employee.class, properties);
+    }
+
+    /**
+     * Returns the documents of the employees by filter with the computable properties, which are computed by the same query.
+     *
+     * @param filter     Filter of the employees
+     * @param properties Formulas of the computable properties by the property names
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "EmployeeService.fetchAllByFilterWithProperties", title = "Fetching all employees by filter with computable properties")
+    public List<ObjectNode> fetchAllByFilterWithProperties(Formula filter, Map<String, Formula> properties) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filterConditionCache.toCondition(filter);
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("EmployeeService.fetchAllByFilterWithProperties", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the documents are not returned through the library projection
+        var projection = projectionResolver.resolve("EmployeeService.fetchAllByFilterWithProperties", EMPLOYEE);
+
+        // Get the documents of all entries that meet the conditions together with their properties
+        return computablePropertyFetcher.fetch(EMPLOYEE, filterCondition.and(abacCondition), projection, Employee.class, properties);
+    }
+
+    /**
+     * Returns a stream of employees by filter, which reads the rows from a database cursor.
+     * <p>
+     * The cursor lives as long as the transaction, so the method must be called within a transaction,
+     * and the stream must be closed after use.
+     *
+     * @param filter Filter of the employees or {@code null} for all employees
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    @TablePermissionPoint(id = "EmployeeService.streamAllByFilter", title = "Streaming all employees by filter")
+    public Stream<Employee> streamAllByFilter(Formula filter) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("EmployeeService.streamAllByFilter", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the rows are not returned through the library projection
+        var projection = projectionResolver.resolve("EmployeeService.streamAllByFilter", EMPLOYEE);
+
+        // Read the visible fields of the entries in batches of the fetch size
+        return dsl.select(projection.select(EMPLOYEE))
+                .from(EMPLOYEE)
+                .where(filterCondition, abacCondition)
+                .fetchSize(properties.getStreaming().getFetchSize())
+                .fetchStream()
+                .map(record -> record.into(Employee.class));
+    }
+
+    /**
+     * Passes the employees by filter to the consumer one by one, without keeping them in memory.
+     *
+     * @param filter   Filter of the employees or {@code null} for all employees
+     * @param consumer Consumer of the employees, which is called within the read-only transaction
+     * @return Number of the consumed employees
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "EmployeeService.forEachByFilter", title = "Processing all employees by filter")
+    public long forEachByFilter(Formula filter, Consumer<Employee> consumer) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("EmployeeService.forEachByFilter", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the rows are not returned through the library projection
+        var projection = projectionResolver.resolve("EmployeeService.forEachByFilter", EMPLOYEE);
+
+        var count = 0L;
+
+        // Read the entries in batches of the fetch size, the cursor is closed when the loop ends
+        try (var cursor = dsl.select(projection.select(EMPLOYEE))
+                .from(EMPLOYEE)
+                .where(filterCondition, abacCondition)
+                .fetchSize(properties.getStreaming().getFetchSize())
+                .fetchLazy()) {
+
+            for (var record : cursor) {
+                consumer.accept(record.into(Employee.class));
+                count++;
+            }
+        }
+
+        log.debug("Processed {} employees", count);
+
+        return count;
+    }
+
+    /**
+     * Returns a page of employees by filter, ordered by the sort key.
+     *
+     * @param filter  Filter of the employees or {@code null} for all employees
+     * @param sortKey Sort key of the pages, the cursor of a page is valid only for the same key
+     * @param request Cursor and size of the page
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "EmployeeService.fetchPage", title = "Fetching a page of employees")
+    public Page<Employee> fetchPage(Formula filter, EmployeeSortKey sortKey, PageRequest request) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("EmployeeService.fetchPage", READ, EMPLOYEE);
+
+        // Determine the fields visible to the user, the page is built past the library projection
+        var projection = projectionResolver.resolve("EmployeeService.fetchPage", EMPLOYEE);
+
+        // Get the page of entries that follow the cursor
+        return keysetPaginator.fetchPage(EMPLOYEE, filterCondition.and(abacCondition), sortKey.getField(), EMPLOYEE.ID, request, projection)
+                .map(record -> record.into(Employee.class));
+    }
+
     /**
      * Creates an employee.
      */
@@ -103,6 +281,9 @@ public class EmployeeService {
 
         log.debug("Employee created: {}", employee);
 
+        // The employee may be a user, whose attributes are cached, other nodes are notified by the database
+        userAttributeResolver.invalidate(id.toString());
+
         return employee;
     }
 
@@ -131,9 +312,100 @@ public class EmployeeService {
 
         log.debug("Employee updated: {}", employee);
 
+        // The employee may be a user, whose attributes are cached, other nodes are notified by the database
+        userAttributeResolver.invalidate(id.toString());
+
         return employee;
     }
 
+    /**
+     * Creates the employees with multi-row statements and checks the write filters once for the whole batch.
+     *
+     * @param dtos Data of the new employees
+     * @param mode Handling of the employees rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "EmployeeService.createAll", title = "Creating employees", effect = WRITE)
+    public BatchResult<Employee> createAll(List<Employee> dtos, BatchMode mode) {
+
+        log.debug("Creating {} employees", dtos.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("EmployeeService.createAll", WRITE, EMPLOYEE);
+
+        // Generate random IDs of the new records
+        var records = dtos.stream()
+                .map(dto -> toRecord(UUID.randomUUID(), dto))
+                .toList();
+
+        var result = batchWriter.createAll(EMPLOYEE, EMPLOYEE.ID, BATCH_FIELDS, records, abacCondition, mode, "EmployeeService.createAll")
+                .map(record -> record.into(Employee.class));
+
+        log.debug("Created {} employees, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        // The employees may be users, whose attributes are cached, other nodes are notified by the database
+        result.getAccepted().forEach(employee -> userAttributeResolver.invalidate(employee.getId().toString()));
+
+        return result;
+    }
+
+    /**
+     * Modifies the employees with the IDs of the given data with multi-row statements
+     * and checks the write filters once for the whole batch.
+     *
+     * @param dtos Data of the employees including their IDs
+     * @param mode Handling of the employees rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "EmployeeService.updateAll", title = "Updating employees", effect = WRITE)
+    public BatchResult<Employee> updateAll(List<Employee> dtos, BatchMode mode) {
+
+        log.debug("Modifying {} employees", dtos.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("EmployeeService.updateAll", WRITE, EMPLOYEE);
+
+        var records = dtos.stream()
+                .map(dto -> toRecord(dto.getId(), dto))
+                .toList();
+
+        var result = batchWriter.updateAll(EMPLOYEE, EMPLOYEE.ID, BATCH_FIELDS, records, abacCondition, mode, "EmployeeService.updateAll")
+                .map(record -> record.into(Employee.class));
+
+        log.debug("Updated {} employees, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        // The employees may be users, whose attributes are cached, other nodes are notified by the database
+        result.getAccepted().forEach(employee -> userAttributeResolver.invalidate(employee.getId().toString()));
+
+        return result;
+    }
+
+    /**
+     * Deletes the employees with the specified IDs with multi-row statements
+     * and checks the write filters once for the whole batch.
+     *
+     * @param ids  IDs of the employees
+     * @param mode Handling of the employees rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "EmployeeService.deleteAll", title = "Deleting employees", effect = WRITE)
+    public BatchResult<UUID> deleteAll(Collection<UUID> ids, BatchMode mode) {
+
+        log.debug("Deleting {} employees", ids.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("EmployeeService.deleteAll", WRITE, EMPLOYEE);
+
+        var result = batchWriter.deleteAll(EMPLOYEE, EMPLOYEE.ID, ids, abacCondition, mode, "EmployeeService.deleteAll");
+
+        log.debug("Deleted {} employees, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        // The employees may be users, whose attributes are cached, other nodes are notified by the database
+        result.getAccepted().forEach(id -> userAttributeResolver.invalidate(id.toString()));
+
+        return result;
+    }
+
     /**
      * Deletes the employee with the specified ID.
      */
@@ -149,5 +421,23 @@ public class EmployeeService {
                 .execute();
 
         log.debug("The employee with ID {} has been deleted", id);
+
+        // The employee may be a user, whose attributes are cached, other nodes are notified by the database
+        userAttributeResolver.invalidate(id.toString());
+    }
+
+    private EmployeeRecord toRecord(UUID id, Employee dto) {
+
+        var record = dsl.newRecord(EMPLOYEE);
+
+        record.setId(id);
+        record.setName(dto.getName());
+        record.setBranch(dto.getBranch());
+        record.setRoles(jooqUtils.toNonNullJsonArray(dto.getRoles()));
+        record.setSkills(jooqUtils.toNonNullJsonArray(dto.getSkills()));
+        record.setPassport(dto.getPassport());
+        record.setSalary(dto.getSalary());
+
+        return record;
     }
 }
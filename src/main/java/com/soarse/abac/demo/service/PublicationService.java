@@ -6,22 +6,39 @@ import com.soarse.abac.annotation.filtration.write.Delete;
 import com.soarse.abac.annotation.filtration.write.Update;
 import com.soarse.abac.annotation.permission.TablePermissionPoint;
 import com.soarse.abac.annotation.permission.TablePermissionPointService;
-import com.soarse.abac.builder.condition.AbacConditionBuilder;
+import com.soarse.abac.demo.batch.BatchWriter;
+import com.soarse.abac.demo.condition.AbacConditionCache;
+import com.soarse.abac.demo.condition.FilterConditionCache;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.abac.demo.generated.jooq.tables.records.PublicationRecord;
+import com.soarse.abac.demo.model.BatchMode;
+import com.soarse.abac.demo.model.BatchResult;
+import com.soarse.abac.demo.model.Page;
+import com.soarse.abac.demo.model.PageRequest;
 import com.soarse.abac.demo.model.Publication;
+import com.soarse.abac.demo.model.PublicationSortKey;
+import com.soarse.abac.demo.page.KeysetPaginator;
+import com.soarse.abac.demo.projection.ProjectionResolver;
 import com.soarse.common.annotation.Aim;
 import com.soarse.formula.Formula;
-import com.soarse.formula.service.FiltrationFormulaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
+import org.jooq.TableField;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+import static com.soarse.abac.model.action.ActionEffect.READ;
 import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static org.jooq.impl.DSL.noCondition;
 
 /**
  * Service for managing the publication list.
@@ -32,9 +49,20 @@ import static com.soarse.abac.model.action.ActionEffect.WRITE;
 @TablePermissionPointService(schema = "abac_demo", table = "publication")
 public class PublicationService {
 
+    /**
+     * Columns written by the batch methods, the same as by {@link #create} and {@link #update},
+     * the publication date is set by {@link #setPublicationDate} only
+     */
+    private static final List<TableField<PublicationRecord, ?>> BATCH_FIELDS = List.of(
+            PUBLICATION.BRANCH, PUBLICATION.THEME, PUBLICATION.AUTHOR_ID, PUBLICATION.STATUS, PUBLICATION.TITLE);
+
     private final DSLContext dsl;
-    private final AbacConditionBuilder abacConditionBuilder;
-    private final FiltrationFormulaService filtrationFormulaService;
+    private final AbacConditionCache abacConditionCache;
+    private final FilterConditionCache filterConditionCache;
+    private final KeysetPaginator keysetPaginator;
+    private final ProjectionResolver projectionResolver;
+    private final AbacDemoProperties properties;
+    private final BatchWriter batchWriter;
 
     /**
      * Returns a publication by ID.
@@ -44,10 +72,14 @@ public class PublicationService {
     public Publication fetchOne(UUID id) {
 
         // Form a condition that implements the ABAC filtering function
-        var abacCondition = abacConditionBuilder.build();
+        var abacCondition = abacConditionCache.build("PublicationService.fetchOne", READ, PUBLICATION);
+
+        // Determine the fields visible to the user, the hidden ones are not read from the table
+        var projection = projectionResolver.resolve("PublicationService.fetchOne", PUBLICATION);
 
         // Get a list of all entries available to the user
-        return dsl.selectFrom(PUBLICATION)
+        return dsl.select(projection.select(PUBLICATION))
+                .from(PUBLICATION)
                 .where(PUBLICATION.ID.eq(id), abacCondition)
                 .fetchOptional()
                 .map(record -> record.into(Publication.class))
@@ -62,10 +94,14 @@ public class PublicationService {
     public List<Publication> fetchAll() {
 
         // Form a condition that implements the ABAC filtering function
-        var abacCondition = abacConditionBuilder.build();
+        var abacCondition = abacConditionCache.build("PublicationService.fetchAll", READ, PUBLICATION);
+
+        // Determine the fields visible to the user, the hidden ones are not read from the table
+        var projection = projectionResolver.resolve("PublicationService.fetchAll", PUBLICATION);
 
         // Get a list of all entries available to the user
-        return dsl.selectFrom(PUBLICATION)
+        return dsl.select(projection.select(PUBLICATION))
+                .from(PUBLICATION)
                 .where(abacCondition)
                 .fetchInto(Publication.class);
     }
@@ -78,22 +114,121 @@ public class PublicationService {
     public List<Publication> fetchAllByFilter(Formula filter) {
 
         // Form a condition based on the specified user filter
-        var filterCondition = filtrationFormulaService.toCondition(filter);
+        var filterCondition = filterConditionCache.toCondition(filter);
 
         log.debug("Filter condition:\n{}", filterCondition);
 
         // Form a condition that implements the ABAC filtering function
-        var abacCondition = abacConditionBuilder.build();
+        var abacCondition = abacConditionCache.build("PublicationService.fetchAllByFilter", READ, PUBLICATION);
 
         // If necessary, the condition can be used without jOOQ
         log.debug("ABAC SQL condition:\n{}", abacCondition);
 
+        // Determine the fields visible to the user, the hidden ones are not read from the table
+        var projection = projectionResolver.resolve("PublicationService.fetchAllByFilter", PUBLICATION);
+
         // Get a list of all entries that meet the conditions
-        return dsl.selectFrom(PUBLICATION)
+        return dsl.select(projection.select(PUBLICATION))
+                .from(PUBLICATION)
                 .where(filterCondition, abacCondition)
                 .fetchInto(Publication.class);
     }
 
+    /**
+     * Returns a stream of publications by filter, which reads the rows from a database cursor.
+     * <p>
+     * The cursor lives as long as the transaction, so the method must be called within a transaction,
+     * and the stream must be closed after use.
+     *
+     * @param filter Filter of the publications or {@code null} for all publications
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    @TablePermissionPoint(id = "PublicationService.streamAllByFilter", title = "Streaming all publications by filter")
+    public Stream<Publication> streamAllByFilter(Formula filter) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("PublicationService.streamAllByFilter", READ, PUBLICATION);
+
+        // Determine the fields visible to the user, the rows are not returned through the library projection
+        var projection = projectionResolver.resolve("PublicationService.streamAllByFilter", PUBLICATION);
+
+        // Read the visible fields of the entries in batches of the fetch size
+        return dsl.select(projection.select(PUBLICATION))
+                .from(PUBLICATION)
+                .where(filterCondition, abacCondition)
+                .fetchSize(properties.getStreaming().getFetchSize())
+                .fetchStream()
+                .map(record -> record.into(Publication.class));
+    }
+
+    /**
+     * Passes the publications by filter to the consumer one by one, without keeping them in memory.
+     *
+     * @param filter   Filter of the publications or {@code null} for all publications
+     * @param consumer Consumer of the publications, which is called within the read-only transaction
+     * @return Number of the consumed publications
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "PublicationService.forEachByFilter", title = "Processing all publications by filter")
+    public long forEachByFilter(Formula filter, Consumer<Publication> consumer) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("PublicationService.forEachByFilter", READ, PUBLICATION);
+
+        // Determine the fields visible to the user, the rows are not returned through the library projection
+        var projection = projectionResolver.resolve("PublicationService.forEachByFilter", PUBLICATION);
+
+        var count = 0L;
+
+        // Read the entries in batches of the fetch size, the cursor is closed when the loop ends
+        try (var cursor = dsl.select(projection.select(PUBLICATION))
+                .from(PUBLICATION)
+                .where(filterCondition, abacCondition)
+                .fetchSize(properties.getStreaming().getFetchSize())
+                .fetchLazy()) {
+
+            for (var record : cursor) {
+                consumer.accept(record.into(Publication.class));
+                count++;
+            }
+        }
+
+        log.debug("Processed {} publications", count);
+
+        return count;
+    }
+
+    /**
+     * Returns a page of publications by filter, ordered by the sort key.
+     *
+     * @param filter  Filter of the publications or {@code null} for all publications
+     * @param sortKey Sort key of the pages, the cursor of a page is valid only for the same key
+     * @param request Cursor and size of the page
+     */
+    @Transactional(readOnly = true)
+    @TablePermissionPoint(id = "PublicationService.fetchPage", title = "Fetching a page of publications")
+    public Page<Publication> fetchPage(Formula filter, PublicationSortKey sortKey, PageRequest request) {
+
+        // Form a condition based on the specified user filter
+        var filterCondition = filter != null ? filterConditionCache.toCondition(filter) : noCondition();
+
+        // Form a condition that implements the ABAC filtering function
+        var abacCondition = abacConditionCache.build("PublicationService.fetchPage", READ, PUBLICATION);
+
+        // Determine the fields visible to the user, the page is built past the library projection
+        var projection = projectionResolver.resolve("PublicationService.fetchPage", PUBLICATION);
+
+        // Get the page of entries that follow the cursor
+        return keysetPaginator.fetchPage(PUBLICATION, filterCondition.and(abacCondition), sortKey.getField(), PUBLICATION.ID, request, projection)
+                .map(record -> record.into(Publication.class));
+    }
+
     /**
      * Creates a publication.
      */
@@ -177,6 +312,85 @@ public class PublicationService {
         return publication;
     }
 
+    /**
+     * Creates the publications with multi-row statements and checks the write filters once for the whole batch.
+     *
+     * @param dtos Data of the new publications
+     * @param mode Handling of the publications rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "PublicationService.createAll", title = "Creating publications", effect = WRITE)
+    public BatchResult<Publication> createAll(List<Publication> dtos, BatchMode mode) {
+
+        log.debug("Creating {} publications", dtos.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("PublicationService.createAll", WRITE, PUBLICATION);
+
+        // Generate random IDs of the new records
+        var records = dtos.stream()
+                .map(dto -> toRecord(UUID.randomUUID(), dto))
+                .toList();
+
+        var result = batchWriter.createAll(PUBLICATION, PUBLICATION.ID, BATCH_FIELDS, records, abacCondition, mode, "PublicationService.createAll")
+                .map(record -> record.into(Publication.class));
+
+        log.debug("Created {} publications, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        return result;
+    }
+
+    /**
+     * Modifies the publications with the IDs of the given data with multi-row statements
+     * and checks the write filters once for the whole batch.
+     *
+     * @param dtos Data of the publications including their IDs
+     * @param mode Handling of the publications rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "PublicationService.updateAll", title = "Updating publications", effect = WRITE)
+    public BatchResult<Publication> updateAll(List<Publication> dtos, BatchMode mode) {
+
+        log.debug("Modifying {} publications", dtos.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("PublicationService.updateAll", WRITE, PUBLICATION);
+
+        var records = dtos.stream()
+                .map(dto -> toRecord(dto.getId(), dto))
+                .toList();
+
+        var result = batchWriter.updateAll(PUBLICATION, PUBLICATION.ID, BATCH_FIELDS, records, abacCondition, mode, "PublicationService.updateAll")
+                .map(record -> record.into(Publication.class));
+
+        log.debug("Updated {} publications, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        return result;
+    }
+
+    /**
+     * Deletes the publications with the specified IDs with multi-row statements
+     * and checks the write filters once for the whole batch.
+     *
+     * @param ids  IDs of the publications
+     * @param mode Handling of the publications rejected by the write filters
+     */
+    @Transactional
+    @TablePermissionPoint(id = "PublicationService.deleteAll", title = "Deleting publications", effect = WRITE)
+    public BatchResult<UUID> deleteAll(Collection<UUID> ids, BatchMode mode) {
+
+        log.debug("Deleting {} publications", ids.size());
+
+        // Form a condition that implements the ABAC write filtration
+        var abacCondition = abacConditionCache.build("PublicationService.deleteAll", WRITE, PUBLICATION);
+
+        var result = batchWriter.deleteAll(PUBLICATION, PUBLICATION.ID, ids, abacCondition, mode, "PublicationService.deleteAll");
+
+        log.debug("Deleted {} publications, rejected {}", result.getAccepted().size(), result.getRejected().size());
+
+        return result;
+    }
+
     /**
      * Deletes the publication with the specified ID.
      */
@@ -193,4 +407,18 @@ public class PublicationService {
 
         log.debug("The publication with ID {} has been deleted", id);
     }
+
+    private PublicationRecord toRecord(UUID id, Publication dto) {
+
+        var record = dsl.newRecord(PUBLICATION);
+
+        record.setId(id);
+        record.setBranch(dto.getBranch());
+        record.setTheme(dto.getTheme());
+        record.setAuthorId(dto.getAuthorId());
+        record.setStatus(dto.getStatus());
+        record.setTitle(dto.getTitle());
+
+        return record;
+    }
 }
@@ -0,0 +1,90 @@
+package com.soarse.abac.demo.user;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.soarse.formula.context.source.UserAttributeSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * User attribute source, which resolves the attributes of another source once per request and caches them per user.
+ * <p>
+ * Nested service calls of a request, e.g. {@code fetchOne} followed by {@code update}, get the attributes memoized in the request.
+ * Requests of the same authenticated user share the cached attributes until they expire or are invalidated.
+ * Anonymous users and calls outside a request without an authenticated user are not cached per user.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CachingUserAttributeSource implements UserAttributeSource {
+
+    private static final String REQUEST_ATTRIBUTE = CachingUserAttributeSource.class.getName() + ".userAttributes";
+
+    private final UserAttributeSource delegate;
+
+    /**
+     * Attributes by the names of the authenticated users
+     */
+    private final Cache<String, ObjectNode> attributes;
+
+    @Override
+    public ObjectNode getUserAttributes() {
+
+        var request = RequestContextHolder.getRequestAttributes();
+
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ObjectNode memoized) {
+            return memoized;
+        }
+
+        var user = currentUser();
+        var resolved = user != null
+                ? attributes.get(user, ignored -> resolve(user))
+                : delegate.getUserAttributes();
+
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Discards the cached attributes of the user, e.g. after the user has been granted a new role.
+     */
+    public void invalidate(String user) {
+
+        attributes.invalidate(user);
+    }
+
+    public void invalidateAll() {
+
+        attributes.invalidateAll();
+    }
+
+    public CacheStats stats() {
+
+        return attributes.stats();
+    }
+
+    private ObjectNode resolve(String user) {
+
+        log.debug("Resolving the attributes of the user {}", user);
+
+        return delegate.getUserAttributes();
+    }
+
+    private String currentUser() {
+
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,116 @@
+package com.soarse.abac.demo.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Invalidates the cached attributes of the employees changed on any node.
+ * <p>
+ * The employee table announces its changes with {@code NOTIFY} on commit, see the migration {@code V1004},
+ * whose triggers are enabled by {@link EmployeeChangeTriggers} together with this listener.
+ * The listener keeps a connection listening to the channel and invalidates the attributes of the announced employees.
+ * Changes made while the connection is lost are unknown, so all attributes are invalidated after reconnecting.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "abac-demo.employee-user-attributes.enabled")
+public class EmployeeChangeListener {
+
+    public static final String CHANNEL = "abac_demo_employee_changed";
+
+    /**
+     * Payload announcing the change of too many employees to name them
+     */
+    public static final String ALL = "*";
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final DataSource dataSource;
+    private final UserAttributeResolver userAttributeResolver;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+
+        running = true;
+
+        thread = new Thread(this::listen, "employee-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+
+        running = false;
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+
+        while (running) {
+            try (var connection = dataSource.getConnection()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                userAttributeResolver.invalidateAll();
+
+                log.debug("Listening to the changes of the employees");
+
+                var pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    var notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+
+                    if (notifications != null) {
+                        for (var notification : notifications) {
+                            onEmployeeChanged(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+
+                log.warn("Listening to the changes of the employees failed, reconnecting in {}", RECONNECT_DELAY, e);
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void onEmployeeChanged(String employeeId) {
+
+        log.debug("Employee {} has been changed", employeeId);
+
+        if (ALL.equals(employeeId)) {
+            userAttributeResolver.invalidateAll();
+        } else {
+            userAttributeResolver.invalidate(employeeId);
+        }
+    }
+}
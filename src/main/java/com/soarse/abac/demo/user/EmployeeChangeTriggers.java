@@ -0,0 +1,67 @@
+package com.soarse.abac.demo.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Enables the triggers announcing the changes of the employee table, if the user attributes are read from it
+ * by {@code abac-demo.employee-user-attributes.enabled}, and disables them otherwise.
+ * <p>
+ * The triggers are created disabled by the migration {@code V1004}, so the writes do not collect and announce
+ * the changed employees, while no node caches their attributes. Switching the triggers locks the table,
+ * so it is done only if their state differs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeChangeTriggers {
+
+    private static final List<String> TRIGGERS = List.of(
+            "employee_changed_on_insert",
+            "employee_changed_on_update",
+            "employee_changed_on_delete",
+            "employee_changed_on_truncate");
+
+    private final DSLContext dsl;
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+
+        var enabled = environment.getProperty("abac-demo.employee-user-attributes.enabled", Boolean.class, false);
+
+        if (enabledCount() == (enabled ? TRIGGERS.size() : 0)) {
+            return;
+        }
+
+        log.debug("{} the triggers announcing the changes of the employees", enabled ? "Enabling" : "Disabling");
+
+        dsl.execute("ALTER TABLE abac_demo.employee " + TRIGGERS.stream()
+                .map(trigger -> "%s TRIGGER %s".formatted(enabled ? "ENABLE" : "DISABLE", trigger))
+                .collect(joining(", ")));
+    }
+
+    /**
+     * Checks whether all triggers are enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabledCount() == TRIGGERS.size();
+    }
+
+    private int enabledCount() {
+
+        return dsl.fetchCount(dsl.resultQuery(
+                "SELECT 1 FROM pg_trigger WHERE tgrelid = 'abac_demo.employee'::regclass AND tgname = ANY (?) AND tgenabled <> 'D'",
+                (Object) TRIGGERS.toArray(String[]::new)));
+    }
+}
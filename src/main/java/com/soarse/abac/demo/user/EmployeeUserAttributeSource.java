@@ -0,0 +1,67 @@
+package com.soarse.abac.demo.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.formula.context.source.UserAttributeSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+
+/**
+ * User attribute source, which reads the attributes of the authenticated user from the employee table.
+ * <p>
+ * The name of the authenticated user is the ID of the employee, and the attributes are the columns of the employee row,
+ * the same as those of the remote identity service. The attributes are cached per user by {@link CachingUserAttributeSource},
+ * which the changes of the employee table invalidate, see {@link EmployeeChangeListener}.
+ */
+@Slf4j
+@Primary
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "abac-demo.employee-user-attributes.enabled")
+public class EmployeeUserAttributeSource implements UserAttributeSource {
+
+    private final DSLContext dsl;
+    private final ObjectMapper mapper;
+
+    /**
+     * Returns the attributes of the current user, or no attributes, if the user is not an employee.
+     */
+    @Override
+    public ObjectNode getUserAttributes() {
+
+        return currentEmployeeId()
+                .flatMap(id -> dsl.selectFrom(EMPLOYEE)
+                        .where(EMPLOYEE.ID.eq(id))
+                        .fetchOptional())
+                .map(record -> mapper.<ObjectNode>valueToTree(record.into(Employee.class)))
+                .orElseGet(mapper::createObjectNode);
+    }
+
+    private Optional<UUID> currentEmployeeId() {
+
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(UUID.fromString(authentication.getName()));
+        } catch (IllegalArgumentException e) {
+            log.debug("User {} is not an employee", authentication.getName());
+            return Optional.empty();
+        }
+    }
+}
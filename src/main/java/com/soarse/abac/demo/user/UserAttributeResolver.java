@@ -0,0 +1,58 @@
+package com.soarse.abac.demo.user;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.formula.context.source.UserAttributeSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the attributes of the current user into their typed view.
+ * <p>
+ * The view is kept as long as the source returns the same attribute document,
+ * so the memoized attribute values are shared by the requests served from the cache of {@link CachingUserAttributeSource}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAttributeResolver {
+
+    private final UserAttributeSource userAttributeSource;
+
+    /**
+     * Views by the identity of the attribute documents, which are released together with the documents
+     */
+    private final Cache<ObjectNode, UserAttributes> views = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * Returns the attributes of the current user.
+     */
+    public UserAttributes current() {
+
+        return views.get(userAttributeSource.getUserAttributes(), UserAttributes::of);
+    }
+
+    /**
+     * Discards the cached attributes of the user, so they are resolved again on the next request.
+     *
+     * @param user Name of the authenticated user
+     */
+    public void invalidate(String user) {
+
+        if (userAttributeSource instanceof CachingUserAttributeSource source) {
+            source.invalidate(user);
+        }
+    }
+
+    /**
+     * Discards the cached attributes of all users.
+     */
+    public void invalidateAll() {
+
+        if (userAttributeSource instanceof CachingUserAttributeSource source) {
+            source.invalidateAll();
+        }
+    }
+}
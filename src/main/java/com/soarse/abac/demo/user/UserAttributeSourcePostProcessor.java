@@ -0,0 +1,41 @@
+package com.soarse.abac.demo.user;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.abac.demo.config.AbacDemoProperties;
+import com.soarse.formula.context.source.UserAttributeSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the user attribute source into {@link CachingUserAttributeSource}, unless the cache is disabled by {@code abac-demo.user-attribute-cache.enabled}.
+ * <p>
+ * The source is wrapped rather than replaced, so the source provided by the library or the tests stays in charge of resolving the attributes.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserAttributeSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<AbacDemoProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (!(bean instanceof UserAttributeSource userAttributeSource) || bean instanceof CachingUserAttributeSource) {
+            return bean;
+        }
+
+        var settings = properties.getObject().getUserAttributeCache();
+
+        if (!settings.isEnabled()) {
+            return bean;
+        }
+
+        return new CachingUserAttributeSource(userAttributeSource, Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,117 @@
+package com.soarse.abac.demo.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Typed view of the attributes of a user.
+ * <p>
+ * The attributes are looked up by their paths once and memoized, so the operands referring to the same attribute,
+ * e.g. {@code roles} in every target rule, do not walk the JSON document again. The document must not be modified afterwards.
+ */
+public final class UserAttributes {
+
+    private final ObjectNode document;
+
+    /**
+     * Attribute nodes by the paths
+     */
+    private final Map<String, JsonNode> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Converted attribute values by the paths and the conversions, the empty values stand for {@code null}
+     */
+    private final Map<String, Optional<Object>> values = new ConcurrentHashMap<>();
+
+    private UserAttributes(ObjectNode document) {
+
+        this.document = document;
+    }
+
+    public static UserAttributes of(ObjectNode document) {
+
+        return new UserAttributes(document);
+    }
+
+    public ObjectNode document() {
+
+        return document;
+    }
+
+    /**
+     * Returns the node of the attribute, e.g. of {@code roles} or {@code address.city}, or a missing node.
+     */
+    public JsonNode get(String path) {
+
+        return nodes.computeIfAbsent(path, ignored -> document.at("/" + path.replace('.', '/')));
+    }
+
+    /**
+     * Returns the value of the attribute converted once by the named conversion.
+     *
+     * @param path       Path of the attribute
+     * @param conversion Name of the conversion, which distinguishes the conversions of the same attribute
+     * @param converter  Conversion of the attribute node
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T convert(String path, String conversion, Function<JsonNode, T> converter) {
+
+        return (T) values.computeIfAbsent(path + "#" + conversion, ignored -> Optional.ofNullable(converter.apply(get(path))))
+                .orElse(null);
+    }
+
+    public Optional<String> getString(String path) {
+
+        return Optional.ofNullable(convert(path, "string", node -> node.isValueNode() ? node.asText() : null));
+    }
+
+    /**
+     * Returns the elements of an array attribute as strings.
+     */
+    public Set<String> getStrings(String path) {
+
+        return convert(path, "strings", node -> {
+            var strings = new LinkedHashSet<String>();
+            node.forEach(element -> strings.add(element.asText()));
+            return Set.copyOf(strings);
+        });
+    }
+
+    public Optional<String> id() {
+
+        return getString("id");
+    }
+
+    public Optional<String> branch() {
+
+        return getString("branch");
+    }
+
+    public Set<String> roles() {
+
+        return getStrings("roles");
+    }
+
+    public Set<String> skills() {
+
+        return getStrings("skills");
+    }
+
+    public boolean hasRole(String role) {
+
+        return roles().contains(role);
+    }
+
+    @Override
+    public String toString() {
+
+        return document.toString();
+    }
+}
@@ -0,0 +1,93 @@
+CREATE TABLE abac_demo.employee_aggregate
+(
+    id         INTEGER NOT NULL PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    row_count  BIGINT  NOT NULL             DEFAULT 0,
+    salary_sum BIGINT  NOT NULL             DEFAULT 0
+);
+
+COMMENT ON TABLE abac_demo.employee_aggregate IS 'Maintained aggregates of the employee table';
+COMMENT ON COLUMN abac_demo.employee_aggregate.id IS 'Always 1, the table has a single row';
+COMMENT ON COLUMN abac_demo.employee_aggregate.row_count IS 'Number of employees';
+COMMENT ON COLUMN abac_demo.employee_aggregate.salary_sum IS 'Total salary of the employees';
+
+INSERT INTO abac_demo.employee_aggregate (row_count, salary_sum)
+SELECT count(*), coalesce(sum(salary), 0)
+FROM abac_demo.employee;
+
+-- The aggregates are updated once per statement in the modifying transaction.
+-- Concurrent transactions queue on the single aggregate row, so each of them checks the rules against the totals
+-- including all previously committed changes, while the employee table itself stays unlocked.
+-- The row lock is what makes a limit like the payroll hold: the trigger runs before the rules are checked,
+-- and a second writer waits for it until the first one ends, then continues from the totals it committed.
+-- Splitting the row to reduce the contention would let concurrent writers pass the limit together.
+
+CREATE FUNCTION abac_demo.maintain_employee_aggregate_on_insert() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE abac_demo.employee_aggregate
+    SET row_count  = row_count + (SELECT count(*) FROM inserted_rows),
+        salary_sum = salary_sum + (SELECT coalesce(sum(salary), 0) FROM inserted_rows);
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.maintain_employee_aggregate_on_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE abac_demo.employee_aggregate
+    SET salary_sum = salary_sum + (SELECT coalesce(sum(salary), 0) FROM updated_rows)
+                                - (SELECT coalesce(sum(salary), 0) FROM previous_rows);
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.maintain_employee_aggregate_on_delete() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE abac_demo.employee_aggregate
+    SET row_count  = row_count - (SELECT count(*) FROM deleted_rows),
+        salary_sum = salary_sum - (SELECT coalesce(sum(salary), 0) FROM deleted_rows);
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.maintain_employee_aggregate_on_truncate() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE abac_demo.employee_aggregate
+    SET row_count  = 0,
+        salary_sum = 0;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER employee_aggregate_on_insert
+    AFTER INSERT
+    ON abac_demo.employee
+    REFERENCING NEW TABLE AS inserted_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.maintain_employee_aggregate_on_insert();
+
+CREATE TRIGGER employee_aggregate_on_update
+    AFTER UPDATE
+    ON abac_demo.employee
+    REFERENCING OLD TABLE AS previous_rows NEW TABLE AS updated_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.maintain_employee_aggregate_on_update();
+
+CREATE TRIGGER employee_aggregate_on_delete
+    AFTER DELETE
+    ON abac_demo.employee
+    REFERENCING OLD TABLE AS deleted_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.maintain_employee_aggregate_on_delete();
+
+CREATE TRIGGER employee_aggregate_on_truncate
+    AFTER TRUNCATE
+    ON abac_demo.employee
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.maintain_employee_aggregate_on_truncate();
@@ -0,0 +1,18 @@
+-- Employees are filtered by branch and paged by salary
+CREATE INDEX employee_branch_idx ON abac_demo.employee (branch);
+CREATE INDEX employee_salary_id_idx ON abac_demo.employee (salary, id);
+
+-- Roles and competencies are checked for containment of values
+CREATE INDEX employee_roles_idx ON abac_demo.employee USING GIN (roles);
+CREATE INDEX employee_skills_idx ON abac_demo.employee USING GIN (skills);
+
+-- The chief editor's rules look up the publications of a branch by theme and date
+CREATE INDEX publication_branch_theme_date_idx ON abac_demo.publication (branch, theme, publication_date);
+CREATE INDEX publication_theme_idx ON abac_demo.publication (theme);
+CREATE INDEX publication_status_idx ON abac_demo.publication (status);
+
+-- Journalists see their own publications, the foreign key to the author is not indexed by itself
+CREATE INDEX publication_author_id_idx ON abac_demo.publication (author_id, id);
+
+-- Publications are paged by the publication date
+CREATE INDEX publication_date_id_idx ON abac_demo.publication (publication_date, id);
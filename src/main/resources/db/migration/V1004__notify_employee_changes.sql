@@ -0,0 +1,90 @@
+-- The employees are the users, whose attributes the nodes cache, so each change of the employee table is announced
+-- on the channel abac_demo_employee_changed once the transaction commits. The payload is the ID of the changed employee,
+-- or '*' if the statement has changed more than 100 employees, which are then neither collected nor announced one by one.
+-- The triggers are created disabled, the application enables them only if abac-demo.employee-user-attributes.enabled
+-- is on, see EmployeeChangeTriggers, so the writes do not notify while no node caches the attributes of the employees.
+
+CREATE FUNCTION abac_demo.notify_employee_changed_on_insert() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF (SELECT count(*) FROM inserted_rows) > 100 THEN
+        PERFORM pg_notify('abac_demo_employee_changed', '*');
+    ELSE
+        PERFORM pg_notify('abac_demo_employee_changed', id::TEXT)
+        FROM inserted_rows;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.notify_employee_changed_on_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    -- An update changing the IDs announces both the previous and the new ones
+    IF (SELECT count(*) FROM updated_rows) > 100 THEN
+        PERFORM pg_notify('abac_demo_employee_changed', '*');
+    ELSE
+        PERFORM pg_notify('abac_demo_employee_changed', id::TEXT)
+        FROM (SELECT id FROM updated_rows UNION SELECT id FROM previous_rows) AS changed_rows;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.notify_employee_changed_on_delete() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF (SELECT count(*) FROM deleted_rows) > 100 THEN
+        PERFORM pg_notify('abac_demo_employee_changed', '*');
+    ELSE
+        PERFORM pg_notify('abac_demo_employee_changed', id::TEXT)
+        FROM deleted_rows;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION abac_demo.notify_employee_changed_on_truncate() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM pg_notify('abac_demo_employee_changed', '*');
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER employee_changed_on_insert
+    AFTER INSERT
+    ON abac_demo.employee
+    REFERENCING NEW TABLE AS inserted_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.notify_employee_changed_on_insert();
+
+CREATE TRIGGER employee_changed_on_update
+    AFTER UPDATE
+    ON abac_demo.employee
+    REFERENCING OLD TABLE AS previous_rows NEW TABLE AS updated_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.notify_employee_changed_on_update();
+
+CREATE TRIGGER employee_changed_on_delete
+    AFTER DELETE
+    ON abac_demo.employee
+    REFERENCING OLD TABLE AS deleted_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.notify_employee_changed_on_delete();
+
+CREATE TRIGGER employee_changed_on_truncate
+    AFTER TRUNCATE
+    ON abac_demo.employee
+    FOR EACH STATEMENT
+EXECUTE FUNCTION abac_demo.notify_employee_changed_on_truncate();
+
+ALTER TABLE abac_demo.employee
+    DISABLE TRIGGER employee_changed_on_insert,
+    DISABLE TRIGGER employee_changed_on_update,
+    DISABLE TRIGGER employee_changed_on_delete,
+    DISABLE TRIGGER employee_changed_on_truncate;
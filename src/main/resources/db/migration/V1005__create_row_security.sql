@@ -0,0 +1,20 @@
+-- Role of the transactions, whose access to the rows is enforced by the row-level security policies.
+-- The policies themselves are compiled from the ABAC policies by the application, see RowSecurityPolicies,
+-- which also enables the row-level security of the tables only if the mode is on, so other roles of the database
+-- are not denied all rows while it is off. The owner of the tables is not subject to the policies.
+
+DO
+$$
+BEGIN
+    IF NOT EXISTS (SELECT FROM pg_roles WHERE rolname = 'abac_demo_rls') THEN
+        CREATE ROLE abac_demo_rls NOLOGIN;
+    END IF;
+
+    -- The application switches to the role within its transactions
+    EXECUTE format('GRANT abac_demo_rls TO %I', current_user);
+END
+$$;
+
+GRANT USAGE ON SCHEMA abac_demo TO abac_demo_rls;
+GRANT SELECT, INSERT, UPDATE, DELETE ON ALL TABLES IN SCHEMA abac_demo TO abac_demo_rls;
+GRANT USAGE, SELECT ON ALL SEQUENCES IN SCHEMA abac_demo TO abac_demo_rls;
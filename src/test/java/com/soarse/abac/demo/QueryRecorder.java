@@ -0,0 +1,49 @@
+package com.soarse.abac.demo;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListener;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL of the statements executed by jOOQ, so a test can check the queries built by the services.
+ * <p>
+ * The recorder is added to the jOOQ configuration by importing it into the test, e.g. {@code @Import(QueryRecorder.class)}.
+ */
+@TestComponent
+public class QueryRecorder extends DefaultExecuteListener implements ExecuteListenerProvider {
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    @Override
+    public ExecuteListener provide() {
+
+        return this;
+    }
+
+    @Override
+    public void executeStart(ExecuteContext context) {
+
+        queries.add(context.sql());
+    }
+
+    /**
+     * Forgets the statements executed so far.
+     */
+    public void clear() {
+
+        queries.clear();
+    }
+
+    /**
+     * Returns the SQL of the statements executed since the last {@link #clear}, which read the table.
+     */
+    public List<String> queries(String table) {
+
+        return queries.stream().filter(sql -> sql.contains("\"%s\"".formatted(table))).toList();
+    }
+}
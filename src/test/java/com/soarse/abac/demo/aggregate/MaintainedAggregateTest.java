@@ -0,0 +1,178 @@
+package com.soarse.abac.demo.aggregate;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import com.soarse.abac.model.policy.Policy;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE_AGGREGATE;
+import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the maintained aggregates follow the employee table and replace the aggregates in the policies.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class MaintainedAggregateTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MaintainedAggregateRewriter maintainedAggregateRewriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The aggregates follow the inserted, updated and deleted employees.
+     */
+    @Test
+    void aggregatesFollowEmployeeTable() {
+
+        assertAggregates(5, 1_070_000);
+
+        // Insert an employee
+        var id = UUID.randomUUID();
+        dsl.insertInto(EMPLOYEE).set(EMPLOYEE.ID, id).set(EMPLOYEE.NAME, "Helen").set(EMPLOYEE.SALARY, 100_000).execute();
+
+        assertAggregates(6, 1_170_000);
+
+        // Raise the salary
+        dsl.update(EMPLOYEE).set(EMPLOYEE.SALARY, 120_000).where(EMPLOYEE.ID.eq(id)).execute();
+
+        assertAggregates(6, 1_190_000);
+
+        // Delete the employee
+        dsl.deleteFrom(EMPLOYEE).where(EMPLOYEE.ID.eq(id)).execute();
+
+        assertAggregates(5, 1_070_000);
+    }
+
+    /**
+     * The payroll rule of the chief editor reads the maintained total salary and still limits the salaries.
+     */
+    @Test
+    void payrollRuleUsesMaintainedAggregate() {
+
+        // Rewrite the modification policy of the chief editor
+        var policy = rewrite("/policy/employee/editorEmployeeWritePolicy.json");
+
+        assertThat(mapper.valueToTree(policy).toString())
+                .contains("\"table\":\"employee_aggregate\"")
+                .contains("\"field\":\"salary_sum\"");
+
+        // Specify the user performing the request
+        setUser(CHIEF_EDITOR);
+
+        // Set up the rewritten policy for modifying the employee list for the chief editor
+        when(policySource.getEntityPolicies(WRITE, EMPLOYEE_TABLE_ID)).thenReturn(List.of(policy));
+
+        // The total payroll would exceed the limit
+        var employeeDTO = Employee.builder().branch(LA_BRANCH).name("Helen").salary(140000).build();
+
+        assertThatThrownBy(() -> employeeService.create(employeeDTO))
+                .isExactlyInstanceOf(AccessDeniedException.class);
+
+        // The total payroll stays within the limit
+        employeeDTO.setSalary(120000);
+
+        assertThat(employeeService.create(employeeDTO).getSalary()).isEqualTo(120000);
+        assertAggregates(6, 1_190_000);
+    }
+
+    /**
+     * Two concurrent writers, each staying within the payroll limit alone, do not exceed it together:
+     * the second one waits for the aggregate row and is checked against the totals of the first one.
+     */
+    @Test
+    @SneakyThrows
+    void concurrentWriterIsCheckedAgainstCommittedTotals() {
+
+        // Specify the user performing the requests
+        setUser(CHIEF_EDITOR);
+
+        // Set up the rewritten policy for modifying the employee list for the chief editor
+        var policy = rewrite("/policy/employee/editorEmployeeWritePolicy.json");
+        when(policySource.getEntityPolicies(WRITE, EMPLOYEE_TABLE_ID)).thenReturn(List.of(policy));
+
+        // Each new employee alone keeps the total payroll of 1,070,000 within the limit of 1,200,000
+        var first = Employee.builder().branch(LA_BRANCH).name("Helen").salary(100000).build();
+        var second = Employee.builder().branch(LA_BRANCH).name("Irene").salary(100000).build();
+
+        var secondResult = transactionTemplate.execute(status -> {
+
+            // The first writer passes the check and keeps its transaction open
+            employeeService.create(first);
+
+            // The second writer runs in its own transaction and waits for the aggregate row
+            var result = CompletableFuture.supplyAsync(() -> employeeService.create(second));
+            awaitLockWait();
+
+            return result;
+        });
+
+        // Ensure the second writer was checked against the committed total of 1,170,000 and rejected
+        assertThatThrownBy(secondResult::get)
+                .isExactlyInstanceOf(ExecutionException.class)
+                .hasCauseExactlyInstanceOf(AccessDeniedException.class);
+
+        assertAggregates(6, 1_170_000);
+    }
+
+    /**
+     * Waits until another session waits for a lock.
+     */
+    @SneakyThrows
+    private void awaitLockWait() {
+
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (dsl.fetchExists(table("pg_locks"), field("granted", Boolean.class).isFalse())) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+
+        throw new AssertionError("The second writer does not wait for the aggregate row");
+    }
+
+    @SneakyThrows
+    private Policy rewrite(String path) {
+
+        var document = maintainedAggregateRewriter.rewrite(mapper.valueToTree(readPolicy(path)));
+
+        return mapper.treeToValue(document, Policy.class);
+    }
+
+    private void assertAggregates(long rowCount, long salarySum) {
+
+        var aggregate = dsl.selectFrom(EMPLOYEE_AGGREGATE).fetchSingle();
+
+        assertThat(aggregate.getRowCount()).isEqualTo(rowCount);
+        assertThat(aggregate.getSalarySum()).isEqualTo(salarySum);
+    }
+}
@@ -0,0 +1,70 @@
+package com.soarse.abac.demo.computation;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying the decorrelation of the functions of a dataset correlated with the queried rows.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class FormulaSqlTranslatorTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private FormulaSqlTranslator formulaSqlTranslator;
+
+    /**
+     * The average salary of the employee's department is computed by a window function over all employees.
+     */
+    @Test
+    void correlatedAverageOfWholeDatasetIsWindowFunction() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Translate the array of salary deviations into a query
+        var query = formulaSqlTranslator.toArrayQuery(readJson("/formula/property/salaryDivergenceArrayFormula.json"));
+
+        log.debug("Array query:\n{}", query);
+
+        // Ensure the average is partitioned by the department instead of being queried for each employee
+        assertThat(dsl.renderInlined(query).toLowerCase()).contains("over (partition by");
+        assertThat(dsl.fetch(query).getValues(0, Long.class)).containsExactlyInAnyOrder(113333L, -26667L, -86667L, 70000L, -70000L);
+    }
+
+    /**
+     * The average salary of the employee's department is computed once per department for the filtered employees.
+     */
+    @Test
+    void correlatedAverageOfFilteredRowsIsJoinedGroup() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Translate the property of the employees
+        var translation = formulaSqlTranslator.translateRows(EMPLOYEE);
+        var divergence = translation.add(readJson("/formula/property/salaryDivergencePropertyFormula.json").get("divergence"));
+
+        var query = dsl.select(divergence)
+                .from(translation.from())
+                .where(EMPLOYEE.BRANCH.eq(LA_BRANCH));
+
+        log.debug("Property query:\n{}", query);
+
+        // Ensure the average is joined as a group and still covers the whole department
+        assertThat(dsl.renderInlined(query).toLowerCase()).contains("left outer join").doesNotContain("over (");
+        assertThat(query.fetch().getValues(0, Long.class)).containsExactlyInAnyOrder(70000L, -70000L);
+    }
+}
@@ -0,0 +1,185 @@
+package com.soarse.abac.demo.computation;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.policy.ApplicablePolicyService;
+import com.soarse.abac.demo.user.UserAttributeResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+
+import static com.soarse.abac.demo.computation.ComputationPath.COMPILED;
+import static com.soarse.abac.demo.computation.ComputationPath.MEMORY;
+import static com.soarse.abac.demo.computation.ComputationPath.SQL;
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the formulas reading datasets are computed by the database.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class PushDownComputationServiceTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private PushDownComputationService pushDownComputationService;
+
+    @Autowired
+    private FormulaCompiler formulaCompiler;
+
+    @Autowired
+    private UserAttributeResolver userAttributeResolver;
+
+    @Autowired
+    private ApplicablePolicyService applicablePolicyService;
+
+    /**
+     * The sum of all salaries is computed by a single aggregate query.
+     */
+    @Test
+    void aggregateOfDatasetIsComputedInDatabase() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Read the formula of the salary fund
+        var formula = readFormula("/formula/property/salarySum.json");
+
+        // Remember the counters, as they are shared by the tests
+        var sql = pushDownComputationService.count(SQL);
+        var memory = pushDownComputationService.count(MEMORY);
+        var formulaSql = pushDownComputationService.count(formula, SQL);
+
+        // Calculate the salary fund
+        var value = pushDownComputationService.computeValue(formula, Long.class);
+
+        log.debug("Computed value: {}", value);
+
+        // Ensure the result matches expectations and the database path was taken
+        assertThat(value).isEqualTo(1_070_000L);
+        assertThat(pushDownComputationService.count(SQL)).isEqualTo(sql + 1);
+        assertThat(pushDownComputationService.count(MEMORY)).isEqualTo(memory);
+
+        // Ensure the path is also counted for the formula itself
+        assertThat(pushDownComputationService.count(formula, SQL)).isEqualTo(formulaSql + 1);
+    }
+
+    /**
+     * The array of salary deviations is computed by a single query.
+     */
+    @Test
+    void arrayOfDatasetIsComputedInDatabase() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Read the formula of the computed array
+        var formula = readFormula("/formula/property/salaryDivergenceArrayFormula.json");
+
+        // Remember the counter, as it is shared by the tests
+        var sql = pushDownComputationService.count(SQL);
+
+        // Calculate the array of salary deviations
+        var array = pushDownComputationService.computeArray(formula, Long.class);
+
+        // Ensure the result matches the in-memory computation
+        assertThat(array).containsExactlyInAnyOrder(113333L, -26667L, -86667L, 70000L, -70000L);
+        assertThat(pushDownComputationService.count(SQL)).isEqualTo(sql + 1);
+    }
+
+    /**
+     * A formula of user attributes only is compiled and computed in memory.
+     */
+    @Test
+    void formulaWithoutDatasetIsCompiled() {
+
+        // Set the user, as the formula depends on user attributes
+        setUser(CHIEF_EDITOR);
+
+        // Read the formula of the calculated value
+        var formula = readFormula("/formula/property/salaryBySkill.json");
+
+        // Remember the counters, as they are shared by the tests
+        var compiled = pushDownComputationService.count(COMPILED);
+        var memory = pushDownComputationService.count(MEMORY);
+        var formulaCompiled = pushDownComputationService.count(formula, COMPILED);
+
+        // Calculate what part of the salary corresponds to one user's skill
+        var value = pushDownComputationService.computeValue(formula, BigDecimal.class);
+
+        // Ensure the result matches the library and the compiled path was taken
+        assertThat(value).isEqualByComparingTo(new BigDecimal(125000));
+        assertThat(pushDownComputationService.count(COMPILED)).isEqualTo(compiled + 1);
+        assertThat(pushDownComputationService.count(MEMORY)).isEqualTo(memory);
+        assertThat(pushDownComputationService.count(formula, COMPILED)).isEqualTo(formulaCompiled + 1);
+        assertThat(pushDownComputationService.count(formula, SQL)).isZero();
+    }
+
+    /**
+     * The permission of a policy is evaluated by the compiled formula, not by the library.
+     */
+    @Test
+    void permissionIsCompiled() {
+
+        // Set the user, whose roles the permission checks
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Find the policy to get its pre-parsed permission
+        var policies = applicablePolicyService.findApplicableIndexedPolicies("EmployeeService.fetchAll", READ, EMPLOYEE);
+        var permission = policies.get(0).permissions().get(0);
+
+        // Remember the counters, as they are shared by the tests
+        var compiled = pushDownComputationService.count(permission, COMPILED);
+        var memory = pushDownComputationService.count(permission, MEMORY);
+
+        // Ensure the policy still applies and its permission took the compiled path
+        assertThat(applicablePolicyService.findApplicableIndexedPolicies("EmployeeService.fetchAll", READ, EMPLOYEE)).hasSize(1);
+        assertThat(pushDownComputationService.count(permission, COMPILED)).isEqualTo(compiled + 1);
+        assertThat(pushDownComputationService.count(permission, MEMORY)).isEqualTo(memory);
+    }
+
+    /**
+     * The quotient of an integer division is an integer, rounded the same way as by the database.
+     */
+    @Test
+    void integerDivisionIsRounded() {
+
+        // Set the user, as the formula depends on user attributes
+        setUser(CHIEF_EDITOR);
+
+        // Compile the formula dividing the salary by three
+        var compiled = formulaCompiler.compile(readFormula("/formula/property/integerSalaryByThree.json")).orElseThrow();
+
+        // Ensure the result is an integer
+        assertThat(compiled.computeValue(userAttributeResolver.current(), JsonNodeFactory.instance.objectNode(), Object.class))
+                .isEqualTo(83333L);
+    }
+
+    /**
+     * A division by zero is reported as unsupported, so the formula is computed by the library instead.
+     */
+    @Test
+    void failedEvaluationIsUnsupported() {
+
+        // Set the user, who has no certificates
+        setUser(CHIEF_EDITOR);
+
+        // Compile the formula dividing the salary by the number of the certificates
+        var compiled = formulaCompiler.compile(readFormula("/formula/property/salaryByCertificate.json")).orElseThrow();
+
+        // Ensure the division by zero is not reported as a failure of the computation
+        assertThatThrownBy(() -> compiled.computeValue(userAttributeResolver.current(), JsonNodeFactory.instance.objectNode(), BigDecimal.class))
+                .isExactlyInstanceOf(UnsupportedOperationException.class)
+                .hasCauseExactlyInstanceOf(ArithmeticException.class);
+    }
+}
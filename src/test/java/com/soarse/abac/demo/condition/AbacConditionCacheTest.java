@@ -0,0 +1,111 @@
+package com.soarse.abac.demo.condition;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the cached ABAC conditions are reused only for the same policies and user attributes.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@TestPropertySource(properties = "abac-demo.condition-cache.enabled=true")
+class AbacConditionCacheTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private AbacConditionCache abacConditionCache;
+
+    /**
+     * The condition is built once for repeated requests of the same user.
+     */
+    @Test
+    public void conditionIsReusedForSameUser() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        var stats = abacConditionCache.stats();
+
+        // Request the list of employees twice
+        var employees = employeeService.fetchAll();
+        var repeatedEmployees = employeeService.fetchAll();
+
+        // Ensure the result meets expectations
+        var requestStats = abacConditionCache.stats().minus(stats);
+
+        assertThat(requestStats.missCount()).isEqualTo(1);
+        assertThat(requestStats.hitCount()).isEqualTo(1);
+        assertThat(repeatedEmployees).isEqualTo(employees);
+    }
+
+    /**
+     * Users with different attributes referenced by the policies get their own conditions.
+     */
+    @Test
+    public void conditionIsNotSharedBetweenDifferentUsers() {
+
+        // Set the reading policies for the list of employees for the editor and the accountant
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID,
+                "/policy/employee/editorEmployeeReadPolicy.json",
+                "/policy/employee/accountantEmployeeReadPolicy.json");
+
+        var stats = abacConditionCache.stats();
+
+        // Request the list of employees as the editor and as the accountant
+        setUser(CHIEF_EDITOR);
+        var editorEmployees = employeeService.fetchAll();
+
+        setUser(ACCOUNTANT);
+        var accountantEmployees = employeeService.fetchAll();
+
+        logEmployees(editorEmployees);
+        logEmployees(accountantEmployees);
+
+        // Ensure the result meets expectations
+        assertThat(abacConditionCache.stats().minus(stats).missCount()).isEqualTo(2);
+        assertThat(editorEmployees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+        assertThat(accountantEmployees).hasSize(5);
+    }
+
+    /**
+     * Evicting the policy cache discards the conditions built from the evicted policies.
+     */
+    @Test
+    public void conditionIsRebuiltAfterPolicyCacheEviction() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        assertThat(employeeService.fetchAll()).hasSize(2);
+
+        // Replace the policies and evict the policy cache
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+        setUser(ADMIN);
+        policyService.evictCache();
+
+        var stats = abacConditionCache.stats();
+
+        // Ensure the new policies apply
+        assertThat(employeeService.fetchAll()).hasSize(5);
+        assertThat(abacConditionCache.stats().minus(stats).missCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.soarse.abac.demo.condition;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.computation.FormulaSqlTranslator;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the ABAC conditions with bound values have the same SQL text for the users sharing the policies.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@TestPropertySource(properties = {
+        "abac-demo.condition-builder.enabled=true",
+        "abac-demo.condition-builder.bind-parameters=true"
+})
+class BoundPolicyConditionTest extends AbstractAbacDemoTest {
+
+    private static final String POINT_ID = "EmployeeService.fetchAll";
+
+    @Autowired
+    private PolicyConditionBuilder policyConditionBuilder;
+
+    @Autowired
+    private FormulaSqlTranslator formulaSqlTranslator;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    /**
+     * The editors of different branches get the same SQL text with different bound branches.
+     */
+    @Test
+    public void usersSharePolicySqlText() {
+
+        // Set the reading policy for the editors
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Build the condition and request the employees for the NY editor
+        setUser(ADMIN);
+        var adminCondition = policyConditionBuilder.build(POINT_ID, READ, EMPLOYEE).orElseThrow();
+        var adminEmployees = employeeService.fetchAll();
+
+        // Build the condition and request the employees for the LA editor
+        setUser(CHIEF_EDITOR);
+        var editorCondition = policyConditionBuilder.build(POINT_ID, READ, EMPLOYEE).orElseThrow();
+        var editorEmployees = employeeService.fetchAll();
+
+        log.debug("Condition: {}", dsl.render(editorCondition));
+
+        // Ensure the result meets expectations
+        assertThat(dsl.render(adminCondition)).isEqualTo(dsl.render(editorCondition));
+        assertThat(dsl.extractBindValues(adminCondition)).containsExactly(NY_BRANCH);
+        assertThat(dsl.extractBindValues(editorCondition)).containsExactly(LA_BRANCH);
+        assertThat(adminEmployees).map(Employee::getBranch).containsOnly(NY_BRANCH).hasSize(3);
+        assertThat(editorEmployees).map(Employee::getBranch).containsOnly(LA_BRANCH).hasSize(2);
+    }
+
+    /**
+     * An array of constants is bound as a single value, whatever its length is.
+     */
+    @Test
+    public void arrayIsBoundAsSingleValue() {
+
+        // Translate the filter comparing the branch with an array
+        setUser(ADMIN);
+        var condition = formulaSqlTranslator.toCondition(EMPLOYEE, readJson("/formula/filter/minimizedBranchFilter.json"));
+
+        log.debug("Condition: {}", dsl.render(condition));
+
+        // Ensure the result meets expectations
+        assertThat(dsl.render(condition).toLowerCase()).contains("= any (");
+        assertThat(dsl.extractBindValues(condition)).hasSize(2);
+        assertThat(dsl.fetchCount(EMPLOYEE, condition)).isEqualTo(4);
+    }
+}
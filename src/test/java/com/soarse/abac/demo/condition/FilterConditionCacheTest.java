@@ -0,0 +1,64 @@
+package com.soarse.abac.demo.condition;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.model.Publication;
+import com.soarse.abac.demo.service.PublicationService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that a cached user filter is bound to the attributes of each user.
+ */
+@Slf4j
+@Sql(value = {"/db/createEmployees.sql", "/db/createPublications.sql"})
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class FilterConditionCacheTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private PublicationService publicationService;
+
+    @Autowired
+    private FilterConditionCache filterConditionCache;
+
+    /**
+     * The filter by the user's branch is translated once and returns the publications of each user's branch.
+     */
+    @Test
+    public void cachedFilterIsBoundToCurrentUser() {
+
+        // Set the access policies to actions and data for the admin and the reading policy for the editor-in-chief
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+
+        // Read the custom user filter
+        var filter = readFormula("/formula/filter/userBranchFilter.json");
+
+        var stats = filterConditionCache.stats();
+
+        // Request the publications of the admin's branch
+        setUser(ADMIN);
+        var adminPublications = publicationService.fetchAllByFilter(filter);
+
+        // Request the publications of the editor's branch
+        setUser(CHIEF_EDITOR);
+        var editorPublications = publicationService.fetchAllByFilter(filter);
+
+        logPublications(adminPublications);
+        logPublications(editorPublications);
+
+        // Ensure the result matches expectations
+        assertThat(adminPublications).hasSize(2);
+        assertThat(adminPublications).map(Publication::getBranch).containsOnly(NY_BRANCH);
+        assertThat(editorPublications).hasSize(3);
+        assertThat(editorPublications).map(Publication::getBranch).containsOnly(LA_BRANCH);
+
+        // The second request reused the translated filter
+        assertThat(filterConditionCache.stats().minus(stats).hitCount()).isEqualTo(1);
+    }
+}
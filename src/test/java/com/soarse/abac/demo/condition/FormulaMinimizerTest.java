@@ -0,0 +1,70 @@
+package com.soarse.abac.demo.condition;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.formula.FormulaDocuments;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the repeated comparisons of merged filters are simplified without changing the result.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class FormulaMinimizerTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private FormulaMinimizer formulaMinimizer;
+
+    @Autowired
+    private FormulaDocuments formulaDocuments;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    /**
+     * The subsumed filter is dropped, the salary limit is factored out and the branches are merged into {@code IN}.
+     */
+    @Test
+    public void redundantFiltersAreMinimized() {
+
+        // Read the filter repeating the same comparisons
+        var formula = readJson("/formula/filter/redundantBranchFilter.json");
+
+        // Minimize the filter
+        var minimized = formulaMinimizer.minimize(formula);
+
+        // Ensure the result meets expectations
+        assertThat(minimized).isEqualTo(readJson("/formula/filter/minimizedBranchFilter.json"));
+        assertThat(formula).isEqualTo(readJson("/formula/filter/redundantBranchFilter.json"));
+    }
+
+    /**
+     * The minimized filter returns the same rows as the original one.
+     */
+    @Test
+    public void minimizedFilterReturnsSameRows() {
+
+        // Specify the user making the request and set the universal policies of the admin
+        setUser(ADMIN);
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Request the employees by the original and the minimized filter
+        var formula = readJson("/formula/filter/redundantBranchFilter.json");
+        var employees = employeeService.fetchAllByFilter(formulaDocuments.toFormula(formula));
+        var minimizedEmployees = employeeService.fetchAllByFilter(formulaDocuments.toFormula(formulaMinimizer.minimize(formula)));
+
+        logEmployees(minimizedEmployees);
+
+        // Ensure the result meets expectations
+        assertThat(employees).hasSize(4);
+        assertThat(minimizedEmployees).map(Employee::getId).containsExactlyInAnyOrderElementsOf(employees.stream().map(Employee::getId).toList());
+    }
+}
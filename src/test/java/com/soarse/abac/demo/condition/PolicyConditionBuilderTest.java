@@ -0,0 +1,100 @@
+package com.soarse.abac.demo.condition;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.computation.PartialEvaluator;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import com.soarse.abac.demo.user.UserAttributes;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.demo.computation.PartialEvaluator.isFalse;
+import static com.soarse.abac.demo.computation.PartialEvaluator.isTrue;
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the user-only parts of the policy filters are evaluated before the translation into SQL.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@TestPropertySource(properties = "abac-demo.condition-builder.enabled=true")
+class PolicyConditionBuilderTest extends AbstractAbacDemoTest {
+
+    private static final String POINT_ID = "EmployeeService.fetchAll";
+
+    @Autowired
+    private PolicyConditionBuilder policyConditionBuilder;
+
+    @Autowired
+    private PartialEvaluator partialEvaluator;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    /**
+     * The role check of a policy target is a constant for each user.
+     */
+    @Test
+    public void roleCheckIsFoldedIntoConstant() {
+
+        // Read the role check of the admin data policy
+        var formula = readJson("/policy/universal/adminDataPolicy.json").at("/target/rules/0/formula");
+
+        // Evaluate the check for the admin and the editor-in-chief
+        var adminResult = partialEvaluator.evaluate(formula, UserAttributes.of(readJsonObject(ADMIN)), false);
+        var editorResult = partialEvaluator.evaluate(formula, UserAttributes.of(readJsonObject(CHIEF_EDITOR)), false);
+
+        // Ensure the result meets expectations
+        assertThat(isTrue(adminResult)).isTrue();
+        assertThat(isFalse(editorResult)).isTrue();
+    }
+
+    /**
+     * The wildcard filter of the admin makes the whole condition a constant, so it is not translated at all.
+     */
+    @Test
+    public void wildcardFilterIsFoldedIntoConstant() {
+
+        // Specify the user making the request and set the universal policies of the admin
+        setUser(ADMIN);
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Build the filter formula of the point
+        var formula = policyConditionBuilder.toFormula(POINT_ID, READ, EMPLOYEE);
+
+        // Ensure the result meets expectations
+        assertThat(formula).hasValueSatisfying(document -> assertThat(isTrue(document)).isTrue());
+        assertThat(employeeService.fetchAll()).hasSize(5);
+    }
+
+    /**
+     * The branch of the editor-in-chief is inlined into the filter, which keeps only the predicate on the rows.
+     */
+    @Test
+    public void userAttributeIsInlined() {
+
+        // Specify the user making the request and set the reading policy for the editor
+        setUser(CHIEF_EDITOR);
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Build the filter formula of the point
+        var formula = policyConditionBuilder.toFormula(POINT_ID, READ, EMPLOYEE).orElseThrow();
+
+        // Ensure the user attribute is replaced with its value
+        assertThat(formula.findValues("category")).map(category -> category.asText()).doesNotContain("USER_ATTRIBUTE");
+        assertThat(formula.findValues("value")).map(value -> value.asText()).contains(LA_BRANCH);
+
+        // Ensure the condition returns the same rows as the library one
+        var employees = employeeService.fetchAll();
+
+        assertThat(employees).hasSize(2);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+    }
+}
@@ -0,0 +1,145 @@
+package com.soarse.abac.demo.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Bulk-loads synthetic employees and publications through PostgreSQL {@code COPY}.
+ * <p>
+ * Rows are streamed to the server in chunks, so millions of rows are loaded with bounded memory.
+ * IDs are derived from the seed and the row number, so the generated rows are reproducible.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SyntheticDatasetGenerator {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final String COPY_EMPLOYEES = "COPY abac_demo.employee (id, name, branch, roles, skills, passport, salary) FROM STDIN";
+    private static final String COPY_PUBLICATIONS = "COPY abac_demo.publication (id, branch, theme, author_id, status, publication_date, title) FROM STDIN";
+
+    private final DataSource dataSource;
+
+    /**
+     * Appends the generated rows to the employee and publication tables.
+     */
+    @SneakyThrows
+    public void generate(SyntheticDatasetSpec spec) {
+
+        var random = new SplittableRandom(spec.getSeed());
+        var employeeIdPrefix = random.nextLong();
+        var publicationIdPrefix = random.nextLong();
+
+        try (var connection = dataSource.getConnection()) {
+
+            var authorCount = spec.getEmployeeCount() + spec.getExistingAuthorIds().size();
+
+            copy(connection, COPY_EMPLOYEES, spec.getEmployeeCount(), (row, line) -> {
+                var id = new UUID(employeeIdPrefix, row);
+                appendEmployee(line, id, row, spec, random);
+            });
+
+            copy(connection, COPY_PUBLICATIONS, spec.getPublicationCount(), (row, line) -> {
+                var id = new UUID(publicationIdPrefix, row);
+                var author = random.nextInt(authorCount);
+                var authorId = author < spec.getEmployeeCount()
+                        ? new UUID(employeeIdPrefix, author)
+                        : spec.getExistingAuthorIds().get(author - spec.getEmployeeCount());
+                appendPublication(line, id, authorId, row, spec, random);
+            });
+
+            try (var statement = connection.createStatement()) {
+                statement.execute("ANALYZE abac_demo.employee");
+                statement.execute("ANALYZE abac_demo.publication");
+            }
+        }
+
+        log.info("Generated {} employees and {} publications with seed {}", spec.getEmployeeCount(), spec.getPublicationCount(), spec.getSeed());
+    }
+
+    private void appendEmployee(StringBuilder line, UUID id, long row, SyntheticDatasetSpec spec, SplittableRandom random) {
+
+        line.append(id).append('\t')
+                .append("Employee ").append(row).append('\t')
+                .append(spec.getBranches().sample(random)).append('\t');
+        appendJsonArray(line, spec.getRoles().sample(random));
+        line.append('\t');
+        appendJsonArray(line, spec.getSkills().sample(random));
+        line.append('\t')
+                .append("%04d %06d".formatted(random.nextInt(10_000), random.nextInt(1_000_000))).append('\t')
+                .append(spec.getSalaries().sample(random)).append('\n');
+    }
+
+    private void appendPublication(StringBuilder line, UUID id, UUID authorId, long row, SyntheticDatasetSpec spec, SplittableRandom random) {
+
+        line.append(id).append('\t')
+                .append(spec.getBranches().sample(random)).append('\t')
+                .append(spec.getThemes().sample(random)).append('\t')
+                .append(authorId).append('\t')
+                .append(spec.getStatuses().sample(random)).append('\t');
+
+        if (random.nextDouble() < spec.getUnscheduledPublicationRatio()) {
+            line.append("\\N");
+        } else {
+            var days = ChronoUnit.DAYS.between(spec.getFirstPublicationDate(), spec.getLastPublicationDate()) + 1;
+            line.append(spec.getFirstPublicationDate().plusDays(random.nextLong(days)));
+        }
+
+        line.append('\t')
+                .append("Publication ").append(row).append('\n');
+    }
+
+    private void appendJsonArray(StringBuilder line, List<String> items) {
+
+        // Generated items contain neither quotes nor characters escaped by the COPY text format
+        line.append(items.stream().map(item -> "\"" + item + "\"").collect(joining(", ", "[", "]")));
+    }
+
+    @SneakyThrows
+    private void copy(Connection connection, String sql, int rowCount, BiConsumer<Long, StringBuilder> rowWriter) {
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+
+        try {
+            var chunk = new StringBuilder(CHUNK_SIZE + 1024);
+
+            for (long row = 0; row < rowCount; row++) {
+                rowWriter.accept(row, chunk);
+
+                if (chunk.length() >= CHUNK_SIZE) {
+                    write(copyIn, chunk);
+                }
+            }
+
+            write(copyIn, chunk);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    @SneakyThrows
+    private void write(CopyIn copyIn, StringBuilder chunk) {
+
+        var bytes = chunk.toString().getBytes(UTF_8);
+
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.soarse.abac.demo.dataset;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the synthetic dataset generator loads reproducible rows with the requested distributions.
+ */
+@Slf4j
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+public class SyntheticDatasetGeneratorTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * The generator loads the requested number of rows with values taken from the given distributions only.
+     */
+    @Test
+    void generatesRequestedRows() {
+
+        var spec = SyntheticDatasetSpec.builder()
+                .employeeCount(1000)
+                .publicationCount(5000)
+                .branches(WeightedChoice.uniform("SF"))
+                .build();
+
+        new SyntheticDatasetGenerator(dataSource).generate(spec);
+
+        // Ensure the result matches expectations
+        assertThat(dsl.fetchCount(EMPLOYEE)).isEqualTo(1000);
+        assertThat(dsl.fetchCount(PUBLICATION)).isEqualTo(5000);
+        assertThat(dsl.selectDistinct(EMPLOYEE.BRANCH).from(EMPLOYEE).fetch(EMPLOYEE.BRANCH)).containsOnly("SF");
+        assertThat(dsl.selectDistinct(PUBLICATION.THEME).from(PUBLICATION).fetch(PUBLICATION.THEME))
+                .isSubsetOf(spec.getThemes().getValues());
+    }
+
+    /**
+     * The same seed produces the same rows.
+     */
+    @Test
+    void sameSeedProducesSameRows() {
+
+        var spec = SyntheticDatasetSpec.builder()
+                .employeeCount(100)
+                .publicationCount(100)
+                .build();
+
+        var generator = new SyntheticDatasetGenerator(dataSource);
+
+        generator.generate(spec);
+        var firstSalaries = dsl.select(EMPLOYEE.SALARY).from(EMPLOYEE).orderBy(EMPLOYEE.ID).fetch(EMPLOYEE.SALARY);
+        var firstAuthors = dsl.select(PUBLICATION.AUTHOR_ID).from(PUBLICATION).orderBy(PUBLICATION.ID).fetch(PUBLICATION.AUTHOR_ID);
+
+        dsl.truncate(PUBLICATION).cascade().execute();
+        dsl.truncate(EMPLOYEE).cascade().execute();
+
+        generator.generate(spec);
+        var secondSalaries = dsl.select(EMPLOYEE.SALARY).from(EMPLOYEE).orderBy(EMPLOYEE.ID).fetch(EMPLOYEE.SALARY);
+        var secondAuthors = dsl.select(PUBLICATION.AUTHOR_ID).from(PUBLICATION).orderBy(PUBLICATION.ID).fetch(PUBLICATION.AUTHOR_ID);
+
+        // Ensure the result matches expectations
+        assertThat(secondSalaries).isEqualTo(firstSalaries);
+        assertThat(secondAuthors).isEqualTo(firstAuthors);
+    }
+}
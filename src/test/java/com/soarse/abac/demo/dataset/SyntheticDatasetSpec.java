@@ -0,0 +1,118 @@
+package com.soarse.abac.demo.dataset;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Size and value distributions of a synthetic dataset for the employee and publication tables.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SyntheticDatasetSpec {
+
+    /**
+     * Seed of the random generator, the same seed produces the same rows
+     */
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * Number of generated employees
+     */
+    @Builder.Default
+    int employeeCount = 1000;
+
+    /**
+     * Number of generated publications
+     */
+    @Builder.Default
+    int publicationCount = 10000;
+
+    /**
+     * Distribution of the holding's branches of both employees and publications
+     */
+    @Builder.Default
+    WeightedChoice<String> branches = WeightedChoice.<String>builder()
+            .add("NY", 3)
+            .add("LA", 2)
+            .build();
+
+    /**
+     * Distribution of the employees' roles
+     */
+    @Builder.Default
+    WeightedSubset roles = new WeightedSubset(
+            WeightedChoice.<Integer>builder().add(1, 9).add(2, 1).build(),
+            WeightedChoice.<String>builder().add("Journalist", 80).add("Chief Editor", 5).add("Accountant", 10).add("Admin", 1).build());
+
+    /**
+     * Distribution of the employees' competencies
+     */
+    @Builder.Default
+    WeightedSubset skills = new WeightedSubset(
+            WeightedChoice.<Integer>builder().add(1, 2).add(2, 5).add(3, 3).build(),
+            WeightedChoice.uniform("Politics", "Economics", "Education", "Sport", "IT", "Salary", "Taxes"));
+
+    /**
+     * Distribution of the employees' salaries
+     */
+    @Builder.Default
+    WeightedChoice<Integer> salaries = WeightedChoice.<Integer>builder()
+            .add(90_000, 4)
+            .add(150_000, 3)
+            .add(250_000, 2)
+            .add(350_000, 1)
+            .build();
+
+    /**
+     * Distribution of the publication themes
+     */
+    @Builder.Default
+    WeightedChoice<String> themes = WeightedChoice.<String>builder()
+            .add("Politics", 3)
+            .add("Economics", 3)
+            .add("Education", 2)
+            .add("Sport", 1)
+            .add("IT", 1)
+            .build();
+
+    /**
+     * Distribution of the publication statuses
+     */
+    @Builder.Default
+    WeightedChoice<String> statuses = WeightedChoice.<String>builder()
+            .add("In progress", 2)
+            .add("Ready", 1)
+            .add("Published", 7)
+            .build();
+
+    /**
+     * First possible publication date
+     */
+    @Builder.Default
+    LocalDate firstPublicationDate = LocalDate.of(2020, 1, 1);
+
+    /**
+     * Last possible publication date
+     */
+    @Builder.Default
+    LocalDate lastPublicationDate = LocalDate.of(2023, 12, 31);
+
+    /**
+     * Share of publications without a publication date
+     */
+    @Builder.Default
+    double unscheduledPublicationRatio = 0.1;
+
+    /**
+     * IDs of already existing employees, who can also be chosen as publication authors
+     */
+    @Builder.Default
+    List<UUID> existingAuthorIds = emptyList();
+}
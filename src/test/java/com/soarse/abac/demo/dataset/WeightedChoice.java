@@ -0,0 +1,94 @@
+package com.soarse.abac.demo.dataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Discrete distribution over a fixed set of values with the given relative weights.
+ */
+public class WeightedChoice<T> {
+
+    private final List<T> values;
+    private final double[] cumulativeWeights;
+
+    private WeightedChoice(List<T> values, List<Double> weights) {
+
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Weighted choice requires at least one value");
+        }
+
+        this.values = List.copyOf(values);
+        this.cumulativeWeights = new double[weights.size()];
+
+        var total = 0d;
+
+        for (var i = 0; i < weights.size(); i++) {
+            if (weights.get(i) < 0) {
+                throw new IllegalArgumentException("Weight of %s must not be negative".formatted(values.get(i)));
+            }
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+
+        if (total <= 0) {
+            throw new IllegalArgumentException("Total weight must be positive");
+        }
+    }
+
+    /**
+     * Distribution choosing each of the values with the same probability.
+     */
+    @SafeVarargs
+    public static <T> WeightedChoice<T> uniform(T... values) {
+
+        var builder = WeightedChoice.<T>builder();
+
+        for (var value : values) {
+            builder.add(value, 1);
+        }
+
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder() {
+
+        return new Builder<>();
+    }
+
+    public T sample(SplittableRandom random) {
+
+        var point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        var index = Arrays.binarySearch(cumulativeWeights, point);
+
+        // The binary search returns the insertion point for the values between the cumulative weights
+        index = index >= 0 ? index + 1 : -index - 1;
+
+        return values.get(Math.min(index, values.size() - 1));
+    }
+
+    public List<T> getValues() {
+
+        return values;
+    }
+
+    public static class Builder<T> {
+
+        private final List<T> values = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        public Builder<T> add(T value, double weight) {
+
+            values.add(value);
+            weights.add(weight);
+
+            return this;
+        }
+
+        public WeightedChoice<T> build() {
+
+            return new WeightedChoice<>(values, weights);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.soarse.abac.demo.dataset;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of JSON arrays, such as roles and skills: the array size and its distinct items are chosen independently.
+ */
+public class WeightedSubset {
+
+    private final WeightedChoice<Integer> sizes;
+    private final WeightedChoice<String> items;
+
+    public WeightedSubset(WeightedChoice<Integer> sizes, WeightedChoice<String> items) {
+
+        this.sizes = sizes;
+        this.items = items;
+    }
+
+    public List<String> sample(SplittableRandom random) {
+
+        var size = Math.min(sizes.sample(random), items.getValues().size());
+        var subset = new LinkedHashSet<String>(size);
+
+        // Items with a low weight may never be chosen, so the number of attempts is limited
+        for (var attempt = 0; subset.size() < size && attempt < size * 100; attempt++) {
+            subset.add(items.sample(random));
+        }
+
+        return List.copyOf(subset);
+    }
+}
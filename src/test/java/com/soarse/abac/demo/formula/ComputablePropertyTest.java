@@ -2,6 +2,8 @@ package com.soarse.abac.demo.formula;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.QueryRecorder;
+import com.soarse.abac.demo.computation.PushDownComputationService;
 import com.soarse.abac.demo.service.EmployeeService;
 import com.soarse.common.util.JsonUtils;
 import com.soarse.formula.service.computations.ComputableFieldInjectionService;
@@ -9,12 +11,22 @@ import com.soarse.formula.service.computations.ComputationService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.math.BigDecimal;
 
+import static com.soarse.abac.demo.computation.ComputationPath.SQL;
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
 import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
 
 /**
@@ -24,6 +36,7 @@ import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TES
 @Slf4j
 @Sql("/db/createEmployees.sql")
 @Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@Import(QueryRecorder.class)
 public class ComputablePropertyTest extends AbstractAbacDemoTest {
 
     @Autowired
@@ -32,9 +45,18 @@ public class ComputablePropertyTest extends AbstractAbacDemoTest {
     @Autowired
     private ComputationService computationService;
 
-    @Autowired
+    @SpyBean
     private ComputableFieldInjectionService computableFieldInjectionService;
 
+    @SpyBean
+    private BulkComputableFieldInjector bulkComputableFieldInjector;
+
+    @Autowired
+    private PushDownComputationService pushDownComputationService;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
     /**
      * Calculation of the formula value in the service memory without a database call.
      * The formula defines what part of the salary corresponds to one user's competence.
@@ -126,4 +148,97 @@ public class ComputablePropertyTest extends AbstractAbacDemoTest {
                 .map(document -> document.get("divergence").asInt())
                 .containsOnly(70000, -70000);
     }
+
+    /**
+     * Add the computable field 'divergence' to all employees at once,
+     * so the average salary is computed once per department instead of once per employee.
+     */
+    @Test
+    void salaryDivergenceBulkPropertyComputation() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Set the access policies to actions and data for the admin
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Request a list of all employees and convert them to documents
+        var documents = employeeService.fetchAll().stream()
+                .map(JsonUtils::toObjectNode)
+                .toList();
+
+        // Read the formula of the computed field
+        var formulas = readComputationalPropertyFormulas("/formula/property/salaryDivergencePropertyFormula.json");
+
+        // Remember the counter, as it is shared by the tests
+        var sql = pushDownComputationService.count(SQL);
+
+        // Add the computed field to all documents at once
+        bulkComputableFieldInjector.injectComputableFields(documents, formulas);
+
+        // Log the received list of documents
+        log.debug("Enriched employee documents:\n{}", documents.stream().map(ObjectNode::toPrettyString).collect(joining(",\n")));
+
+        // Ensure the result matches the injection into each document
+        assertThat(documents)
+                .map(document -> document.get("divergence").asInt())
+                .containsExactlyInAnyOrder(113333, -26667, -86667, 70000, -70000);
+
+        assertThat(documents)
+                .filteredOn(document -> document.get("branch").asText().equals(LA_BRANCH))
+                .map(document -> document.get("divergence").asInt())
+                .containsOnly(70000, -70000);
+
+        // Ensure the average salary was computed by the database once for each of the two departments, not for each of the five employees
+        assertThat(pushDownComputationService.count(SQL)).isEqualTo(sql + 2);
+        verify(computableFieldInjectionService, never()).injectComputableFields(any(ObjectNode.class), argThat(fields -> !fields.containsKey("divergence")));
+        verify(computableFieldInjectionService, times(5)).injectComputableFields(any(ObjectNode.class), argThat(fields -> fields.containsKey("divergence")));
+    }
+
+    /**
+     * Request the employees of a department together with the computable field 'divergence',
+     * which is computed by the same query as the employees.
+     */
+    @Test
+    void salaryDivergencePropertyPushDown() {
+
+        // Set the user, as the formula may depend on user attributes
+        setUser(ADMIN);
+
+        // Set the access policies to actions and data for the admin
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Read the formula of the computed field and the filter by the user's department
+        var formulas = readComputationalPropertyFormulas("/formula/property/salaryDivergencePropertyFormula.json");
+        var filter = readFormula("/formula/filter/userBranchEmployeeFilter.json");
+
+        queryRecorder.clear();
+
+        // Request all employees and the employees of the admin's department with the computed field
+        var documents = employeeService.fetchAllWithProperties(formulas);
+        var branchDocuments = employeeService.fetchAllByFilterWithProperties(filter, formulas);
+
+        // Log the received list of documents
+        log.debug("Employee documents:\n{}", documents.stream().map(ObjectNode::toPrettyString).collect(joining(",\n")));
+
+        // Ensure the result matches the injection into each document
+        assertThat(documents)
+                .map(document -> document.get("divergence").asInt())
+                .containsExactlyInAnyOrder(113333, -26667, -86667, 70000, -70000);
+
+        // The average is taken over the whole department, not only over the filtered employees
+        assertThat(branchDocuments)
+                .map(document -> document.get("divergence").asInt())
+                .containsExactlyInAnyOrder(113333, -26667, -86667);
+
+        // Ensure each request read the employees and computed the average by a single query
+        var queries = queryRecorder.queries(EMPLOYEE.getName());
+
+        log.debug("Queries:\n{}", String.join(",\n", queries));
+
+        assertThat(queries).hasSize(2).allMatch(sql -> sql.contains("avg("));
+
+        // Ensure no property was left to the computation in memory
+        verify(bulkComputableFieldInjector, never()).injectComputableFields(anyList(), argThat(formulas -> !formulas.isEmpty()));
+    }
 }
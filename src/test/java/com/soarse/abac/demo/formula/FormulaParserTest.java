@@ -0,0 +1,96 @@
+package com.soarse.abac.demo.formula;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the client and policy formulas are parsed once and share their identical subtrees.
+ */
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class FormulaParserTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private FormulaParser formulaParser;
+
+    @Autowired
+    private FormulaDocuments formulaDocuments;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    /**
+     * The same filter text is parsed once, and the filters refer to the same entity attribute through one instance.
+     */
+    @Test
+    void parsedFormulasAreCachedAndInterned() {
+
+        // Read the texts of two filters of the publications' branch
+        var branchFilterJson = readDocument("/formula/filter/userBranchFilter.json");
+        var dateFilterJson = readDocument("/formula/filter/userBranchAndPublicationDateFilter.json");
+
+        var hitCount = formulaParser.stats().hitCount();
+
+        // Parse the first filter twice and the second one once
+        var branchFilter = formulaParser.parse(branchFilterJson);
+        var sameBranchFilter = formulaParser.parse(branchFilterJson);
+        var dateFilter = formulaParser.parse(dateFilterJson);
+
+        // Ensure the repeated text is not parsed again
+        assertThat(sameBranchFilter).isSameAs(branchFilter);
+        assertThat(formulaParser.stats().hitCount()).isEqualTo(hitCount + 1);
+
+        // Ensure the documents are remembered and equal to the ones converted by Jackson
+        var branchDocument = formulaDocuments.toDocument(branchFilter);
+        assertThat(formulaDocuments.toDocument(branchFilter)).isSameAs(branchDocument);
+        assertThat(branchDocument).isEqualTo(readJson("/formula/filter/userBranchFilter.json"));
+
+        // Ensure the reference to the branch column is shared by both documents
+        var branchField = branchDocument.at("/operands/0/field");
+        var dateDocument = formulaDocuments.toDocument(dateFilter);
+
+        assertThat(dateDocument.findValues("field")).anySatisfy(field -> assertThat(field).isSameAs(branchField));
+    }
+
+    /**
+     * Equal documents are parsed once, whatever their instances.
+     */
+    @Test
+    void parsedDocumentsAreCached() {
+
+        // Parse two instances of the same filter document
+        var branchFilter = formulaParser.parse(readJson("/formula/filter/userBranchFilter.json"));
+        var sameBranchFilter = formulaParser.parse(readJson("/formula/filter/userBranchFilter.json"));
+
+        // Ensure the second document is not parsed again
+        assertThat(sameBranchFilter).isSameAs(branchFilter);
+    }
+
+    /**
+     * The rules of the policies are parsed by the parser, when the permission point is indexed.
+     */
+    @Test
+    void policyRulesAreParsed() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        var requestCount = formulaParser.stats().requestCount();
+
+        // Request a list of all employees
+        assertThat(employeeService.fetchAll()).hasSize(2);
+
+        // Ensure the rules of the policy went through the parser
+        assertThat(formulaParser.stats().requestCount()).isGreaterThan(requestCount);
+    }
+}
@@ -0,0 +1,59 @@
+package com.soarse.abac.demo.index;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test verifying the advice on the indexes supporting the policies and filters.
+ */
+@Slf4j
+class IndexAdvisorTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    /**
+     * All columns used in the editor's policies and the custom filter are covered by the migrations.
+     */
+    @Test
+    public void editorPoliciesAreSupportedByIndexes() {
+
+        // Set the reading and writing policies of the editor-in-chief
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        setTableEntityPolicies(WRITE, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeWritePolicy.json");
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+        setTableEntityPolicies(WRITE, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationWritePolicy.json");
+
+        // Request the advice for the policies and the custom filter
+        var advice = indexAdvisor.advise(List.of(readFormula("/formula/filter/themeAndStatusFilter.json")));
+
+        log.debug("Advice: {}", advice);
+
+        // Ensure nothing is advised
+        assertThat(advice).isEmpty();
+    }
+
+    /**
+     * A filter by the passport number is advised to be supported by an index.
+     */
+    @Test
+    public void unindexedColumnIsAdvised() {
+
+        // Request the advice for the filter by the passport number
+        var advice = indexAdvisor.adviseForDocuments(List.of(readJson("/formula/filter/passportFilter.json")));
+
+        log.debug("Advice: {}", advice);
+
+        // Ensure the passport column is advised
+        assertThat(advice).containsExactly(new IndexAdvice("abac_demo", "employee", "passport", 1,
+                "CREATE INDEX ON abac_demo.employee (passport);"));
+    }
+}
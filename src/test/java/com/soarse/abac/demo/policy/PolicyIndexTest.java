@@ -0,0 +1,69 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.generated.jooq.Tables.PUBLICATION;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test verifying that the policies of a permission point are merged and prepared once per policy version.
+ */
+@Slf4j
+class PolicyIndexTest extends AbstractAbacDemoTest {
+
+    private static final String EMPLOYEE_ACTION_ID = "abac-demo.EmployeeService.fetchAll";
+    private static final String PUBLICATION_ACTION_ID = "abac-demo.PublicationService.fetchAll";
+
+    @Autowired
+    private PolicyIndex policyIndex;
+
+    /**
+     * The wildcard descriptor of a universal policy is resolved to the filters of every table.
+     */
+    @Test
+    public void wildcardDescriptorIsResolvedForEachTable() {
+
+        // Set the universal policies of the admin
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Look up the policies of the employee and the publication points
+        var employeePolicies = policyIndex.find(EMPLOYEE_ACTION_ID, READ, EMPLOYEE_TABLE_ID, EMPLOYEE);
+        var publicationPolicies = policyIndex.find(PUBLICATION_ACTION_ID, READ, PUBLICATION_TABLE_ID, PUBLICATION);
+
+        // Ensure the result meets expectations
+        assertThat(employeePolicies).hasSize(2);
+        assertThat(employeePolicies).filteredOn(IndexedPolicy::grantsAccess).hasSize(1);
+        assertThat(publicationPolicies).filteredOn(IndexedPolicy::grantsAccess).hasSize(1);
+    }
+
+    /**
+     * Repeated lookups do not load the policies again, and a policy bound to several keys of the point is indexed once.
+     */
+    @Test
+    public void policiesAreMergedOnce() {
+
+        // Set the same policy as a universal and an entity policy
+        setUniversalPolicies("/policy/universal/adminDataPolicy.json");
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID,
+                "/policy/universal/adminDataPolicy.json",
+                "/policy/employee/editorEmployeeReadPolicy.json");
+        clearInvocations(policySource);
+
+        // Look up the policies of the point twice
+        var policies = policyIndex.find(EMPLOYEE_ACTION_ID, READ, EMPLOYEE_TABLE_ID, EMPLOYEE);
+        var repeatedPolicies = policyIndex.find(EMPLOYEE_ACTION_ID, READ, EMPLOYEE_TABLE_ID, EMPLOYEE);
+
+        // Ensure the result meets expectations
+        verify(policySource, times(1)).getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+        assertThat(policies).hasSize(2);
+        assertThat(repeatedPolicies).isSameAs(policies);
+    }
+}
@@ -0,0 +1,113 @@
+package com.soarse.abac.demo.policy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soarse.abac.model.action.ActionEffect;
+import com.soarse.abac.model.policy.Policy;
+import com.soarse.abac.service.PolicySource;
+import com.soarse.common.model.data.entity.id.TableEntityId;
+import com.soarse.formula.context.source.UserAttributeSource;
+import com.soarse.test.AbstractPostgresIntegrationTest;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static com.soarse.common.util.file.ClassPathFileLoader.read;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test verifying that a policy source bean of the application, unlike the mocked ones of the other tests,
+ * is wrapped by {@link PolicySourcePostProcessor}, so its policies are rewritten and kept in a snapshot.
+ */
+@Slf4j
+class PolicySourcePostProcessorTest extends AbstractPostgresIntegrationTest {
+
+    private static final TableEntityId EMPLOYEE_TABLE_ID = new TableEntityId("abac-demo", "abac_demo", "employee");
+
+    @Autowired
+    private PolicySource policySource;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @MockBean
+    private UserAttributeSource userAttributeSource;
+
+    /**
+     * The policy source is wrapped into the snapshot of the rewritten policies.
+     */
+    @Test
+    public void policySourceIsWrapped() {
+
+        assertThat(policySource).isInstanceOf(SnapshotPolicySource.class);
+    }
+
+    /**
+     * The payroll limit of the modification policy reads the maintained aggregate instead of the employee table.
+     */
+    @Test
+    public void policiesAreRewritten() {
+
+        // Read the modification policies of the employee list through the wrapped source
+        var policies = policySource.getEntityPolicies(WRITE, EMPLOYEE_TABLE_ID);
+
+        log.debug("Policies: {}", policies);
+
+        // Ensure the policy was rewritten
+        assertThat(policies).hasSize(1);
+        assertThat(mapper.valueToTree(policies.get(0)).toString()).contains("\"employee_aggregate\"");
+    }
+
+    @TestConfiguration
+    static class PolicySourceConfiguration {
+
+        @Bean
+        @Primary
+        public PolicySource fixedPolicySource(ObjectMapper mapper) {
+
+            return new FixedPolicySource(mapper);
+        }
+    }
+
+    /**
+     * Policy source returning only the modification policy of the employee list for the chief editor.
+     */
+    @RequiredArgsConstructor
+    static class FixedPolicySource implements PolicySource {
+
+        private final ObjectMapper mapper;
+
+        @Override
+        public List<Policy> getUniversalPolicies() {
+
+            return List.of();
+        }
+
+        @Override
+        public List<Policy> getActionPolicies(String actionId) {
+
+            return List.of();
+        }
+
+        @Override
+        @SneakyThrows
+        public List<Policy> getEntityPolicies(ActionEffect effect, TableEntityId entityId) {
+
+            if (effect != WRITE || !EMPLOYEE_TABLE_ID.equals(entityId)) {
+                return List.of();
+            }
+
+            var document = read("/policy/employee/editorEmployeeWritePolicy.json", AbstractPostgresIntegrationTest.class);
+
+            return List.of(mapper.readValue(document, Policy.class));
+        }
+    }
+}
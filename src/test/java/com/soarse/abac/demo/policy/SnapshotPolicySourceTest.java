@@ -0,0 +1,92 @@
+package com.soarse.abac.demo.policy;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test verifying that the policy snapshot loads each policy list once and replaces only the invalidated lists.
+ */
+@Slf4j
+class SnapshotPolicySourceTest extends AbstractAbacDemoTest {
+
+    private static final String EMPLOYEE_ACTION_ID = "abac-demo.EmployeeService.fetchAll";
+    private static final String PUBLICATION_ACTION_ID = "abac-demo.PublicationService.fetchAll";
+
+    private SnapshotPolicySource snapshotPolicySource;
+
+    @BeforeEach
+    public void createSource() {
+
+        // Wrap the mocked policy source, which the tests do not wrap themselves
+        snapshotPolicySource = new SnapshotPolicySource(policySource);
+    }
+
+    /**
+     * Repeated reads of the same policies are served by the snapshot.
+     */
+    @Test
+    public void policiesAreLoadedOnce() {
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        clearInvocations(policySource);
+
+        // Read the policies twice
+        var policies = snapshotPolicySource.getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+        var repeatedPolicies = snapshotPolicySource.getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+
+        // Ensure the result meets expectations
+        verify(policySource, times(1)).getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+        assertThat(policies).hasSize(1);
+        assertThat(repeatedPolicies).isSameAs(policies);
+    }
+
+    /**
+     * Refreshing the policies of one entity reloads only them and keeps the versions of unaffected permission points.
+     */
+    @Test
+    public void refreshReplacesOnlyInvalidatedPolicies() {
+
+        // Load the universal policies and the policies of both tables
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+
+        snapshotPolicySource.getUniversalPolicies();
+        snapshotPolicySource.getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+        snapshotPolicySource.getEntityPolicies(READ, PUBLICATION_TABLE_ID);
+
+        var snapshot = snapshotPolicySource.snapshot();
+
+        // Change the employee policies and refresh them
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID,
+                "/policy/employee/editorEmployeeReadPolicy.json",
+                "/policy/employee/accountantEmployeeReadPolicy.json");
+        clearInvocations(policySource);
+
+        snapshotPolicySource.refreshEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+
+        var refreshedSnapshot = snapshotPolicySource.snapshot();
+
+        // Ensure the result meets expectations
+        verify(policySource, times(1)).getEntityPolicies(READ, EMPLOYEE_TABLE_ID);
+        verify(policySource, times(0)).getEntityPolicies(READ, PUBLICATION_TABLE_ID);
+        verify(policySource, times(0)).getUniversalPolicies();
+
+        assertThat(snapshotPolicySource.getEntityPolicies(READ, EMPLOYEE_TABLE_ID)).hasSize(2);
+        assertThat(snapshot.findEntityPolicies(READ, EMPLOYEE_TABLE_ID).orElseThrow()).hasSize(1);
+        assertThat(refreshedSnapshot.version()).isGreaterThan(snapshot.version());
+
+        assertThat(refreshedSnapshot.pointVersion(EMPLOYEE_ACTION_ID, READ, EMPLOYEE_TABLE_ID))
+                .isGreaterThan(snapshot.pointVersion(EMPLOYEE_ACTION_ID, READ, EMPLOYEE_TABLE_ID));
+        assertThat(refreshedSnapshot.pointVersion(PUBLICATION_ACTION_ID, READ, PUBLICATION_TABLE_ID))
+                .isEqualTo(snapshot.pointVersion(PUBLICATION_ACTION_ID, READ, PUBLICATION_TABLE_ID));
+    }
+}
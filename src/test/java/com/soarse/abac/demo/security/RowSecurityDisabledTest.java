@@ -0,0 +1,43 @@
+package com.soarse.abac.demo.security;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the tables do not restrict the other roles of the database, while the row-level security mode is off.
+ */
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class RowSecurityDisabledTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DSLContext dsl;
+
+    /**
+     * A role other than the owner of the tables, e.g. of the reports, sees all rows.
+     */
+    @Test
+    public void otherRoleSeesAllRows() {
+
+        // Count the employees by a role, which is not the owner of the tables
+        var count = transactionTemplate.execute(status -> {
+            dsl.fetch("SELECT set_config('role', ?, true)", RowSecurity.ROLE);
+            return dsl.fetchCount(EMPLOYEE);
+        });
+
+        // Ensure the row-level security of the tables is off
+        assertThat(count).isEqualTo(5);
+        assertThat(dsl.fetchValue("SELECT relrowsecurity FROM pg_class WHERE oid = 'abac_demo.employee'::regclass")).isEqualTo(false);
+    }
+}
@@ -0,0 +1,194 @@
+package com.soarse.abac.demo.security;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.QueryRecorder;
+import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.model.BatchMode.SKIP_REJECTED;
+import static com.soarse.abac.model.action.ActionEffect.READ;
+import static com.soarse.abac.model.action.ActionEffect.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the ABAC filters are enforced by the row-level security policies of the database.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@Import(QueryRecorder.class)
+@TestPropertySource(properties = "abac-demo.row-security.enabled=true")
+class RowSecurityTest extends AbstractAbacDemoTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DSLContext dsl;
+
+    /**
+     * Nichol, a LA chief editor, sees the LA employees, which the database filters for the service.
+     */
+    @Test
+    public void serviceQueryIsFilteredByDatabase() {
+
+        // Specify the user making the request and change the reading policy for the editor
+        setUser(CHIEF_EDITOR);
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        policyService.evictCache();
+
+        // Request a list of all employees
+        queryRecorder.clear();
+        var employees = employeeService.fetchAll();
+
+        logEmployees(employees);
+
+        // Ensure the result meets expectations
+        assertThat(employees).hasSize(2);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+
+        // Ensure the service has read the employees without the ABAC condition
+        assertThat(queryRecorder.queries(EMPLOYEE.getName()))
+                .isNotEmpty()
+                .noneMatch(sql -> sql.toLowerCase().contains(" where "));
+
+        // Ensure the filter has become a policy of the table, and the table enforces it
+        var policy = dsl.fetchValue("SELECT qual FROM pg_policies WHERE tablename = 'employee' AND policyname = 'abac_read'");
+        assertThat(policy).asString().contains(RowSecurity.SETTING);
+        assertThat(dsl.fetchValue("SELECT relrowsecurity FROM pg_class WHERE oid = 'abac_demo.employee'::regclass")).isEqualTo(true);
+    }
+
+    /**
+     * Nichol, a LA chief editor, sees the LA employees granted by a policy of the action,
+     * which the database does not know, so the service filters them itself.
+     */
+    @Test
+    public void actionPoliciesAreFilteredByService() {
+
+        // Specify the user making the request and set the reading policy for the action only
+        setUser(CHIEF_EDITOR);
+        setActionPolicies("abac-demo.EmployeeService.fetchAll", "/policy/employee/editorEmployeeReadPolicy.json");
+        policyService.evictCache();
+
+        // Request a list of all employees
+        queryRecorder.clear();
+        var employees = employeeService.fetchAll();
+
+        logEmployees(employees);
+
+        // Ensure the employees granted by the action policy are visible
+        assertThat(employees).hasSize(2);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+
+        // Ensure the service has read the employees with the ABAC condition
+        assertThat(queryRecorder.queries(EMPLOYEE.getName()))
+                .isNotEmpty()
+                .allMatch(sql -> sql.toLowerCase().contains(" where "));
+    }
+
+    /**
+     * A query bypassing the services is filtered, once it has taken the role and passed the user attributes.
+     */
+    @Test
+    public void reportingQueryIsFiltered() {
+
+        // Change the reading policy for the editor, which compiles it
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        policyService.evictCache();
+
+        // Count the employees as the editor and without the role
+        var editorCount = transactionTemplate.execute(status -> {
+            dsl.fetch("SELECT set_config(?, ?, true), set_config('role', ?, true)",
+                    RowSecurity.SETTING, readJson(CHIEF_EDITOR).toString(), RowSecurity.ROLE);
+            return dsl.fetchCount(EMPLOYEE);
+        });
+        var ownerCount = transactionTemplate.execute(status -> dsl.fetchCount(EMPLOYEE));
+
+        // Ensure the result meets expectations
+        assertThat(editorCount).isEqualTo(2);
+        assertThat(ownerCount).isEqualTo(5);
+    }
+
+    /**
+     * Nichol, a LA chief editor, writes the employees checked by the service, since the writes are not switched to the role:
+     * - creates and updates a LA employee within the salary limit
+     * - is denied the creation of a NY employee, and the batch reports it as rejected
+     * - deletes the LA employee
+     */
+    @Test
+    public void editorWritesAreCheckedByService() {
+
+        // Specify the user making the request and change the policies for the editor
+        setUser(CHIEF_EDITOR);
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        setTableEntityPolicies(WRITE, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeWritePolicy.json");
+        policyService.evictCache();
+
+        // Create and update a LA employee
+        var employeeDTO = Employee.builder().branch(LA_BRANCH).name("Helen").salary(120000).build();
+        var employee = employeeService.create(employeeDTO);
+
+        employeeDTO.setSalary(130000);
+        var updatedEmployee = employeeService.update(employee.getId(), employeeDTO);
+
+        assertThat(updatedEmployee.getSalary()).isEqualTo(130000);
+        assertThat(employeeService.fetchAll()).map(Employee::getName).contains("Helen");
+
+        // Try to create a NY employee alone and in a batch
+        var newYorkEmployeeDTO = Employee.builder().branch(NY_BRANCH).name("Bob").salary(20000).build();
+
+        assertThatThrownBy(() -> employeeService.create(newYorkEmployeeDTO))
+                .isExactlyInstanceOf(AccessDeniedException.class);
+
+        var result = employeeService.createAll(List.of(newYorkEmployeeDTO), SKIP_REJECTED);
+
+        assertThat(result.getAccepted()).isEmpty();
+        assertThat(result.getRejected()).map(Employee::getName).containsExactly("Bob");
+
+        // Delete the LA employee
+        employeeService.delete(employee.getId());
+
+        assertThat(employeeService.fetchAll()).map(Employee::getId).doesNotContain(employee.getId());
+    }
+
+    /**
+     * Nichol, a LA chief editor, sees the LA employees with the salary sum of the whole holding,
+     * since the dataset of a computable property is not restricted by the role.
+     */
+    @Test
+    public void datasetOfComputablePropertyIsNotRestricted() {
+
+        // Specify the user making the request and change the reading policy for the editor
+        setUser(CHIEF_EDITOR);
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        policyService.evictCache();
+
+        // Request the employees with the sum of all salaries
+        var documents = employeeService.fetchAllWithProperties(Map.of("salarySum", readFormula("/formula/property/salarySum.json")));
+
+        // Ensure the rows are filtered, but the sum is taken over all employees
+        assertThat(documents).map(document -> document.get("branch").asText()).containsOnly(LA_BRANCH).hasSize(2);
+        assertThat(documents).map(document -> document.get("salarySum").asLong()).containsOnly(1070000L);
+    }
+}
@@ -1,17 +1,29 @@
 package com.soarse.abac.demo.service;
 
 import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.QueryRecorder;
 import com.soarse.abac.demo.model.Employee;
+import com.soarse.abac.demo.model.Page;
+import com.soarse.abac.demo.model.PageRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static com.soarse.abac.demo.model.BatchMode.ALL_OR_NOTHING;
+import static com.soarse.abac.demo.model.BatchMode.SKIP_REJECTED;
+import static com.soarse.abac.demo.model.EmployeeSortKey.ID;
+import static com.soarse.abac.demo.model.EmployeeSortKey.SALARY;
 import static com.soarse.abac.model.action.ActionEffect.READ;
 import static com.soarse.abac.model.action.ActionEffect.WRITE;
 import static java.util.Objects.isNull;
@@ -25,11 +37,18 @@ import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TES
 @Slf4j
 @Sql("/db/createEmployees.sql")
 @Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@Import(QueryRecorder.class)
 public class EmployeeServiceTest extends AbstractAbacDemoTest {
 
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
     /**
      * By default, access to actions is denied.
      * <p>
@@ -122,6 +141,234 @@ public class EmployeeServiceTest extends AbstractAbacDemoTest {
         assertThat(employees).map(Employee::getSalary).allMatch(field -> !isNull(field));
     }
 
+    /**
+     * Nichol, a LA chief editor, gets the passports of the employees as nulls, which are not read from the table
+     * by any of the queries of the employees.
+     */
+    @Test
+    public void editorQueriesDoNotReadPassports() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Request the employees by the list, the page and with a computable property
+        queryRecorder.clear();
+
+        var employees = employeeService.fetchAll();
+        var page = employeeService.fetchPage(null, SALARY, PageRequest.first(10));
+        var documents = employeeService.fetchAllWithProperties(readComputationalPropertyFormulas("/formula/property/salaryDivergencePropertyFormula.json"));
+
+        var queries = queryRecorder.queries(EMPLOYEE.getName());
+
+        log.debug("Queries:\n{}", String.join(",\n", queries));
+
+        // Ensure the result meets expectations
+        assertThat(employees).map(Employee::getPassport).allMatch(Objects::isNull);
+        assertThat(page.getItems()).map(Employee::getPassport).allMatch(Objects::isNull);
+        assertThat(documents).noneMatch(document -> document.hasNonNull("passport"));
+
+        // Ensure the passport column is not read by any of the three queries, while the visible columns are
+        assertThat(queries).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(queries).noneMatch(sql -> sql.contains("\"employee\".\"passport\""));
+        assertThat(queries).anyMatch(sql -> sql.contains("\"employee\".\"salary\""));
+    }
+
+    /**
+     * Admin pages through all employees ordered by salary, each employee appears exactly once.
+     */
+    @Test
+    public void adminCanPageThroughAllEntriesBySalary() {
+
+        // Specify the user making the request
+        setUser(ADMIN);
+
+        // Set access policies for actions and data for admin
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Request the pages of two employees until the last one
+        var employees = new ArrayList<Employee>();
+        Page<Employee> page = employeeService.fetchPage(null, SALARY, PageRequest.first(2));
+        var pageCount = 1;
+
+        employees.addAll(page.getItems());
+
+        while (page.hasNext()) {
+            page = employeeService.fetchPage(null, SALARY, PageRequest.next(page, 2));
+            employees.addAll(page.getItems());
+            pageCount++;
+        }
+
+        // Log the received list
+        logEmployees(employees);
+
+        // Ensure the result meets expectations
+        assertThat(pageCount).isEqualTo(3);
+        assertThat(employees).map(Employee::getSalary).containsExactly(110000, 150000, 210000, 250000, 350000);
+    }
+
+    /**
+     * Nichol, a LA chief editor, pages through LA employees and does not see their passports.
+     */
+    @Test
+    public void editorCanPageThroughLAEntries() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Request the first page of a single employee
+        var firstPage = employeeService.fetchPage(null, ID, PageRequest.first(1));
+
+        assertThat(firstPage.getItems()).hasSize(1);
+        assertThat(firstPage.hasNext()).isTrue();
+
+        // Request the rest of the employees
+        var secondPage = employeeService.fetchPage(null, ID, PageRequest.next(firstPage, 10));
+
+        assertThat(secondPage.getItems()).hasSize(1);
+        assertThat(secondPage.hasNext()).isFalse();
+
+        // Ensure the result meets expectations
+        var employees = new ArrayList<>(firstPage.getItems());
+        employees.addAll(secondPage.getItems());
+
+        logEmployees(employees);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+        assertThat(employees).map(Employee::getPassport).allMatch(Objects::isNull);
+        assertThat(employees).map(Employee::getSalary).allMatch(field -> !isNull(field));
+    }
+
+    /**
+     * Nichol, a LA chief editor, pages through LA employees and does not see any of the excluded fields.
+     */
+    @Test
+    public void editorDoesNotSeeExcludedFields() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy excluding the passport and the salary for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeExcludeReadPolicy.json");
+
+        // Request all employees by a single page
+        var employees = employeeService.fetchPage(null, ID, PageRequest.first(10)).getItems();
+
+        logEmployees(employees);
+
+        // Ensure the result meets expectations
+        assertThat(employees).hasSize(2);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+
+        // These fields are excluded
+        assertThat(employees).map(Employee::getPassport).allMatch(Objects::isNull);
+        assertThat(employees).map(Employee::getSalary).allMatch(Objects::isNull);
+
+        // The other fields are visible
+        assertThat(employees).map(Employee::getName).allMatch(field -> !isNull(field));
+        assertThat(employees).map(Employee::getRoles).allMatch(list -> !list.isEmpty());
+    }
+
+    /**
+     * Nichol, a LA chief editor, pages through LA employees by salary one by one, although the passports are hidden,
+     * and cannot page by the salary, when it is hidden.
+     */
+    @Test
+    public void editorCanPageBySalaryOnlyWhenVisible() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // Request the pages of a single employee until the last one
+        var employees = new ArrayList<Employee>();
+        Page<Employee> page = employeeService.fetchPage(null, SALARY, PageRequest.first(1));
+
+        employees.addAll(page.getItems());
+
+        while (page.hasNext()) {
+            page = employeeService.fetchPage(null, SALARY, PageRequest.next(page, 1));
+            employees.addAll(page.getItems());
+        }
+
+        logEmployees(employees);
+
+        // Ensure every page continues after the salary of the previous one
+        assertThat(employees).map(Employee::getSalary).containsExactly(110000, 250000);
+
+        // Set the reading policy excluding the salary and try to page by it
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeExcludeReadPolicy.json");
+        policyService.evictCache();
+
+        assertThatThrownBy(() -> employeeService.fetchPage(null, SALARY, PageRequest.first(1)))
+                .isExactlyInstanceOf(AccessDeniedException.class)
+                .hasMessageMatching("Sorting by the field salary is forbidden in current context.");
+    }
+
+    /**
+     * Peter, the accountant, processes all employees one by one and sees only his fields.
+     */
+    @Test
+    public void accountantCanProcessAllEntriesOneByOne() {
+
+        // Specify the user executing the request
+        setUser(ACCOUNTANT);
+
+        // Set the read policy for the accountant
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/accountantEmployeeReadPolicy.json");
+
+        // Process all employees
+        var employees = new ArrayList<Employee>();
+        var count = employeeService.forEachByFilter(null, employees::add);
+
+        // Output the obtained list to the log
+        logEmployees(employees);
+
+        // Make sure the result meets expectations
+        assertThat(count).isEqualTo(5);
+        assertThat(employees).hasSize(5);
+        assertThat(employees).map(Employee::getSkills).allMatch(List::isEmpty);
+        assertThat(employees).map(Employee::getPassport).allMatch(field -> !isNull(field));
+    }
+
+    /**
+     * Nichol, a LA chief editor, streams LA employees within a transaction and does not see their passports.
+     */
+    @Test
+    public void editorCanStreamLAEntriesWithinTransaction() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the reading policy for the list of employees for the editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+
+        // The stream cannot outlive the transaction
+        assertThatThrownBy(() -> employeeService.streamAllByFilter(null))
+                .isInstanceOf(IllegalTransactionStateException.class);
+
+        // Stream the employees within a transaction
+        var employees = transactionTemplate.execute(status -> {
+            try (var stream = employeeService.streamAllByFilter(null)) {
+                return stream.toList();
+            }
+        });
+
+        // Log the received list
+        logEmployees(employees);
+
+        // Ensure the result meets expectations
+        assertThat(employees).hasSize(2);
+        assertThat(employees).map(Employee::getBranch).containsOnly(LA_BRANCH);
+        assertThat(employees).map(Employee::getPassport).allMatch(Objects::isNull);
+    }
+
     /**
      * Nichol, a LA chief editor, cannot add an employee to the NY branch.
      */
@@ -254,6 +501,68 @@ public class EmployeeServiceTest extends AbstractAbacDemoTest {
         assertThat(downsizedEmployees).map(Employee::getId).doesNotContain(losAngelesBranchEmployeeId);
     }
 
+    /**
+     * Nichol, the chief editor from LA, creates a batch of employees:
+     * - the whole batch is rejected, if it contains an employee of the NY branch
+     * - when skipping the rejected employees, only the LA employee is created
+     */
+    @Test
+    public void editorCanCreateOnlyLAEmployeesInBatch() {
+
+        // Specify the user performing the request
+        setUser(CHIEF_EDITOR);
+
+        // Set read and write policies for the chief editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        setTableEntityPolicies(WRITE, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeWritePolicy.json");
+
+        // Create objects with the new employees' data, the total payroll stays within the limit
+        var employeeDTOs = List.of(
+                Employee.builder().branch(LA_BRANCH).name("Helen").salary(100000).build(),
+                Employee.builder().branch(NY_BRANCH).name("Bob").salary(20000).build());
+
+        // Try to create the whole batch
+        assertThatThrownBy(() -> employeeService.createAll(employeeDTOs, ALL_OR_NOTHING))
+                .isExactlyInstanceOf(AccessDeniedException.class)
+                .hasMessageMatching("Creation of the records .* by action abac-demo.EmployeeService.createAll is forbidden in current context.");
+
+        assertThat(employeeService.fetchAll()).hasSize(2);
+
+        // Create the batch skipping the rejected employees
+        var result = employeeService.createAll(employeeDTOs, SKIP_REJECTED);
+
+        // Make sure only the LA employee has been created
+        assertThat(result.getAccepted()).map(Employee::getName).containsExactly("Helen");
+        assertThat(result.getRejected()).map(Employee::getName).containsExactly("Bob");
+        assertThat(employeeService.fetchAll()).map(Employee::getName).contains("Helen");
+    }
+
+    /**
+     * Nichol, the chief editor from LA, deletes a batch of employees and only the LA employee is deleted.
+     */
+    @Test
+    public void editorCanDeleteOnlyLAEmployeesInBatch() {
+
+        // Employee IDs for removal
+        var newYorkBranchEmployeeId = UUID.fromString("00000000-0000-0000-0000-000000000003");
+        var losAngelesBranchEmployeeId = UUID.fromString("00000000-0000-0000-0000-000000000005");
+
+        // Specify the user executing the request
+        setUser(CHIEF_EDITOR);
+
+        // Set read and write policies for the chief editor
+        setTableEntityPolicies(READ, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeReadPolicy.json");
+        setTableEntityPolicies(WRITE, EMPLOYEE_TABLE_ID, "/policy/employee/editorEmployeeWritePolicy.json");
+
+        // Delete both employees skipping the rejected ones
+        var result = employeeService.deleteAll(List.of(newYorkBranchEmployeeId, losAngelesBranchEmployeeId), SKIP_REJECTED);
+
+        // Check that only the LA employee has been removed
+        assertThat(result.getAccepted()).containsExactly(losAngelesBranchEmployeeId);
+        assertThat(result.getRejected()).containsExactly(newYorkBranchEmployeeId);
+        assertThat(employeeService.fetchAll()).map(Employee::getId).doesNotContain(losAngelesBranchEmployeeId);
+    }
+
     /**
      * Peter, the accountant:
      * - sees all employees
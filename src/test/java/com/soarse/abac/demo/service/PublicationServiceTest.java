@@ -1,6 +1,7 @@
 package com.soarse.abac.demo.service;
 
 import com.soarse.abac.demo.AbstractAbacDemoTest;
+import com.soarse.abac.demo.model.PageRequest;
 import com.soarse.abac.demo.model.Publication;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.soarse.abac.demo.model.BatchMode.SKIP_REJECTED;
+import static com.soarse.abac.demo.model.PublicationSortKey.PUBLICATION_DATE;
 import static com.soarse.abac.model.action.ActionEffect.READ;
 import static com.soarse.abac.model.action.ActionEffect.WRITE;
 import static java.time.LocalDate.of;
@@ -89,6 +95,137 @@ class PublicationServiceTest extends AbstractAbacDemoTest {
         assertThat(publications).map(Publication::getBranch).containsOnly(LA_BRANCH);
     }
 
+    /**
+     * Admin pages through all publications ordered by the publication date, unscheduled publications come last.
+     */
+    @Test
+    public void adminCanPageThroughAllEntriesByPublicationDate() {
+
+        // Specify the user making the request
+        setUser(ADMIN);
+
+        // Set access policies to actions and data for admin
+        setUniversalPolicies("/policy/universal/adminActionPolicy.json", "/policy/universal/adminDataPolicy.json");
+
+        // Request the pages of two publications
+        var firstPage = publicationService.fetchPage(null, PUBLICATION_DATE, PageRequest.first(2));
+        var secondPage = publicationService.fetchPage(null, PUBLICATION_DATE, PageRequest.next(firstPage, 2));
+        var thirdPage = publicationService.fetchPage(null, PUBLICATION_DATE, PageRequest.next(secondPage, 2));
+
+        // Log the received pages
+        logPublications(firstPage.getItems());
+        logPublications(secondPage.getItems());
+        logPublications(thirdPage.getItems());
+
+        // Make sure the result matches expectations
+        assertThat(firstPage.getItems()).map(Publication::getId)
+                .containsExactly(fromString("00000001-0000-0000-0000-000000000001"), fromString("00000001-0000-0000-0000-000000000003"));
+        assertThat(secondPage.getItems()).map(Publication::getPublicationDate)
+                .containsExactly(of(2023, 6, 10), of(2023, 6, 30));
+        assertThat(thirdPage.getItems()).map(Publication::getId)
+                .containsExactly(fromString("00000001-0000-0000-0000-000000000004"));
+        assertThat(thirdPage.hasNext()).isFalse();
+    }
+
+    /**
+     * Nichol, the LA editor-in-chief, modifies a batch of articles and only the article from his branch is modified.
+     */
+    @Test
+    public void editorCanUpdateOnlyLAEntriesInBatch() {
+
+        // IDs of the publications for modification
+        var nyBranchPublicationId = fromString("00000001-0000-0000-0000-000000000001");
+        var laBranchPublicationId = fromString("00000001-0000-0000-0000-000000000002");
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the policies of reading and modifying the list of publications for the editor-in-chief
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+        setTableEntityPolicies(WRITE, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationWritePolicy.json");
+
+        // Rename both publications
+        var dtos = List.of(
+                Publication.builder().id(nyBranchPublicationId).branch(NY_BRANCH).theme("Economics")
+                        .authorId(fromString("00000000-0000-0000-0000-000000000001")).status("Published")
+                        .publicationDate(of(2023, 5, 25)).title("Renamed").build(),
+                Publication.builder().id(laBranchPublicationId).branch(LA_BRANCH).theme("Economics")
+                        .authorId(fromString("00000000-0000-0000-0000-000000000004")).status("In progress")
+                        .publicationDate(of(2023, 6, 30)).title("Renamed").build());
+
+        var result = publicationService.updateAll(dtos, SKIP_REJECTED);
+
+        // Make sure only the LA publication has been modified
+        assertThat(result.getAccepted()).map(Publication::getId).containsExactly(laBranchPublicationId);
+        assertThat(result.getRejected()).map(Publication::getId).containsExactly(nyBranchPublicationId);
+        assertThat(publicationService.fetchOne(laBranchPublicationId).getTitle()).isEqualTo("Renamed");
+    }
+
+    /**
+     * Nichol, the LA editor-in-chief, modifies a batch of articles, but cannot change their display dates this way,
+     * since the date is set by its own permission point.
+     */
+    @Test
+    public void editorCannotChangePublicationDatesInBatch() {
+
+        // IDs of the LA publications with and without a display date
+        var datedPublicationId = fromString("00000001-0000-0000-0000-000000000002");
+        var undatedPublicationId = fromString("00000001-0000-0000-0000-000000000004");
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the policies of reading and modifying the list of publications for the editor-in-chief
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+        setTableEntityPolicies(WRITE, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationWritePolicy.json");
+
+        // Rename both publications, dropping the date of the first one and setting a date of the second one
+        var dtos = List.of(
+                Publication.builder().id(datedPublicationId).branch(LA_BRANCH).theme("Economics")
+                        .authorId(fromString("00000000-0000-0000-0000-000000000004")).status("In progress")
+                        .title("Renamed").build(),
+                Publication.builder().id(undatedPublicationId).branch(LA_BRANCH).theme("Economics")
+                        .authorId(fromString("00000000-0000-0000-0000-000000000004")).status("In progress")
+                        .publicationDate(of(2024, 1, 1)).title("Renamed").build());
+
+        var result = publicationService.updateAll(dtos, SKIP_REJECTED);
+
+        // Make sure the publications have been renamed, but kept their display dates
+        assertThat(result.getAccepted()).map(Publication::getId).containsExactly(datedPublicationId, undatedPublicationId);
+
+        var datedPublication = publicationService.fetchOne(datedPublicationId);
+        var undatedPublication = publicationService.fetchOne(undatedPublicationId);
+
+        assertThat(datedPublication.getTitle()).isEqualTo("Renamed");
+        assertThat(datedPublication.getPublicationDate()).isEqualTo(of(2023, 6, 30));
+        assertThat(undatedPublication.getTitle()).isEqualTo("Renamed");
+        assertThat(undatedPublication.getPublicationDate()).isNull();
+    }
+
+    /**
+     * Nichol, the LA editor-in-chief, processes the articles from his branch one by one.
+     */
+    @Test
+    public void editorCanProcessLAEntriesOneByOne() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+
+        // Set the policy of reading the list of publications for the editor-in-chief
+        setTableEntityPolicies(READ, PUBLICATION_TABLE_ID, "/policy/publication/editorPublicationReadPolicy.json");
+
+        // Process all publications
+        var publications = new ArrayList<Publication>();
+        var count = publicationService.forEachByFilter(null, publications::add);
+
+        // Log the received list
+        logPublications(publications);
+
+        // Make sure the result matches expectations
+        assertThat(count).isEqualTo(3);
+        assertThat(publications).map(Publication::getBranch).containsOnly(LA_BRANCH);
+    }
+
     /**
      * Nichol, the LA editor-in-chief, can modify all articles from his branch.
      */
@@ -0,0 +1,111 @@
+package com.soarse.abac.demo.user;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test verifying that the user attributes are resolved once per request and once per user until invalidated.
+ */
+@Slf4j
+class CachingUserAttributeSourceTest extends AbstractAbacDemoTest {
+
+    private CachingUserAttributeSource cachingUserAttributeSource;
+
+    @BeforeEach
+    public void createSource() {
+
+        // Wrap the mocked user attribute source, which the tests do not wrap themselves
+        cachingUserAttributeSource = new CachingUserAttributeSource(userAttributeSource, Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .recordStats()
+                .build());
+    }
+
+    @AfterEach
+    public void clearContext() {
+
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Nested calls of the same request resolve the attributes once, even for an anonymous user.
+     */
+    @Test
+    public void attributesAreResolvedOncePerRequest() {
+
+        // Specify the user making the request
+        setUser(CHIEF_EDITOR);
+        clearInvocations(userAttributeSource);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // Resolve the attributes twice within the request
+        var attributes = cachingUserAttributeSource.getUserAttributes();
+        var repeatedAttributes = cachingUserAttributeSource.getUserAttributes();
+
+        // Ensure the result meets expectations
+        verify(userAttributeSource, times(1)).getUserAttributes();
+        assertThat(repeatedAttributes).isSameAs(attributes);
+    }
+
+    /**
+     * Requests of an authenticated user share the cached attributes until they are invalidated.
+     */
+    @Test
+    public void attributesAreCachedPerUserUntilInvalidated() {
+
+        // Specify the user making the requests
+        setUser(CHIEF_EDITOR);
+        clearInvocations(userAttributeSource);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("nichol", null, "ROLE_USER"));
+
+        // Resolve the attributes in two requests
+        cachingUserAttributeSource.getUserAttributes();
+        cachingUserAttributeSource.getUserAttributes();
+
+        verify(userAttributeSource, times(1)).getUserAttributes();
+
+        // Invalidate the attributes of the user and resolve them again
+        cachingUserAttributeSource.invalidate("nichol");
+        cachingUserAttributeSource.getUserAttributes();
+
+        // Ensure the result meets expectations
+        verify(userAttributeSource, times(2)).getUserAttributes();
+    }
+
+    /**
+     * The typed view exposes the attributes without walking the document again.
+     */
+    @Test
+    public void typedViewMemoizesAttributes() {
+
+        // Read the attributes of the chief editor
+        var attributes = UserAttributes.of(readJsonObject(CHIEF_EDITOR));
+
+        // Ensure the result meets expectations
+        assertThat(attributes.branch()).contains(LA_BRANCH);
+        assertThat(attributes.roles()).containsExactly("Chief Editor");
+        assertThat(attributes.skills()).containsExactlyInAnyOrder("Economics", "Sport");
+        assertThat(attributes.hasRole("Admin")).isFalse();
+        assertThat(attributes.get("roles")).isSameAs(attributes.get("roles"));
+        assertThat(attributes.get("passport.number").isMissingNode()).isTrue();
+    }
+}
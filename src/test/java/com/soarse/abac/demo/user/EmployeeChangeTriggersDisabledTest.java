@@ -0,0 +1,63 @@
+package com.soarse.abac.demo.user;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the changes of the employees are not announced, while the user attributes are not read from the employee table.
+ */
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+class EmployeeChangeTriggersDisabledTest extends AbstractAbacDemoTest {
+
+    private static final String CHIEF_EDITOR_ID = "00000000-0000-0000-0000-000000000004";
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeChangeTriggers employeeChangeTriggers;
+
+    /**
+     * A change of an employee is not announced on the channel.
+     */
+    @Test
+    public void employeeChangeIsNotNotified() throws SQLException {
+
+        // Switch the triggers as this context does on start, since a context started later may have switched them
+        employeeChangeTriggers.onApplicationReady();
+        assertThat(employeeChangeTriggers.isEnabled()).isFalse();
+
+        try (var connection = dataSource.getConnection()) {
+            try (var statement = connection.createStatement()) {
+                statement.execute("LISTEN " + EmployeeChangeListener.CHANNEL);
+            }
+
+            // Give the chief editor a raise
+            dsl.update(EMPLOYEE)
+                    .set(EMPLOYEE.SALARY, 260000)
+                    .where(EMPLOYEE.ID.eq(UUID.fromString(CHIEF_EDITOR_ID)))
+                    .execute();
+
+            var notifications = connection.unwrap(PGConnection.class).getNotifications(1000);
+
+            // Ensure the result meets expectations
+            assertThat(notifications).isNullOrEmpty();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.soarse.abac.demo.user;
+
+import com.soarse.abac.demo.AbstractAbacDemoTest;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static com.soarse.abac.demo.generated.jooq.Tables.EMPLOYEE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+/**
+ * Test verifying that the user attributes are read from the employee table and its changes are announced to the nodes.
+ */
+@Slf4j
+@Sql("/db/createEmployees.sql")
+@Sql(value = "/db/truncateTables.sql", executionPhase = AFTER_TEST_METHOD)
+@TestPropertySource(properties = "abac-demo.employee-user-attributes.enabled=true")
+class EmployeeUserAttributeSourceTest extends AbstractAbacDemoTest {
+
+    private static final String CHIEF_EDITOR_ID = "00000000-0000-0000-0000-000000000004";
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeChangeTriggers employeeChangeTriggers;
+
+    @AfterEach
+    public void clearContext() {
+
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * The attributes of the authenticated employee are the columns of the employee row.
+     */
+    @Test
+    public void attributesAreReadFromEmployeeTable() {
+
+        // Authenticate the chief editor by the employee ID
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(CHIEF_EDITOR_ID, null, "ROLE_USER"));
+
+        // Read the attributes of the current user
+        var attributes = new EmployeeUserAttributeSource(dsl, mapper).getUserAttributes();
+
+        // Ensure the result meets expectations
+        assertThat(attributes).isEqualTo(readJson(CHIEF_EDITOR));
+    }
+
+    /**
+     * A change of an employee is announced on the channel listened to by the nodes.
+     */
+    @Test
+    public void employeeChangeIsNotified() throws SQLException {
+
+        // Switch the triggers as this context does on start, since a context started later may have switched them
+        employeeChangeTriggers.onApplicationReady();
+        assertThat(employeeChangeTriggers.isEnabled()).isTrue();
+
+        try (var connection = dataSource.getConnection()) {
+            try (var statement = connection.createStatement()) {
+                statement.execute("LISTEN " + EmployeeChangeListener.CHANNEL);
+            }
+
+            // Give the chief editor a raise
+            dsl.update(EMPLOYEE)
+                    .set(EMPLOYEE.SALARY, 260000)
+                    .where(EMPLOYEE.ID.eq(UUID.fromString(CHIEF_EDITOR_ID)))
+                    .execute();
+
+            var notifications = connection.unwrap(PGConnection.class).getNotifications(5000);
+
+            // Ensure the result meets expectations
+            assertThat(notifications).extracting(PGNotification::getParameter).containsExactly(CHIEF_EDITOR_ID);
+        }
+    }
+}